@@ -0,0 +1,96 @@
+package com.example.food_delivery.config.initialization;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration from the legacy Order.Products join table to OrderItem rows.
+ * Orders without items get one item per distinct product, then the join rows are
+ * dropped unless dual-write is still enabled. Safe to run repeatedly: once every order has been
+ * migrated the first page comes back empty. Runs on startup unless
+ * orders.legacy-products.migrate-on-startup is false.
+ */
+@Component
+public class LegacyOrderProductsMigration implements ApplicationRunner {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.legacy-products.migrate-on-startup:true}")
+    private boolean enabled;
+
+    @Value("${orders.legacy-products.dual-write:false}")
+    private boolean dualWrite;
+
+    @Value("${orders.legacy-products.migration-batch-size:200}")
+    private int batchSize;
+
+    public LegacyOrderProductsMigration(OrderRepository orderRepository,
+                                        TransactionTemplate transactionTemplate) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    public int migrate() {
+        int migrated = 0;
+        Long afterId = 0L;
+        while (true) {
+            PageRequest page = PageRequest.of(0, batchSize);
+            List<Long> ids = dualWrite
+                    ? orderRepository.findIdsWithOnlyLegacyProducts(afterId, page)
+                    : orderRepository.findIdsWithLegacyProducts(afterId, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer count = transactionTemplate.execute(status -> migrateBatch(ids));
+            migrated += count != null ? count : 0;
+            afterId = ids.get(ids.size() - 1);
+        }
+        return migrated;
+    }
+
+    private int migrateBatch(List<Long> ids) {
+        int migrated = 0;
+        for (Order order : orderRepository.findAllById(ids)) {
+            if (!order.hasItems()) {
+                Map<Product, Integer> units = new LinkedHashMap<>();
+                for (Product product : order.getProducts()) {
+                    units.merge(product, 1, Integer::sum);
+                }
+                units.forEach((product, quantity) -> {
+                    OrderItem item = new OrderItem();
+                    item.setOrder(order);
+                    item.setProduct(product);
+                    item.setQuantity(quantity);
+                    item.setUnitPriceSnapshot(product.getPrice());
+                    order.getItems().add(item);
+                });
+                migrated++;
+            }
+            if (!dualWrite) {
+                order.getProducts().clear();
+            }
+            orderRepository.save(order);
+        }
+        return migrated;
+    }
+}
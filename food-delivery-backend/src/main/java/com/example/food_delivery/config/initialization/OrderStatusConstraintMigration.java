@@ -0,0 +1,68 @@
+package com.example.food_delivery.config.initialization;
+
+import com.example.food_delivery.model.enums.OrderStatus;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate writes a check constraint listing the enum values when it creates the orders table,
+ * and ddl-auto=update never changes it afterwards, so statuses added later (EXPIRED) are rejected
+ * on databases created before them. Recreates the constraint from the current enum when a value
+ * is missing. Runs before scheduled tasks and the web server start; safe to run repeatedly.
+ */
+@Component
+public class OrderStatusConstraintMigration implements SmartInitializingSingleton {
+
+    private static final String CONSTRAINT = "orders_status_check";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.status-constraint.migrate-on-startup:true}")
+    private boolean enabled;
+
+    public OrderStatusConstraintMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled && isPostgres()) {
+            migrate();
+        }
+    }
+
+    public boolean migrate() {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT pg_get_constraintdef(c.oid) FROM pg_constraint c " +
+                        "WHERE c.conname = ? AND c.conrelid = 'orders'::regclass", String.class, CONSTRAINT);
+        if (!definitions.isEmpty() && Arrays.stream(OrderStatus.values())
+                .allMatch(status -> definitions.get(0).contains("'" + status.name() + "'"))) {
+            return false;
+        }
+        String values = Arrays.stream(OrderStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", "));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE orders DROP CONSTRAINT IF EXISTS " + CONSTRAINT);
+            jdbcTemplate.execute("ALTER TABLE orders ADD CONSTRAINT " + CONSTRAINT + " CHECK (status IN (" + values + "))");
+        });
+        return true;
+    }
+
+    // Other databases (H2 in tests) get the schema from the current enum
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.food_delivery.config.security;
 
+import com.example.food_delivery.web.filters.IdempotencyFilter;
 import com.example.food_delivery.web.filters.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.boot.autoconfigure.security.reactive.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +17,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -28,9 +31,11 @@ import java.util.List;
 public class JwtSecurityWebConfig {
 
     private final JwtFilter jwtFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
-    public JwtSecurityWebConfig(JwtFilter jwtFilter) {
+    public JwtSecurityWebConfig(JwtFilter jwtFilter, IdempotencyFilter idempotencyFilter) {
         this.jwtFilter = jwtFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
 
     @Bean
@@ -76,7 +81,15 @@ public class JwtSecurityWebConfig {
                 )
                 .authorizeHttpRequests(authorizeHttpRequestsCustomizer ->
                         authorizeHttpRequestsCustomizer
+                                // re-dispatches of already authorized streaming responses carry no token
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers(String.valueOf(PathRequest.toStaticResources().atCommonLocations())).permitAll()
+                                // ahead of the public /{id} patterns they would otherwise match
+                                .requestMatchers(
+                                        "/api/products/cache-stats",
+                                        "/api/restaurants/cache-stats"
+                                )
+                                .hasRole("ADMIN")
                                 .requestMatchers(
                                         "/swagger-ui/**",
                                         "/v3/api-docs/**",
@@ -84,10 +97,13 @@ public class JwtSecurityWebConfig {
                                         "/api/user/register",
                                         "/api/user/login",
                                         "/api/restaurants",
+                                        "/api/restaurants/nearby",
                                         "/api/restaurants/{id}",
+                                        "/api/restaurants/{id}/menu",
                                         "/api/products",
                                         "/api/products/{id}",
                                         "/api/products/details/{id}",
+                                        "/api/search/**",
                                         "/api/reviews/**",
                                         "/api/orders/address/{id}",
                                         "/api/user/{username}/password"
@@ -106,6 +122,7 @@ public class JwtSecurityWebConfig {
                                         "/api/orders/pending/cancel",
                                         "/api/orders/my-orders",
                                         "/api/orders/track/{id}",
+                                        "/api/orders/track/{id}/stream",
                                         "/api/payments/**",
                                         "/api/recommendations/**",
                                         "/api/recommendations/advanced/**"
@@ -114,9 +131,14 @@ public class JwtSecurityWebConfig {
                                 .requestMatchers(
                                         "/api/orders/confirmed",
                                         "/api/couriers/assign/{orderId}",
+                                        "/api/couriers/collect/{orderId}",
                                         "/api/couriers/complete/{orderId}",
                                         "/api/couriers/my-orders",
-                                        "/api/couriers/my-delivered-orders"
+                                        "/api/couriers/my-orders/stream",
+                                        "/api/couriers/my-route",
+                                        "/api/couriers/my-delivered-orders",
+                                        "/api/couriers/my-stats",
+                                        "/api/couriers/location"
                                 )
                                 .hasAnyRole("COURIER", "ADMIN")
                                 .requestMatchers(
@@ -135,7 +157,9 @@ public class JwtSecurityWebConfig {
                 .sessionManagement(sessionManagementConfigurer ->
                         sessionManagementConfigurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                // after authorization, so only requests that were allowed through are recorded
+                .addFilterAfter(idempotencyFilter, AuthorizationFilter.class);
         return http.build();
     }
 
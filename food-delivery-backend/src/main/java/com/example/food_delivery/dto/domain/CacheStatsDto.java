@@ -0,0 +1,24 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.helpers.TtlCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record CacheStatsDto(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        double hitRate
+) {
+    public static CacheStatsDto from(TtlCache.Stats stats) {
+        return new CacheStatsDto(stats.hits(), stats.misses(), stats.evictions(), stats.size(), stats.hitRate());
+    }
+
+    public static Map<String, CacheStatsDto> from(Map<String, TtlCache.Stats> tiers) {
+        Map<String, CacheStatsDto> result = new LinkedHashMap<>();
+        tiers.forEach((tier, stats) -> result.put(tier, from(stats)));
+        return result;
+    }
+}
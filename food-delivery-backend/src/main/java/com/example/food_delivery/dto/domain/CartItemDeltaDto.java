@@ -0,0 +1,7 @@
+package com.example.food_delivery.dto.domain;
+
+public record CartItemDeltaDto(
+        Long productId,
+        Integer delta // positive adds units, negative removes them
+) {
+}
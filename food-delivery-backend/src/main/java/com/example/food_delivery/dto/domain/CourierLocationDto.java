@@ -0,0 +1,11 @@
+package com.example.food_delivery.dto.domain;
+
+import java.time.Instant;
+
+public record CourierLocationDto(
+        Long courierId,
+        double lat,
+        double lng,
+        Instant recordedAt
+) {
+}
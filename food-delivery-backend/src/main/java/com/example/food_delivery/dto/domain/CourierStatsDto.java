@@ -0,0 +1,34 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.model.domain.CourierStats;
+
+import java.time.LocalDate;
+
+public record CourierStatsDto(
+        long totalDeliveries,
+        double totalDistanceKm,
+        double totalEarnings,
+        int todayDeliveries,
+        double todayEarnings,
+        int weekDeliveries,
+        double weekEarnings
+) {
+    // Counters of a day or week that has already passed read as zero
+    public static CourierStatsDto from(CourierStats stats, LocalDate today, LocalDate weekStart) {
+        boolean sameDay = today.equals(stats.getDayBucket());
+        boolean sameWeek = weekStart.equals(stats.getWeekBucket());
+        return new CourierStatsDto(
+                stats.getTotalDeliveries(),
+                round2(stats.getTotalDistanceKm()),
+                round2(stats.getTotalEarnings()),
+                sameDay ? stats.getDayDeliveries() : 0,
+                sameDay ? round2(stats.getDayEarnings()) : 0.0,
+                sameWeek ? stats.getWeekDeliveries() : 0,
+                sameWeek ? round2(stats.getWeekEarnings()) : 0.0
+        );
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.model.domain.PageAnchor;
+import com.example.food_delivery.model.exceptions.InvalidCursorException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page. nextCursor is passed back as ?after= and is null on the last page.
+ */
+public record CursorPageDto<T>(
+        List<T> items,
+        String nextCursor
+) {
+    public static final int MAX_LIMIT = 200;
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Listings keyed on id alone use the last id as the cursor
+    public static Long parseIdCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(after);
+        }
+    }
+
+    /**
+     * Cursor of a listing sorted on a value before the id: "value:id", the value empty when the row has none.
+     * A plain id is accepted too, for listings sorted by id alone.
+     */
+    public static PageAnchor parseAnchor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        int colon = after.lastIndexOf(':');
+        try {
+            if (colon < 0) {
+                return new PageAnchor(null, Long.parseLong(after));
+            }
+            String value = after.substring(0, colon);
+            return new PageAnchor(value.isEmpty() ? null : Double.parseDouble(value), Long.parseLong(after.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(after);
+        }
+    }
+
+    public static String anchorCursor(Number value, Long id) {
+        return (value != null ? value.toString() : "") + ':' + id;
+    }
+
+    public static <T> CursorPageDto<T> of(List<T> items, int limit, Function<T, String> cursorOf) {
+        String next = items.size() == limit ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDto<>(items, next);
+    }
+}
@@ -3,6 +3,8 @@ package com.example.food_delivery.dto.domain;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.List;
+
 @Getter
 @Setter
 public class DeliveryZoneDto {
@@ -10,5 +12,6 @@ public class DeliveryZoneDto {
     private String name;
     private Double radiusKm;
     private CoordinatesDto center;
+    private List<CoordinatesDto> boundary;
     private Double deliveryFee;
 }
\ No newline at end of file
@@ -15,7 +15,7 @@ public record DisplayOrderDto(
         return new DisplayOrderDto(
                 order.getId(),
                 order.getUser().getUsername(),
-                DisplayProductDto.from(order.getProducts()),
+                DisplayProductDto.fromItems(order.getItems()),
                 order.getStatus()
         );
     }
@@ -1,8 +1,10 @@
 package com.example.food_delivery.dto.domain;
 
 
+import com.example.food_delivery.model.domain.OrderItem;
 import com.example.food_delivery.model.domain.Product;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public record DisplayProductDto(
@@ -38,4 +40,20 @@ public record DisplayProductDto(
                 .toList();
     }
 
+    // Flat list with one entry per unit, the shape the UI used to get from Order.Products
+    public static List<DisplayProductDto> fromItems(List<OrderItem> items) {
+        List<DisplayProductDto> result = new ArrayList<>();
+        if (items == null) {
+            return result;
+        }
+        for (OrderItem item : items) {
+            DisplayProductDto dto = from(item.getProduct());
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            for (int i = 0; i < quantity; i++) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
 }
@@ -15,10 +15,15 @@ public record DisplayRestaurantDto(
         Integer deliveryTimeEstimate,
         Boolean isOpen,
         String imageUrl,
-        String category
+        String category,
+        Integer etaMinutes
 ) {
 
     public static DisplayRestaurantDto from(Restaurant restaurant) {
+        return from(restaurant, restaurant.getDeliveryTimeEstimate());
+    }
+
+    public static DisplayRestaurantDto from(Restaurant restaurant, Integer etaMinutes) {
         return new DisplayRestaurantDto(
                 restaurant.getId(),
                 restaurant.getName(),
@@ -29,7 +34,8 @@ public record DisplayRestaurantDto(
                 restaurant.getDeliveryTimeEstimate(),
                 restaurant.getIsOpen(),
                 restaurant.getImageUrl(),
-                restaurant.getCategory()
+                restaurant.getCategory(),
+                etaMinutes
         );
     }
 
@@ -0,0 +1,8 @@
+package com.example.food_delivery.dto.domain;
+
+public record LocationPingDto(
+        Double lat,
+        Double lng,
+        Long recordedAt // epoch millis on the device; server time when missing
+) {
+}
@@ -0,0 +1,25 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.model.domain.Product;
+
+// No stock count: it changes with every cart and would make the menu uncacheable
+public record MenuItemDto(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        Boolean isAvailable,
+        String imageUrl
+) {
+
+    public static MenuItemDto from(Product product) {
+        return new MenuItemDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getIsAvailable(),
+                product.getImageUrl()
+        );
+    }
+}
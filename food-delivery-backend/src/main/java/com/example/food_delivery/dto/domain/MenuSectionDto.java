@@ -0,0 +1,9 @@
+package com.example.food_delivery.dto.domain;
+
+import java.util.List;
+
+public record MenuSectionDto(
+        String category,
+        List<MenuItemDto> items
+) {
+}
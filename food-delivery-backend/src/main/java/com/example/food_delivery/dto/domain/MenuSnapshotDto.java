@@ -0,0 +1,15 @@
+package com.example.food_delivery.dto.domain;
+
+/**
+ * A restaurant's menu as the JSON bytes sent to clients. Never modified once built; a product change
+ * replaces it with a snapshot of a higher version. The ETag is derived from the bytes, so a rebuild
+ * that yields the same menu keeps it.
+ */
+public record MenuSnapshotDto(
+        Long restaurantId,
+        long version,
+        String etag,
+        byte[] json,
+        long[] productIds
+) {
+}
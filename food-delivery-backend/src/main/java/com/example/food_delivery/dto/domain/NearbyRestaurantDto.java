@@ -0,0 +1,8 @@
+package com.example.food_delivery.dto.domain;
+
+public record NearbyRestaurantDto(
+        DisplayRestaurantDto restaurant,
+        double distanceKm,
+        double deliveryFee
+) {
+}
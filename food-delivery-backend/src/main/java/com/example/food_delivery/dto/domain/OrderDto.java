@@ -32,4 +32,5 @@ public class OrderDto {
 
     private Instant placedAt;
     private LocalDateTime deliveredAt;
+    private Instant estimatedDeliveryAt;
 }
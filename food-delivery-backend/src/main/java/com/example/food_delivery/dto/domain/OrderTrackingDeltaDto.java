@@ -0,0 +1,27 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+// Pushed to tracking subscribers; only the fields that changed are set
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderTrackingDeltaDto(
+        Long orderId,
+        OrderStatus status,
+        Long courierId,
+        String courierName,
+        Double lat,
+        Double lng,
+        Instant estimatedDeliveryAt,
+        Instant at
+) {
+    public static OrderTrackingDeltaDto status(Long orderId, OrderStatus status, Long courierId, String courierName, Instant at) {
+        return new OrderTrackingDeltaDto(orderId, status, courierId, courierName, null, null, null, at);
+    }
+
+    public static OrderTrackingDeltaDto location(Long orderId, double lat, double lng, Instant at) {
+        return new OrderTrackingDeltaDto(orderId, null, null, null, lat, lng, null, at);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.food_delivery.dto.domain;
+
+import com.example.food_delivery.model.domain.RouteStop;
+
+import java.util.List;
+
+public record RouteStopDto(
+        RouteStop.Type type,
+        List<Long> orderIds,
+        String label,
+        Double lat,
+        Double lng
+) {
+    public static RouteStopDto from(RouteStop stop) {
+        return new RouteStopDto(stop.type(), stop.orderIds(), stop.label(), stop.lat(), stop.lng());
+    }
+}
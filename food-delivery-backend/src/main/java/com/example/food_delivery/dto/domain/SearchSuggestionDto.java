@@ -0,0 +1,9 @@
+package com.example.food_delivery.dto.domain;
+
+// type is "restaurant" or "product", id points into the matching listing
+public record SearchSuggestionDto(
+        String type,
+        Long id,
+        String name
+) {
+}
@@ -0,0 +1,95 @@
+package com.example.food_delivery.helpers;
+
+import com.example.food_delivery.model.domain.Address;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical forms of address parts, so "Ul. Makedonija 5" and "ul makedonija, 5" are the same address.
+ * Lower case, no diacritics or punctuation, single spaces, common street abbreviations expanded.
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // "ul." / "ulica" only says "street" and "br." / "bb" only say "number", so gazetteer names leave them out
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("ul", ""),
+            Map.entry("ulica", ""),
+            Map.entry("br", ""),
+            Map.entry("bb", ""),
+            Map.entry("no", ""),
+            Map.entry("bul", "bulevar"),
+            Map.entry("blvd", "bulevar"),
+            Map.entry("sv", "sveti"),
+            Map.entry("st", "street"),
+            Map.entry("ave", "avenue"),
+            Map.entry("rd", "road")
+    );
+
+    private static final Map<String, String> COUNTRY_CODES = new HashMap<>();
+
+    static {
+        for (String code : Locale.getISOCountries()) {
+            String name = new Locale("", code).getDisplayCountry(Locale.ENGLISH);
+            COUNTRY_CODES.put(normalize(name), code.toLowerCase(Locale.ROOT));
+            COUNTRY_CODES.put(code.toLowerCase(Locale.ROOT), code.toLowerCase(Locale.ROOT));
+        }
+        COUNTRY_CODES.put("macedonia", "mk");
+    }
+
+    private AddressNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * The street name of an address line: abbreviations expanded, house numbers and anything
+     * else containing a digit dropped.
+     */
+    public static String street(String line) {
+        StringBuilder street = new StringBuilder();
+        for (String token : normalize(line).split(" ")) {
+            String word = ABBREVIATIONS.getOrDefault(token, token);
+            if (word.isEmpty() || word.chars().anyMatch(Character::isDigit)) {
+                continue;
+            }
+            if (!street.isEmpty()) {
+                street.append(' ');
+            }
+            street.append(word);
+        }
+        return street.toString();
+    }
+
+    /**
+     * ISO 3166 alpha-2 code in lower case for a code or English country name, else the normalized text.
+     */
+    public static String country(String country) {
+        String normalized = normalize(country);
+        return COUNTRY_CODES.getOrDefault(normalized, normalized);
+    }
+
+    public static String postalCode(String postalCode) {
+        return normalize(postalCode).replace(" ", "");
+    }
+
+    /**
+     * Cache key of a whole address; line2 (flat, floor) never moves the point and is left out.
+     */
+    public static String key(Address address) {
+        return normalize(address.getLine1()) + '|' + postalCode(address.getPostalCode()) + '|'
+                + normalize(address.getCity()) + '|' + country(address.getCountry());
+    }
+}
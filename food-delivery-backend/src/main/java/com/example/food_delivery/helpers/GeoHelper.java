@@ -0,0 +1,38 @@
+package com.example.food_delivery.helpers;
+
+public final class GeoHelper {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoHelper() {
+    }
+
+    /**
+     * Great-circle distance between two points in kilometres.
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Equirectangular distances in kilometres from one point to the first {@code count} of many, written
+     * into {@code out}. {@code lats} and {@code lngs} hold radians so the loop needs no conversions.
+     * Within a city it is off by well under 1%, and the loop is plain arithmetic over primitive arrays
+     * that the JIT can unroll and vectorize; use it to pre-filter before {@link #distanceKm}.
+     */
+    public static void equirectangularKm(double lat, double lng, double[] lats, double[] lngs, double[] out, int count) {
+        double cos = Math.cos(Math.toRadians(lat));
+        double latRad = Math.toRadians(lat);
+        double lngRad = Math.toRadians(lng);
+        for (int i = 0; i < count; i++) {
+            double x = (lngs[i] - lngRad) * cos;
+            double y = lats[i] - latRad;
+            out[i] = EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.food_delivery.helpers;
+
+/**
+ * Simple (non self-intersecting) polygon in degrees. At delivery-zone scale lat/lng can be treated as a
+ * plane, so containment is an even-odd ray cast and needs no trigonometry or allocation.
+ */
+public final class GeoPolygon {
+
+    private final double[] lats;
+    private final double[] lngs;
+    private final double minLat;
+    private final double maxLat;
+    private final double minLng;
+    private final double maxLng;
+
+    /**
+     * @param lats vertex latitudes; the ring closes itself, the first vertex need not be repeated
+     */
+    public GeoPolygon(double[] lats, double[] lngs) {
+        if (lats.length < 3 || lats.length != lngs.length) {
+            throw new IllegalArgumentException("A polygon needs at least three vertices");
+        }
+        this.lats = lats.clone();
+        this.lngs = lngs.clone();
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE, minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (int i = 0; i < lats.length; i++) {
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLng = Math.min(minLng, lngs[i]);
+            maxLng = Math.max(maxLng, lngs[i]);
+        }
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLng = minLng;
+        this.maxLng = maxLng;
+    }
+
+    public boolean contains(double lat, double lng) {
+        if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if ((lats[i] > lat) != (lats[j] > lat)
+                    && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Whether any edge touches the box. When none does the box is entirely inside or entirely outside.
+     */
+    public boolean edgeCrosses(double boxMinLat, double boxMaxLat, double boxMinLng, double boxMaxLng) {
+        if (boxMaxLat < minLat || boxMinLat > maxLat || boxMaxLng < minLng || boxMinLng > maxLng) {
+            return false;
+        }
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if (segmentTouchesBox(lats[j], lngs[j], lats[i], lngs[i], boxMinLat, boxMaxLat, boxMinLng, boxMaxLng)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double centerLat() {
+        return (minLat + maxLat) / 2;
+    }
+
+    public double centerLng() {
+        return (minLng + maxLng) / 2;
+    }
+
+    /**
+     * Radius in km of a circle around {@link #centerLat()}, {@link #centerLng()} that covers every vertex.
+     */
+    public double coveringRadiusKm() {
+        double km = 0;
+        for (int i = 0; i < lats.length; i++) {
+            km = Math.max(km, GeoHelper.distanceKm(centerLat(), centerLng(), lats[i], lngs[i]));
+        }
+        return km;
+    }
+
+    public int size() {
+        return lats.length;
+    }
+
+    // Liang-Barsky clipping of the segment against the box
+    private static boolean segmentTouchesBox(double lat0, double lng0, double lat1, double lng1,
+                                             double boxMinLat, double boxMaxLat, double boxMinLng, double boxMaxLng) {
+        double dLat = lat1 - lat0;
+        double dLng = lng1 - lng0;
+        double[] p = {-dLng, dLng, -dLat, dLat};
+        double[] q = {lng0 - boxMinLng, boxMaxLng - lng0, lat0 - boxMinLat, boxMaxLat - lat0};
+        double enter = 0;
+        double exit = 1;
+        for (int k = 0; k < 4; k++) {
+            if (p[k] == 0) {
+                if (q[k] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[k] / p[k];
+                if (p[k] < 0) {
+                    enter = Math.max(enter, t);
+                } else {
+                    exit = Math.min(exit, t);
+                }
+            }
+        }
+        return enter <= exit;
+    }
+}
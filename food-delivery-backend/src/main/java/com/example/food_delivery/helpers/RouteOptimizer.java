@@ -0,0 +1,208 @@
+package com.example.food_delivery.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Orders the stops of a courier's batch. A stop may name another stop that has to come before it
+ * (a drop-off after its pickup). The route is open, it ends at the last stop.
+ * Batches up to {@link #EXACT_LIMIT} stops are solved exactly with a Held-Karp DP over visited
+ * sets; larger ones get nearest-neighbour construction followed by 2-opt and relocate moves.
+ */
+public final class RouteOptimizer {
+
+    static final int EXACT_LIMIT = 12;
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * @param requires for each stop the index of the stop that must be visited first, or -1
+     * @return stop indexes in visiting order
+     */
+    public static int[] optimize(double startLat, double startLng, double[] lat, double[] lng, int[] requires) {
+        int n = lat.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        // row/column n is the start point
+        double[][] d = new double[n + 1][n + 1];
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b <= n; b++) {
+                double km = b == n
+                        ? GeoHelper.distanceKm(lat[a], lng[a], startLat, startLng)
+                        : GeoHelper.distanceKm(lat[a], lng[a], lat[b], lng[b]);
+                d[a][b] = km;
+                d[b][a] = km;
+            }
+        }
+
+        if (n <= EXACT_LIMIT) {
+            return exact(d, requires, n);
+        }
+        int[] route = nearestNeighbour(d, requires, n);
+        double best = length(d, route, n);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            // 2-opt: reverse route[i..j]
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    int[] candidate = route.clone();
+                    for (int a = i, b = j; a < b; a++, b--) {
+                        int t = candidate[a];
+                        candidate[a] = candidate[b];
+                        candidate[b] = t;
+                    }
+                    double len = length(d, candidate, n);
+                    if (len < best - 1e-9 && feasible(candidate, requires)) {
+                        route = candidate;
+                        best = len;
+                        improved = true;
+                    }
+                }
+            }
+            // relocate: move one stop to another position
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i == j) {
+                        continue;
+                    }
+                    int[] candidate = move(route, i, j);
+                    double len = length(d, candidate, n);
+                    if (len < best - 1e-9 && feasible(candidate, requires)) {
+                        route = candidate;
+                        best = len;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Length in km of visiting the stops in the given order from the start point.
+     */
+    public static double length(double startLat, double startLng, double[] lat, double[] lng, int[] route) {
+        double km = 0;
+        double fromLat = startLat;
+        double fromLng = startLng;
+        for (int stop : route) {
+            km += GeoHelper.distanceKm(fromLat, fromLng, lat[stop], lng[stop]);
+            fromLat = lat[stop];
+            fromLng = lng[stop];
+        }
+        return km;
+    }
+
+    public static boolean feasible(int[] route, int[] requires) {
+        int[] position = new int[route.length];
+        for (int p = 0; p < route.length; p++) {
+            position[route[p]] = p;
+        }
+        for (int stop = 0; stop < requires.length; stop++) {
+            if (requires[stop] >= 0 && position[requires[stop]] > position[stop]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // cost[mask][last]: shortest path from the start through exactly the stops in mask, ending at last
+    private static int[] exact(double[][] d, int[] requires, int n) {
+        int full = (1 << n) - 1;
+        double[][] cost = new double[1 << n][n];
+        byte[][] previous = new byte[1 << n][n];
+        for (double[] row : cost) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        for (int s = 0; s < n; s++) {
+            if (requires[s] < 0) {
+                cost[1 << s][s] = d[n][s];
+                previous[1 << s][s] = -1;
+            }
+        }
+        for (int mask = 1; mask <= full; mask++) {
+            for (int last = 0; last < n; last++) {
+                double base = cost[mask][last];
+                if (base == Double.MAX_VALUE) {
+                    continue;
+                }
+                for (int next = 0; next < n; next++) {
+                    if ((mask & (1 << next)) != 0 || (requires[next] >= 0 && (mask & (1 << requires[next])) == 0)) {
+                        continue;
+                    }
+                    int nextMask = mask | (1 << next);
+                    double c = base + d[last][next];
+                    if (c < cost[nextMask][next]) {
+                        cost[nextMask][next] = c;
+                        previous[nextMask][next] = (byte) last;
+                    }
+                }
+            }
+        }
+        int last = 0;
+        for (int s = 1; s < n; s++) {
+            if (cost[full][s] < cost[full][last]) {
+                last = s;
+            }
+        }
+        int[] route = new int[n];
+        int mask = full;
+        for (int p = n - 1; p >= 0; p--) {
+            route[p] = last;
+            int before = previous[mask][last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        return route;
+    }
+
+    private static int[] nearestNeighbour(double[][] d, int[] requires, int n) {
+        boolean[] visited = new boolean[n];
+        int[] route = new int[n];
+        int at = n;
+        for (int p = 0; p < n; p++) {
+            int next = -1;
+            for (int s = 0; s < n; s++) {
+                boolean ready = requires[s] < 0 || visited[requires[s]];
+                if (!visited[s] && ready && (next < 0 || d[at][s] < d[at][next])) {
+                    next = s;
+                }
+            }
+            visited[next] = true;
+            route[p] = next;
+            at = next;
+        }
+        return route;
+    }
+
+    private static double length(double[][] d, int[] route, int start) {
+        double km = 0;
+        int at = start;
+        for (int stop : route) {
+            km += d[at][stop];
+            at = stop;
+        }
+        return km;
+    }
+
+    private static int[] move(int[] route, int from, int to) {
+        int[] result = new int[route.length];
+        int stop = route[from];
+        int k = 0;
+        for (int p = 0; p < route.length; p++) {
+            if (p == from) {
+                continue;
+            }
+            if (k == to) {
+                result[k++] = stop;
+            }
+            result[k++] = route[p];
+        }
+        if (k == to) {
+            result[k] = stop;
+        }
+        return result;
+    }
+}
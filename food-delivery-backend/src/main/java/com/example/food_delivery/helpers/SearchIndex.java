@@ -0,0 +1,543 @@
+package com.example.food_delivery.helpers;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with BM25 ranking over weighted fields (a term in a field of weight 3 counts
+ * as three occurrences, BM25F style) and prefix autocomplete over the sorted term dictionary.
+ * Documents are keyed by a long id; putting a key again replaces the document in its slot, and slots
+ * of removed documents are handed to the next new one, so edits do not grow the index. Postings are primitive
+ * arrays in ordinal order, so a query scores into a per-thread accumulator without boxing.
+ * Many readers, one writer at a time.
+ */
+public class SearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // best documents remembered per term, enough for any autocomplete page
+    static final int TOP_PER_TERM = 64;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "with", "in", "on", "i", "so", "za", "na", "od", "vo");
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // by ordinal; a removed document leaves its slot with a null label until it is reused
+    private long[] keys = new long[1024];
+    private float[] lengths = new float[1024];
+    private String[] labels = new String[1024];
+    private String[][] docTerms = new String[1024][];
+    private int next;
+    // freed ordinals, the most recently freed on top
+    private int[] free = new int[16];
+    private int freeCount;
+    private int live;
+    private double totalLength;
+
+    public record Hit(long key, String label, float score) {
+    }
+
+    /**
+     * Lower case, no diacritics, split on anything that is not a letter or digit, stop words dropped.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(plain)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds or replaces a document.
+     * @param label returned with hits, typically the display name
+     * @param fields texts of the document's fields
+     * @param weights weight of each field
+     */
+    public void put(long key, String label, String[] fields, float[] weights) {
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float length = 0;
+        for (int f = 0; f < fields.length; f++) {
+            for (String token : tokenize(fields[f])) {
+                frequencies.merge(token, weights[f], Float::sum);
+                length += weights[f];
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            // a replaced document gets its own slot back, it was freed last
+            int ordinal = freeCount > 0 ? free[--freeCount] : next++;
+            grow(ordinal + 1);
+            keys[ordinal] = key;
+            labels[ordinal] = label != null ? label : "";
+            lengths[ordinal] = length;
+            String[] own = new String[frequencies.size()];
+            int t = 0;
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                Postings postings = terms.computeIfAbsent(entry.getKey(), Postings::new);
+                postings.add(ordinal, entry.getValue());
+                // the dictionary's copy, so every document shares one String per term
+                own[t++] = postings.term;
+            }
+            docTerms[ordinal] = own;
+            ordinals.put(key, ordinal);
+            live++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long key) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long key) {
+        lock.readLock().lock();
+        try {
+            return ordinals.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ordinals ever handed out, the size every per-ordinal array needs
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return next;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching any query term, best BM25 score first.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> tokens = distinct(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get().ready(next);
+            for (String token : tokens) {
+                Postings postings = terms.get(token);
+                if (postings != null) {
+                    s.score(postings, idf(postings.size));
+                }
+            }
+            return s.top(0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search-as-you-type: every complete word of the input must match and the last, unfinished one is
+     * a prefix, expanded to at most {@code maxExpansions} of its most frequent completions.
+     */
+    public List<Hit> complete(String input, int limit, int maxExpansions) {
+        List<String> tokens = tokenize(input);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean open = !Character.isWhitespace(input.charAt(input.length() - 1));
+        String prefix = open ? tokens.remove(tokens.size() - 1) : null;
+        List<String> words = distinct(tokens);
+        lock.readLock().lock();
+        try {
+            List<Postings> required = new ArrayList<>(words.size());
+            for (String word : words) {
+                Postings postings = terms.get(word);
+                if (postings == null) {
+                    return List.of();
+                }
+                required.add(postings);
+            }
+            List<Postings> expansions = prefix != null ? expand(prefix, maxExpansions) : List.of();
+            if (prefix != null && expansions.isEmpty()) {
+                return List.of();
+            }
+            Scratch s = scratch.get().ready(next);
+            if (required.isEmpty() && limit <= TOP_PER_TERM) {
+                // a document in the overall top k is in the top k of the completion it scores best on,
+                // so merging each completion's remembered best documents gives the same page
+                for (Postings postings : expansions) {
+                    s.scorePrefix(postings, topDocs(postings), idf(postings.size));
+                }
+                return s.top(1, limit);
+            }
+            for (Postings postings : required) {
+                s.score(postings, idf(postings.size));
+            }
+            if (prefix != null) {
+                // a document matching several completions still counts the prefix once
+                for (Postings postings : expansions) {
+                    s.scorePrefix(postings, idf(postings.size), required.size());
+                }
+            }
+            return s.top(required.size() + (prefix != null ? 1 : 0), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} dictionary terms starting with the prefix, most documents first.
+     */
+    public List<String> completeTerm(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            String last = tokens.get(tokens.size() - 1);
+            List<String> result = new ArrayList<>();
+            for (Postings postings : expand(last, limit)) {
+                result.add(postings.term);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Postings> expand(String prefix, int max) {
+        NavigableMap<String, Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        Postings[] best = new Postings[Math.max(1, max)];
+        int n = 0;
+        for (Postings postings : range.values()) {
+            if (n < best.length) {
+                best[n++] = postings;
+            } else if (postings.size > best[n - 1].size) {
+                best[n - 1] = postings;
+            } else {
+                continue;
+            }
+            // keep best sorted by document count, descending
+            for (int i = n - 1; i > 0 && best[i].size > best[i - 1].size; i--) {
+                Postings t = best[i];
+                best[i] = best[i - 1];
+                best[i - 1] = t;
+            }
+        }
+        return Arrays.asList(best).subList(0, n);
+    }
+
+    /**
+     * Ordinals of the term's best-scoring documents. Cached until the term's postings change; the
+     * order ignores later drift of the average document length, scores are always computed fresh.
+     */
+    private int[] topDocs(Postings postings) {
+        TopDocs cached = postings.top;
+        if (cached != null && cached.version() == postings.version) {
+            return cached.docs();
+        }
+        float avgLength = live > 0 ? (float) (totalLength / live) : 1f;
+        int n = Math.min(TOP_PER_TERM, postings.size);
+        int[] docs = new int[n];
+        float[] scores = new float[n];
+        int kept = 0;
+        for (int i = 0; i < postings.size; i++) {
+            float score = bm25(postings.frequencies[i], postings.docs[i], avgLength);
+            if (kept < n) {
+                kept++;
+            } else if (score <= scores[n - 1]) {
+                continue;
+            }
+            // insertion into the kept documents, best first; ties keep the older document
+            int at = kept - 1;
+            while (at > 0 && scores[at - 1] < score) {
+                docs[at] = docs[at - 1];
+                scores[at] = scores[at - 1];
+                at--;
+            }
+            docs[at] = postings.docs[i];
+            scores[at] = score;
+        }
+        postings.top = new TopDocs(postings.version, docs);
+        return docs;
+    }
+
+    // BM25 term weight without the idf
+    private float bm25(float tf, int doc, float avgLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * lengths[doc] / avgLength));
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private boolean removeLocked(long key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal == null) {
+            return false;
+        }
+        for (String term : docTerms[ordinal]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        docTerms[ordinal] = NO_TERMS;
+        labels[ordinal] = null;
+        totalLength -= lengths[ordinal];
+        live--;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = ordinal;
+        return true;
+    }
+
+    private void grow(int capacity) {
+        if (capacity <= keys.length) {
+            return;
+        }
+        int size = Math.max(capacity, keys.length * 2);
+        keys = Arrays.copyOf(keys, size);
+        lengths = Arrays.copyOf(lengths, size);
+        labels = Arrays.copyOf(labels, size);
+        docTerms = Arrays.copyOf(docTerms, size);
+    }
+
+    private static List<String> distinct(List<String> tokens) {
+        return tokens.stream().distinct().toList();
+    }
+
+    /**
+     * Ordinals ascending with their weighted frequencies. A new document appends; a reused slot is
+     * inserted in place.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] frequencies = new float[4];
+        int size;
+        int version;
+        // written by readers under the read lock; a racing reader at worst computes it twice
+        volatile TopDocs top;
+        final String term;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int ordinal, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int at = size;
+            if (size > 0 && docs[size - 1] > ordinal) {
+                at = -Arrays.binarySearch(docs, 0, size, ordinal) - 1;
+                System.arraycopy(docs, at, docs, at + 1, size - at);
+                System.arraycopy(frequencies, at, frequencies, at + 1, size - at);
+            }
+            docs[at] = ordinal;
+            frequencies[at] = frequency;
+            size++;
+            version++;
+        }
+
+        boolean remove(int ordinal) {
+            int at = Arrays.binarySearch(docs, 0, size, ordinal);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(frequencies, at + 1, frequencies, at, size - at - 1);
+            size--;
+            version++;
+            return true;
+        }
+    }
+
+    private record TopDocs(int version, int[] docs) {
+    }
+
+    /**
+     * Per-thread score accumulator over ordinals; only the touched slots are reset after a query.
+     */
+    private final class Scratch {
+        float[] scores = new float[0];
+        int[] matched = new int[0];
+        int[] touched = new int[0];
+        // for the prefix: the best completion score seen per document in this query, by ordinal
+        float[] prefixScores = new float[0];
+        int touchedCount;
+
+        Scratch ready(int capacity) {
+            if (scores.length < capacity) {
+                int size = Math.max(capacity, scores.length * 2);
+                scores = new float[size];
+                matched = new int[size];
+                prefixScores = new float[size];
+                touched = new int[size];
+            }
+            return this;
+        }
+
+        void score(Postings postings, float idf) {
+            float avgLength = live > 0 ? (float) (totalLength / live) : 1f;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (matched[doc] == 0) {
+                    touched[touchedCount++] = doc;
+                }
+                scores[doc] += idf * bm25(postings.frequencies[i], doc, avgLength);
+                matched[doc]++;
+            }
+        }
+
+        // documents that missed one of the {@code required} full words are skipped, they cannot match
+        void scorePrefix(Postings postings, float idf, int required) {
+            float avgLength = live > 0 ? (float) (totalLength / live) : 1f;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (matched[doc] >= required) {
+                    completion(doc, idf * bm25(postings.frequencies[i], doc, avgLength));
+                }
+            }
+        }
+
+        // only the given documents of the postings, found by binary search
+        void scorePrefix(Postings postings, int[] docs, float idf) {
+            float avgLength = live > 0 ? (float) (totalLength / live) : 1f;
+            for (int doc : docs) {
+                int i = Arrays.binarySearch(postings.docs, 0, postings.size, doc);
+                completion(doc, idf * bm25(postings.frequencies[i], doc, avgLength));
+            }
+        }
+
+        // a document matching several completions keeps the best of them
+        private void completion(int doc, float score) {
+            if (prefixScores[doc] == 0) {
+                if (matched[doc] == 0) {
+                    touched[touchedCount++] = doc;
+                }
+                matched[doc]++;
+                prefixScores[doc] = score;
+                scores[doc] += score;
+            } else if (score > prefixScores[doc]) {
+                scores[doc] += score - prefixScores[doc];
+                prefixScores[doc] = score;
+            }
+        }
+
+        // best first among documents that matched at least {@code required} terms; resets the scratch
+        List<Hit> top(int required, int limit) {
+            int[] best = new int[limit];
+            int n = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int doc = touched[t];
+                if (matched[doc] >= required && labels[doc] != null) {
+                    if (n < limit) {
+                        best[n++] = doc;
+                        siftUp(best, n - 1);
+                    } else if (better(doc, best[0])) {
+                        best[0] = doc;
+                        siftDown(best, n);
+                    }
+                }
+            }
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = best[i];
+            }
+            Arrays.sort(order, (a, b) -> better(a, b) ? -1 : better(b, a) ? 1 : 0);
+            List<Hit> hits = new ArrayList<>(n);
+            for (Integer doc : order) {
+                hits.add(new Hit(keys[doc], labels[doc], scores[doc]));
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int doc = touched[t];
+                scores[doc] = 0;
+                matched[doc] = 0;
+                prefixScores[doc] = 0;
+            }
+            touchedCount = 0;
+            return hits;
+        }
+
+        // higher score first, then the older document
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+        }
+
+        // min-heap on "better": the root is the worst of the kept documents
+        private void siftUp(int[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(heap[parent], heap[i])) {
+                    break;
+                }
+                int t = heap[parent];
+                heap[parent] = heap[i];
+                heap[i] = t;
+                i = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int n) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                int right = left + 1;
+                int worst = i;
+                if (left < n && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < n && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                int t = heap[worst];
+                heap[worst] = heap[i];
+                heap[i] = t;
+                i = worst;
+            }
+        }
+    }
+}
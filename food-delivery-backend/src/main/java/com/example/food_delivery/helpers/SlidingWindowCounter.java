@@ -0,0 +1,56 @@
+package com.example.food_delivery.helpers;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count of events over the last {@code buckets * bucketMs} milliseconds. Each slot packs the
+ * bucket number it belongs to (high 40 bits, wrapping) with its count (low 24 bits), so rolling a slot
+ * over to a new bucket and counting into it are one compare-and-set and no increment is ever lost.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long STAMP_MASK = (1L << (64 - COUNT_BITS)) - 1;
+
+    private final AtomicLongArray slots;
+    private final long bucketMs;
+
+    public SlidingWindowCounter(int buckets, long bucketMs) {
+        this.slots = new AtomicLongArray(buckets);
+        this.bucketMs = bucketMs;
+    }
+
+    /**
+     * @param amount at least zero; a bucket saturates instead of overflowing into its stamp
+     */
+    public void add(long nowMs, long amount) {
+        long bucket = nowMs / bucketMs;
+        int i = (int) (bucket % slots.length());
+        bucket &= STAMP_MASK;
+        while (true) {
+            long current = slots.get(i);
+            long next = (current >>> COUNT_BITS) == bucket
+                    ? (bucket << COUNT_BITS) | Math.min(COUNT_MASK, (current & COUNT_MASK) + amount)
+                    : (bucket << COUNT_BITS) | Math.min(COUNT_MASK, amount);
+            if (slots.compareAndSet(i, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Total of the buckets inside the window ending at {@code nowMs}, the current partial bucket included.
+     */
+    public long sum(long nowMs) {
+        long bucket = (nowMs / bucketMs) & STAMP_MASK;
+        long sum = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long slot = slots.get(i);
+            if (((bucket - (slot >>> COUNT_BITS)) & STAMP_MASK) < slots.length()) {
+                sum += slot & COUNT_MASK;
+            }
+        }
+        return sum;
+    }
+}
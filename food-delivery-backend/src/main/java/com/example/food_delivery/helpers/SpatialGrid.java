@@ -0,0 +1,143 @@
+package com.example.food_delivery.helpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform lat/lng grid of point ids for radius and nearest-neighbour lookups. Cells are square in
+ * latitude; the search widens its longitude span with latitude so it stays a true radius search.
+ * Safe for concurrent moves and queries.
+ */
+public class SpatialGrid {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellKm;
+    private final double cellDegrees;
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public SpatialGrid(double cellKm) {
+        this.cellKm = cellKm;
+        this.cellDegrees = cellKm / KM_PER_DEGREE;
+    }
+
+    public void put(long id, double lat, double lng) {
+        int row = row(lat);
+        int col = col(lng);
+        points.compute(id, (key, old) -> {
+            long cell = cellKey(row, col);
+            if (old == null || old.cell != cell) {
+                if (old != null) {
+                    removeFromCell(old.cell, id);
+                }
+                // added inside compute so a concurrent removeFromCell cannot drop the set under us
+                cells.compute(cell, (c, ids) -> {
+                    Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    set.add(id);
+                    return set;
+                });
+            }
+            return new Point(lat, lng, cell);
+        });
+    }
+
+    public void remove(long id) {
+        points.computeIfPresent(id, (key, old) -> {
+            removeFromCell(old.cell, id);
+            return null;
+        });
+    }
+
+    public boolean contains(long id) {
+        return points.containsKey(id);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Ids within {@code radiusKm} of the point, nearest first.
+     */
+    public List<Long> within(double lat, double lng, double radiusKm) {
+        return nearest(lat, lng, Integer.MAX_VALUE, radiusKm);
+    }
+
+    /**
+     * Up to {@code limit} ids within {@code maxKm} of the point, nearest first. Rings of cells are
+     * scanned outwards and the scan stops once no unvisited cell can hold anything closer.
+     */
+    public List<Long> nearest(double lat, double lng, int limit, double maxKm) {
+        int row = row(lat);
+        int col = col(lng);
+        double cos = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        List<Hit> hits = new ArrayList<>();
+        int maxRing = (int) Math.ceil(maxKm / cellKm) + 1;
+        int previousCols = -1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            int cols = (int) Math.ceil(ring / cos);
+            for (int dr = -ring; dr <= ring; dr++) {
+                for (int dc = -cols; dc <= cols; dc++) {
+                    if (ring > 0 && Math.abs(dr) < ring && Math.abs(dc) <= previousCols) {
+                        continue;
+                    }
+                    Set<Long> ids = cells.get(cellKey(row + dr, col + dc));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point p = points.get(id);
+                        if (p == null) {
+                            continue;
+                        }
+                        double km = GeoHelper.distanceKm(lat, lng, p.lat, p.lng);
+                        if (km <= maxKm) {
+                            hits.add(new Hit(id, km));
+                        }
+                    }
+                }
+            }
+            previousCols = cols;
+            // everything not yet visited is at least ring * cellKm away
+            if (hits.size() >= limit && kthDistance(hits, limit) <= ring * cellKm) {
+                break;
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::km));
+        return hits.stream().limit(limit).map(Hit::id).toList();
+    }
+
+    private double kthDistance(List<Hit> hits, int k) {
+        return hits.stream().mapToDouble(Hit::km).sorted().skip(k - 1L).findFirst().orElse(Double.MAX_VALUE);
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor(lng / cellDegrees);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private record Point(double lat, double lng, long cell) {
+    }
+
+    private record Hit(long id, double km) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.food_delivery.helpers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache whose entries also expire a fixed time after they were loaded. Values are loaded
+ * outside the lock; a load that overlaps an invalidation is returned but not cached, so a reader can
+ * never put back a row that a writer has just evicted.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+    // bumped by every invalidation
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    public TtlCache(int maxEntries, long ttlMs) {
+        this(maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    public TtlCache(int maxEntries, long ttlMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached value, else the loader's, which is cached unless it is null.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadedIn;
+        synchronized (this) {
+            V cached = lookup(key, true);
+            if (cached != null) {
+                return cached;
+            }
+            loadedIn = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadedIn) {
+                    entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMs));
+                }
+            }
+        }
+        return value;
+    }
+
+    // a probe: not counted as a hit or a miss
+    public synchronized V getIfPresent(K key) {
+        return lookup(key, false);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMs));
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    private V lookup(K key, boolean counted) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (counted) {
+            if (entry == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        return entry != null ? entry.value() : null;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.food_delivery.model.domain;
 
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.AttributeOverrides;
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
+import jakarta.persistence.Embedded;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,6 +18,14 @@ public class Address {
     private String postalCode;
     private String country;
 
+    // Drop-off point for routing; prefixed so it never clashes with Restaurant.coordinates
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "lat", column = @Column(name = "address_lat")),
+            @AttributeOverride(name = "lng", column = @Column(name = "address_lng"))
+    })
+    private Coordinates coordinates;
+
     public Address(String line1, String line2, String city, String postalCode, String country) {
         this.line1 = line1;
         this.line2 = line2;
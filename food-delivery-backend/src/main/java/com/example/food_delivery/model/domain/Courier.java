@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+
 @NoArgsConstructor
 @Getter
 @Setter
@@ -19,8 +21,24 @@ public class Courier{
     @JoinColumn(name = "user_username")
     private User user;
 
+    // Free for more orders; false once the batch is full
     private Boolean active = true;
 
+    // Orders currently assigned and not yet delivered
+    @Column(columnDefinition = "integer default 0")
+    private Integer activeOrders = 0;
+
+    // Last position written back from the in-memory tracker, so it lags the app by up to one persist interval
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "lat", column = @Column(name = "last_lat")),
+            @AttributeOverride(name = "lng", column = @Column(name = "last_lng"))
+    })
+    private Coordinates lastLocation;
+
+    @Column(name = "last_seen_at")
+    private Instant lastSeenAt;
+
     public Courier(User user, Boolean active) {
         this.user = user;
         this.active = active;
@@ -0,0 +1,36 @@
+package com.example.food_delivery.model.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Downsampled courier positions; written in batches by CourierLocationServiceImpl, never per ping
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "courier_location_trail", indexes = {
+        @Index(name = "idx_courier_trail_courier_recorded", columnList = "courier_id, recorded_at")
+})
+public class CourierLocationTrail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "courier_id")
+    private Courier courier;
+
+    @Column(nullable = false)
+    private Double lat;
+
+    @Column(nullable = false)
+    private Double lng;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+}
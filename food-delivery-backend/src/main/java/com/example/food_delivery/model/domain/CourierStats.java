@@ -0,0 +1,59 @@
+package com.example.food_delivery.model.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Running totals of one courier's deliveries, bumped in the same transaction that completes each delivery.
+ * The day and week counters belong to dayBucket / weekBucket (the Monday of the week) and restart when those move on.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "courier_stats")
+public class CourierStats {
+
+    @Id
+    private Long courierId;
+
+    private long totalDeliveries;
+    private double totalDistanceKm;
+    private double totalEarnings;
+
+    private LocalDate dayBucket;
+    private int dayDeliveries;
+    private double dayEarnings;
+
+    private LocalDate weekBucket;
+    private int weekDeliveries;
+    private double weekEarnings;
+
+    public CourierStats(Long courierId) {
+        this.courierId = courierId;
+    }
+
+    public void add(LocalDate day, LocalDate week, double distanceKm, double fee) {
+        totalDeliveries++;
+        totalDistanceKm += distanceKm;
+        totalEarnings += fee;
+        if (!day.equals(dayBucket)) {
+            dayBucket = day;
+            dayDeliveries = 0;
+            dayEarnings = 0;
+        }
+        dayDeliveries++;
+        dayEarnings += fee;
+        if (!week.equals(weekBucket)) {
+            weekBucket = week;
+            weekDeliveries = 0;
+            weekEarnings = 0;
+        }
+        weekDeliveries++;
+        weekEarnings += fee;
+    }
+}
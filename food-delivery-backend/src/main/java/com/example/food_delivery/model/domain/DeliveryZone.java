@@ -5,10 +5,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
+@EntityListeners(DeliveryZoneListener.class)
 public class DeliveryZone {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +23,12 @@ public class DeliveryZone {
     @Embedded
     private Coordinates center;
 
+    // Polygon zone when it has at least three vertices; it then takes precedence over center and radius
+    @ElementCollection
+    @CollectionTable(name = "delivery_zone_boundary", joinColumns = @JoinColumn(name = "zone_id"))
+    @OrderColumn(name = "vertex")
+    private List<Coordinates> boundary = new ArrayList<>();
+
     private Double deliveryFee; // in your currency
 
     @ManyToOne(optional = false)
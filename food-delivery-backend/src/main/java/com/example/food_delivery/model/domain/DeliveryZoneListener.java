@@ -0,0 +1,31 @@
+package com.example.food_delivery.model.domain;
+
+import com.example.food_delivery.model.events.DeliveryZoneChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Turns every zone insert, update and delete, including cascades from {@link Restaurant}, into a
+ * {@link DeliveryZoneChangedEvent}. Created by Spring through Hibernate's bean container.
+ */
+public class DeliveryZoneListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DeliveryZoneListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(DeliveryZone zone) {
+        eventPublisher.publishEvent(new DeliveryZoneChangedEvent(zone.getId(), ZoneArea.from(zone)));
+    }
+
+    @PostRemove
+    public void removed(DeliveryZone zone) {
+        eventPublisher.publishEvent(new DeliveryZoneChangedEvent(zone.getId(), null));
+    }
+}
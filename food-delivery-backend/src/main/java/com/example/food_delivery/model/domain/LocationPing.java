@@ -0,0 +1,9 @@
+package com.example.food_delivery.model.domain;
+
+import java.time.Instant;
+
+/**
+ * One GPS fix reported by the courier app.
+ */
+public record LocationPing(double lat, double lng, Instant recordedAt) {
+}
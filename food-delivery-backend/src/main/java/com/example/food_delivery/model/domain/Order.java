@@ -1,9 +1,11 @@
 package com.example.food_delivery.model.domain;
 
 import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.exceptions.OrderStatusConflictException;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,7 +14,24 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_expires_at", columnList = "status, expires_at"),
+        @Index(name = "idx_orders_status_placed_at", columnList = "status, placed_at, id"),
+        @Index(name = "idx_orders_courier_status_id", columnList = "courier_id, status, id")
+})
+// Everything BasicMappers.toDto(Order) touches, so listings load in a single select
+@NamedEntityGraph(name = "Order.listing",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("restaurant"),
+                @NamedAttributeNode(value = "courier", subgraph = "courier"),
+                @NamedAttributeNode(value = "items", subgraph = "items")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "courier", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "Product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("restaurant"))
+        })
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,10 +43,16 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status = OrderStatus.PENDING;
 
+    // Bumped by entity saves and by every guarded bulk transition in OrderRepository
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     @ManyToOne
     private Courier courier;
 
-    // Legacy field for compatibility with existing UI (flat list of Products)
+    // Legacy join table, no longer read. Only written when orders.legacy-products.dual-write=true
+    // and emptied by LegacyOrderProductsMigration.
     @ManyToMany
     private List<Product> Products = new ArrayList<>();
 
@@ -49,8 +74,15 @@ public class Order {
     private Restaurant restaurant;
 
     private Instant placedAt;
+    // Set when a courier takes the order; splits preparation from delivery time
+    @Column(name = "picked_up_at")
+    private Instant pickedUpAt;
     private LocalDateTime deliveredAt;
 
+    // Pending carts hold reserved stock only until this moment
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
     public Order(User user) {
         this.user = user;
         this.status = OrderStatus.PENDING;
@@ -75,25 +107,36 @@ public class Order {
     public Order() {
     }
 
+    public void transitionTo(OrderStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new OrderStatusConflictException(id, status, next);
+        }
+        this.status = next;
+    }
+
     public void confirm() {
-        this.status = OrderStatus.CONFIRMED;
+        transitionTo(OrderStatus.CONFIRMED);
         this.placedAt = Instant.now();
     }
 
     public void cancel() {
-        this.status = OrderStatus.CANCELED;
+        transitionTo(OrderStatus.CANCELED);
+    }
+
+    public boolean hasItems() {
+        return items != null && !items.isEmpty();
+    }
+
+    public void extendReservation(Duration ttl) {
+        this.expiresAt = Instant.now().plus(ttl);
     }
 
     public void recalcTotals() {
         double sub = 0.0;
-        if (items != null && !items.isEmpty()) {
+        if (items != null) {
             for (OrderItem it : items) {
                 sub += it.getLineTotal();
             }
-        } else if (Products != null && !Products.isEmpty()) {
-            for (Product d : Products) {
-                sub += (d.getPrice() != null ? d.getPrice() : 0.0);
-            }
         }
         subtotal = round2(sub);
         double totalCalc = subtotal + (deliveryFee != null ? deliveryFee : 0.0) + (platformFee != null ? platformFee : 0.0) - (discount != null ? discount : 0.0);
@@ -0,0 +1,10 @@
+package com.example.food_delivery.model.domain;
+
+/**
+ * Last row of the previous keyset page: its sort value (null when it has none or the listing is by id) and id.
+ */
+public record PageAnchor(
+        Double value,
+        Long id
+) {
+}
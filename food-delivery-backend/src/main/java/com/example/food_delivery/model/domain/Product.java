@@ -7,6 +7,13 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@EntityListeners(ProductListener.class)
+// equality filters first, then the sort/range column, then id for the keyset tie-break
+@Table(indexes = {
+        @Index(name = "idx_product_restaurant_price", columnList = "restaurant_id, price, id"),
+        @Index(name = "idx_product_category_price", columnList = "category, price, id"),
+        @Index(name = "idx_product_price", columnList = "price, id")
+})
 public class Product {
 
     @Id
@@ -50,6 +57,14 @@ public class Product {
         this.imageUrl = imageUrl;
     }
 
+    // Detached copy for read caches, so callers never share one instance and the stock can be fresher
+    public Product withQuantity(Integer quantity) {
+        Product copy = new Product(name, description, price, quantity, restaurant, category, imageUrl);
+        copy.setId(id);
+        copy.setIsAvailable(isAvailable);
+        return copy;
+    }
+
     public void increaseQuantity(){ if (quantity == null) quantity = 0;
     quantity += 1;
     }
@@ -0,0 +1,13 @@
+package com.example.food_delivery.model.domain;
+
+/**
+ * Catalog filters; a null field does not filter.
+ */
+public record ProductFilter(
+        String category,
+        Long restaurantId,
+        Boolean available,
+        Double minPrice,
+        Double maxPrice
+) {
+}
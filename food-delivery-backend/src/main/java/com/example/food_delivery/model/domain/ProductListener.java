@@ -0,0 +1,28 @@
+package com.example.food_delivery.model.domain;
+
+import com.example.food_delivery.model.events.ProductChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Turns every product insert, update and delete, including cascades from {@link Restaurant}, into a
+ * {@link ProductChangedEvent}. Bulk stock updates bypass the entity and publish nothing.
+ */
+public class ProductListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Product product) {
+        Restaurant restaurant = product.getRestaurant();
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), restaurant != null ? restaurant.getId() : null));
+    }
+}
@@ -9,6 +9,11 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_restaurant_category_rating", columnList = "category, average_rating, id"),
+        @Index(name = "idx_restaurant_rating", columnList = "average_rating, id"),
+        @Index(name = "idx_restaurant_eta", columnList = "delivery_time_estimate, id")
+})
 public class Restaurant {
 
     @Id
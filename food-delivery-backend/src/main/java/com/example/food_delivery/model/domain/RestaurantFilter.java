@@ -0,0 +1,11 @@
+package com.example.food_delivery.model.domain;
+
+/**
+ * Catalog filters; a null field does not filter. openNow only ever narrows, false is the same as null.
+ */
+public record RestaurantFilter(
+        String category,
+        Boolean openNow,
+        Double minRating
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.food_delivery.model.domain;
+
+/**
+ * A restaurant that delivers to a point, with the zone that prices the delivery.
+ */
+public record RestaurantMatch(Long restaurantId, double distanceKm, ZoneArea zone) {
+}
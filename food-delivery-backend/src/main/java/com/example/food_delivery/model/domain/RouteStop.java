@@ -0,0 +1,15 @@
+package com.example.food_delivery.model.domain;
+
+import java.util.List;
+
+/**
+ * One stop of a courier's planned route. A pickup serves every order of the batch from that
+ * restaurant; coordinates are null when the place has not been located.
+ */
+public record RouteStop(Type type, List<Long> orderIds, String label, Double lat, Double lng) {
+
+    public enum Type {
+        PICKUP,
+        DROPOFF
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.food_delivery.model.domain;
+
+/**
+ * Handle for units of a product taken out of stock for a cart. Releasing it
+ * puts exactly the same amount back.
+ */
+public record StockReservation(Long productId, int quantity) {
+}
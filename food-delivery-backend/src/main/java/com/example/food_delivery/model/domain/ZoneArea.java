@@ -0,0 +1,59 @@
+package com.example.food_delivery.model.domain;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.helpers.GeoPolygon;
+
+import java.util.List;
+
+/**
+ * Immutable copy of a {@link DeliveryZone} as held by the zone index. A polygon zone keeps its
+ * polygon; its center and radius then describe the smallest circle around the bounding box center
+ * that covers it, so distance pre-filters work the same for both shapes.
+ */
+public record ZoneArea(Long id, Long restaurantId, String name, double lat, double lng, double radiusKm, double fee,
+                       GeoPolygon polygon) {
+
+    /**
+     * Null for zones with neither a usable boundary nor a center and radius; they cannot contain anything.
+     */
+    public static ZoneArea from(DeliveryZone zone) {
+        if (zone.getId() == null || zone.getRestaurant() == null) {
+            return null;
+        }
+        double fee = zone.getDeliveryFee() != null ? zone.getDeliveryFee() : 0.0;
+        GeoPolygon polygon = polygon(zone.getBoundary());
+        if (polygon != null) {
+            return new ZoneArea(zone.getId(), zone.getRestaurant().getId(), zone.getName(),
+                    polygon.centerLat(), polygon.centerLng(), polygon.coveringRadiusKm(), fee, polygon);
+        }
+        Coordinates center = zone.getCenter();
+        if (center == null || center.getLat() == null || center.getLng() == null || zone.getRadiusKm() == null) {
+            return null;
+        }
+        return new ZoneArea(zone.getId(), zone.getRestaurant().getId(), zone.getName(),
+                center.getLat(), center.getLng(), zone.getRadiusKm(), fee, null);
+    }
+
+    public boolean contains(double lat, double lng) {
+        return polygon != null
+                ? polygon.contains(lat, lng)
+                : GeoHelper.distanceKm(this.lat, this.lng, lat, lng) <= radiusKm;
+    }
+
+    private static GeoPolygon polygon(List<Coordinates> boundary) {
+        if (boundary == null || boundary.size() < 3) {
+            return null;
+        }
+        double[] lats = new double[boundary.size()];
+        double[] lngs = new double[boundary.size()];
+        for (int i = 0; i < boundary.size(); i++) {
+            Coordinates vertex = boundary.get(i);
+            if (vertex == null || vertex.getLat() == null || vertex.getLng() == null) {
+                return null;
+            }
+            lats[i] = vertex.getLat();
+            lngs[i] = vertex.getLng();
+        }
+        return new GeoPolygon(lats, lngs);
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.food_delivery.model.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,            // cart
     CONFIRMED,          // paid
@@ -9,5 +14,25 @@ public enum OrderStatus {
     PICKED_UP,
     EN_ROUTE,
     DELIVERED,
-    CANCELED
+    CANCELED,
+    EXPIRED;            // abandoned cart, stock returned
+
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+
+    static {
+        NEXT.put(PENDING, EnumSet.of(CONFIRMED, CANCELED, EXPIRED));
+        NEXT.put(CONFIRMED, EnumSet.of(ACCEPTED_BY_RESTAURANT, PICKED_UP, CANCELED));
+        NEXT.put(ACCEPTED_BY_RESTAURANT, EnumSet.of(IN_PREPARATION, READY_FOR_PICKUP, PICKED_UP, CANCELED));
+        NEXT.put(IN_PREPARATION, EnumSet.of(READY_FOR_PICKUP, PICKED_UP));
+        NEXT.put(READY_FOR_PICKUP, EnumSet.of(PICKED_UP));
+        NEXT.put(PICKED_UP, EnumSet.of(EN_ROUTE, DELIVERED));
+        NEXT.put(EN_ROUTE, EnumSet.of(DELIVERED));
+        NEXT.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        NEXT.put(CANCELED, EnumSet.noneOf(OrderStatus.class));
+        NEXT.put(EXPIRED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return NEXT.get(this).contains(next);
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.food_delivery.model.enums;
+
+public enum ProductSort {
+    ID(null, false),
+    PRICE_ASC("price", false),
+    PRICE_DESC("price", true);
+
+    private final String attribute;
+    private final boolean descending;
+
+    ProductSort(String attribute, boolean descending) {
+        this.attribute = attribute;
+        this.descending = descending;
+    }
+
+    // entity attribute sorted on before the id, null when only the id orders the listing
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+}
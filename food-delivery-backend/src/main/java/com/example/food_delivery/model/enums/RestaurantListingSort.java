@@ -0,0 +1,24 @@
+package com.example.food_delivery.model.enums;
+
+public enum RestaurantListingSort {
+    ID(null, false),
+    RATING("averageRating", true),
+    ETA("deliveryTimeEstimate", false);
+
+    private final String attribute;
+    private final boolean descending;
+
+    RestaurantListingSort(String attribute, boolean descending) {
+        this.attribute = attribute;
+        this.descending = descending;
+    }
+
+    // entity attribute sorted on before the id, null when only the id orders the listing
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.food_delivery.model.enums;
+
+public enum RestaurantSort {
+    DISTANCE,
+    ETA,
+    RATING
+}
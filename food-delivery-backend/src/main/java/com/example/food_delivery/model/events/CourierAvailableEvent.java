@@ -0,0 +1,7 @@
+package com.example.food_delivery.model.events;
+
+/**
+ * Published when a courier finishes a delivery and can take the next one.
+ */
+public record CourierAvailableEvent(Long courierId, String username) {
+}
@@ -0,0 +1,9 @@
+package com.example.food_delivery.model.events;
+
+import java.time.Instant;
+
+/**
+ * Published once per accepted batch of pings with the courier's newest fix.
+ */
+public record CourierMovedEvent(Long courierId, double lat, double lng, Instant at) {
+}
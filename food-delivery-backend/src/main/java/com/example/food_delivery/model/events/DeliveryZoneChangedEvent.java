@@ -0,0 +1,9 @@
+package com.example.food_delivery.model.events;
+
+import com.example.food_delivery.model.domain.ZoneArea;
+
+/**
+ * A delivery zone was saved or removed. area is null when the zone is gone or no longer has a usable shape.
+ */
+public record DeliveryZoneChangedEvent(Long zoneId, ZoneArea area) {
+}
@@ -0,0 +1,20 @@
+package com.example.food_delivery.model.events;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Published when a cart is confirmed. Carries plain values only so listeners can
+ * run after the transaction without touching entities.
+ */
+public record OrderConfirmedEvent(
+        Long orderId,
+        String username,
+        Instant placedAt,
+        Double dropOffLat,
+        Double dropOffLng,
+        List<Line> lines
+) {
+    public record Line(Long productId, Long restaurantId, int quantity, double unitPrice) {
+    }
+}
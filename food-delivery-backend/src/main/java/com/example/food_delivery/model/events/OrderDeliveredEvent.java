@@ -0,0 +1,49 @@
+package com.example.food_delivery.model.events;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.Order;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Published when a delivery is completed, with the timings the ETA statistics learn from and what the courier earned.
+ * pickedUpAt is null for orders assigned before it was recorded; the drop-off is null and distanceKm 0 when
+ * the restaurant or the drop-off is not located.
+ */
+public record OrderDeliveredEvent(
+        Long orderId,
+        Long restaurantId,
+        Long courierId,
+        Double dropOffLat,
+        Double dropOffLng,
+        double distanceKm,
+        double deliveryFee,
+        Instant placedAt,
+        Instant pickedUpAt,
+        Instant deliveredAt
+) {
+    public static OrderDeliveredEvent of(Order order) {
+        Coordinates pickup = order.getRestaurant() != null ? order.getRestaurant().getCoordinates() : null;
+        Coordinates dropOff = order.getDeliveryAddress() != null ? order.getDeliveryAddress().getCoordinates() : null;
+        return new OrderDeliveredEvent(
+                order.getId(),
+                order.getRestaurant() != null ? order.getRestaurant().getId() : null,
+                order.getCourier() != null ? order.getCourier().getId() : null,
+                located(dropOff) ? dropOff.getLat() : null,
+                located(dropOff) ? dropOff.getLng() : null,
+                located(pickup) && located(dropOff)
+                        ? GeoHelper.distanceKm(pickup.getLat(), pickup.getLng(), dropOff.getLat(), dropOff.getLng())
+                        : 0.0,
+                order.getDeliveryFee() != null ? order.getDeliveryFee() : 0.0,
+                order.getPlacedAt(),
+                order.getPickedUpAt(),
+                order.getDeliveredAt() != null ? order.getDeliveredAt().atZone(ZoneId.systemDefault()).toInstant() : Instant.now()
+        );
+    }
+
+    private static boolean located(Coordinates at) {
+        return at != null && at.getLat() != null && at.getLng() != null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.food_delivery.model.events;
+
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.enums.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * Published on every status transition a customer or courier may be watching.
+ * Courier fields are null until a courier is assigned.
+ */
+public record OrderStatusChangedEvent(
+        Long orderId,
+        String customerUsername,
+        Long courierId,
+        String courierUsername,
+        String courierName,
+        OrderStatus status,
+        Instant at
+) {
+    public static OrderStatusChangedEvent of(Order order) {
+        Courier courier = order.getCourier();
+        return new OrderStatusChangedEvent(
+                order.getId(),
+                order.getUser().getUsername(),
+                courier != null ? courier.getId() : null,
+                courier != null ? courier.getUser().getUsername() : null,
+                courier != null ? courier.getName() : null,
+                order.getStatus(),
+                Instant.now()
+        );
+    }
+}
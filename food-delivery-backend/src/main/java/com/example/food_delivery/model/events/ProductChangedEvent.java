@@ -0,0 +1,7 @@
+package com.example.food_delivery.model.events;
+
+/**
+ * A product was saved or removed. restaurantId is the restaurant it belongs to now, null when it has none.
+ */
+public record ProductChangedEvent(Long productId, Long restaurantId) {
+}
@@ -0,0 +1,7 @@
+package com.example.food_delivery.model.events;
+
+/**
+ * A restaurant was saved or deleted, a delete taking its products with it.
+ */
+public record RestaurantChangedEvent(Long restaurantId) {
+}
@@ -0,0 +1,9 @@
+package com.example.food_delivery.model.exceptions;
+
+public class InvalidCoordinatesException extends RuntimeException {
+
+    public InvalidCoordinatesException(double lat, double lng) {
+        super(String.format("Invalid coordinates: %s, %s", lat, lng));
+    }
+
+}
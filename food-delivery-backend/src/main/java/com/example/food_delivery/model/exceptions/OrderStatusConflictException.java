@@ -0,0 +1,16 @@
+package com.example.food_delivery.model.exceptions;
+
+import com.example.food_delivery.model.enums.OrderStatus;
+
+public class OrderStatusConflictException extends RuntimeException {
+
+    public OrderStatusConflictException(Long id, OrderStatus from, OrderStatus to) {
+        super(String.format("Order with ID %s cannot move from %s to %s.", id, from, to));
+    }
+
+    // A guarded update matched no row: someone else moved the order first
+    public OrderStatusConflictException(Long id, OrderStatus expected) {
+        super(String.format("Order with ID %s is no longer %s.", id, expected));
+    }
+
+}
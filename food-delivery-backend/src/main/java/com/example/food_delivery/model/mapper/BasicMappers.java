@@ -18,12 +18,15 @@ public final class BasicMappers {
         d.setCity(a.getCity());
         d.setPostalCode(a.getPostalCode());
         d.setCountry(a.getCountry());
+        d.setCoordinates(toDto(a.getCoordinates()));
         return d;
     }
 
     public static Address fromDto(AddressDto d) {
         if (d == null) return null;
-        return new Address(d.getLine1(), d.getLine2(), d.getCity(), d.getPostalCode(), d.getCountry());
+        Address a = new Address(d.getLine1(), d.getLine2(), d.getCity(), d.getPostalCode(), d.getCountry());
+        a.setCoordinates(fromDto(d.getCoordinates()));
+        return a;
     }
 
     // ===== Coordinates =====
@@ -48,6 +51,8 @@ public final class BasicMappers {
         d.setName(z.getName());
         d.setRadiusKm(z.getRadiusKm());
         d.setCenter(toDto(z.getCenter()));
+        d.setBoundary(z.getBoundary() == null || z.getBoundary().isEmpty() ? null
+                : z.getBoundary().stream().map(BasicMappers::toDto).collect(Collectors.toList()));
         d.setDeliveryFee(z.getDeliveryFee());
         return d;
     }
@@ -88,7 +93,7 @@ public final class BasicMappers {
         d.setSubtotal(o.getSubtotal());
         d.setRestaurantId(o.getRestaurant().getId());
         d.setRestaurantName(o.getRestaurant().getName());
-        d.setProducts( DisplayProductDto.from(o.getProducts()));
+        d.setProducts(DisplayProductDto.fromItems(o.getItems()));
         d.setItems(toItemDtos(o.getItems()));
         d.setDeliveryFee(o.getDeliveryFee());
         d.setPlatformFee(o.getPlatformFee());
@@ -0,0 +1,122 @@
+package com.example.food_delivery.repository;
+
+import com.example.food_delivery.model.domain.PageAnchor;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.ProductFilter;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.criteria.JpaOrder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog listing queries. Only the filters that are set become predicates, so each query matches one
+ * of the composite indexes on {@link Product} and {@link Restaurant} instead of OR-ing optional parameters.
+ * Pages are keyset pages ordered by (sort attribute nulls last, id).
+ */
+public final class CatalogSpecifications {
+
+    private CatalogSpecifications() {
+    }
+
+    public static Specification<Product> products(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.category() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (filter.restaurantId() != null) {
+                predicates.add(cb.equal(root.get("restaurant").get("id"), filter.restaurantId()));
+            }
+            // a product without the flag is available, the same as when reserving stock
+            if (Boolean.TRUE.equals(filter.available())) {
+                predicates.add(cb.or(cb.isNull(root.get("isAvailable")), cb.isTrue(root.get("isAvailable"))));
+            } else if (Boolean.FALSE.equals(filter.available())) {
+                predicates.add(cb.isFalse(root.get("isAvailable")));
+            }
+            if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+            }
+            if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Restaurant> restaurants(RestaurantFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.category() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (Boolean.TRUE.equals(filter.openNow())) {
+                predicates.add(cb.isTrue(root.get("isOpen")));
+            }
+            if (filter.minRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("averageRating"), filter.minRating()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Rows after the anchor in the order of {@link #ordered(String, boolean)}.
+     * @param attribute sort attribute, or null when the listing is ordered by id alone
+     */
+    public static <T> Specification<T> after(PageAnchor anchor, String attribute, boolean descending) {
+        return (root, query, cb) -> {
+            if (anchor == null) {
+                return null;
+            }
+            Path<Long> id = root.get("id");
+            if (attribute == null) {
+                return cb.greaterThan(id, anchor.id());
+            }
+            Path<Comparable<Object>> value = root.get(attribute);
+            Predicate afterIdWithin = cb.greaterThan(id, anchor.id());
+            if (anchor.value() == null) {
+                // already in the trailing rows without a value
+                return cb.and(cb.isNull(value), afterIdWithin);
+            }
+            Comparable<Object> bound = typed(value, anchor.value());
+            return cb.or(
+                    descending ? cb.lessThan(value, bound) : cb.greaterThan(value, bound),
+                    cb.and(cb.equal(value, bound), afterIdWithin),
+                    cb.isNull(value));
+        };
+    }
+
+    /**
+     * Orders the query by the attribute, rows without a value last, then by id. Spring Data cannot pass
+     * null precedence through criteria queries, so this sets the order itself through Hibernate's JpaOrder.
+     */
+    public static <T> Specification<T> ordered(String attribute, boolean descending) {
+        return (root, query, cb) -> {
+            Order byId = cb.asc(root.get("id"));
+            if (attribute == null) {
+                query.orderBy(byId);
+            } else {
+                Order byValue = descending ? cb.desc(root.get(attribute)) : cb.asc(root.get(attribute));
+                query.orderBy(((JpaOrder) byValue).nullPrecedence(NullPrecedence.LAST), byId);
+            }
+            return null;
+        };
+    }
+
+    // cursor values are doubles, integer columns have to be compared with an integer
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> typed(Path<Comparable<Object>> path, Double value) {
+        Class<?> type = path.getJavaType();
+        Object typed = type == Integer.class ? Integer.valueOf(value.intValue())
+                : type == Long.class ? Long.valueOf(value.longValue())
+                : value;
+        return (Comparable<Object>) typed;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.food_delivery.repository;
 
 import com.example.food_delivery.model.domain.Courier;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -12,7 +16,25 @@ public interface CourierRepository extends JpaRepository<Courier, Long> {
     @Query("SELECT c FROM Courier c JOIN c.user u WHERE u.username = :courierUsername")
     Optional<Courier> findByUser_Username(@Param("courierUsername") String courierUsername);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT c FROM Courier c WHERE c.active = true")
     List<Courier> findAllActiveCouriers();
 
+    // Takes one slot of the courier's batch; 0 rows means the batch is already full
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Courier c SET c.activeOrders = c.activeOrders + 1, " +
+            "c.active = CASE WHEN c.activeOrders + 1 < :maxOrders THEN true ELSE false END " +
+            "WHERE c.id = :id AND c.active = true AND c.activeOrders < :maxOrders")
+    int claimSlot(@Param("id") Long id, @Param("maxOrders") int maxOrders);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Courier c SET c.activeOrders = CASE WHEN c.activeOrders > 0 THEN c.activeOrders - 1 ELSE 0 END, " +
+            "c.active = true WHERE c.id = :id")
+    int releaseSlot(@Param("id") Long id);
+
+    // Waits for the courier's in-flight delivery, which holds the row from releaseSlot until it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Courier c WHERE c.id = :id")
+    Optional<Courier> lockById(@Param("id") Long id);
+
 }
@@ -0,0 +1,46 @@
+package com.example.food_delivery.repository;
+
+import com.example.food_delivery.model.domain.CourierStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface CourierStatsRepository extends JpaRepository<CourierStats, Long> {
+
+    // One delivery in a single UPDATE; the day and week counters restart when their bucket moved on. 0 rows: no row yet
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourierStats s SET s.totalDeliveries = s.totalDeliveries + 1, " +
+            "s.totalDistanceKm = s.totalDistanceKm + :km, s.totalEarnings = s.totalEarnings + :fee, " +
+            "s.dayDeliveries = CASE WHEN s.dayBucket = :day THEN s.dayDeliveries + 1 ELSE 1 END, " +
+            "s.dayEarnings = CASE WHEN s.dayBucket = :day THEN s.dayEarnings + :fee ELSE :fee END, " +
+            "s.dayBucket = :day, " +
+            "s.weekDeliveries = CASE WHEN s.weekBucket = :week THEN s.weekDeliveries + 1 ELSE 1 END, " +
+            "s.weekEarnings = CASE WHEN s.weekBucket = :week THEN s.weekEarnings + :fee ELSE :fee END, " +
+            "s.weekBucket = :week " +
+            "WHERE s.courierId = :courierId")
+    int recordDelivery(@Param("courierId") Long courierId, @Param("day") LocalDate day, @Param("week") LocalDate week,
+                       @Param("km") double km, @Param("fee") double fee);
+
+    // Adds totals built from older deliveries to a row live deliveries already started; a bucket only moves forward
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CourierStats s SET s.totalDeliveries = s.totalDeliveries + :deliveries, " +
+            "s.totalDistanceKm = s.totalDistanceKm + :km, s.totalEarnings = s.totalEarnings + :earnings, " +
+            "s.dayDeliveries = CASE WHEN s.dayBucket = :day THEN s.dayDeliveries + :dayDeliveries " +
+            "WHEN s.dayBucket IS NULL OR s.dayBucket < :day THEN :dayDeliveries ELSE s.dayDeliveries END, " +
+            "s.dayEarnings = CASE WHEN s.dayBucket = :day THEN s.dayEarnings + :dayEarnings " +
+            "WHEN s.dayBucket IS NULL OR s.dayBucket < :day THEN :dayEarnings ELSE s.dayEarnings END, " +
+            "s.dayBucket = CASE WHEN s.dayBucket IS NULL OR s.dayBucket < :day THEN :day ELSE s.dayBucket END, " +
+            "s.weekDeliveries = CASE WHEN s.weekBucket = :week THEN s.weekDeliveries + :weekDeliveries " +
+            "WHEN s.weekBucket IS NULL OR s.weekBucket < :week THEN :weekDeliveries ELSE s.weekDeliveries END, " +
+            "s.weekEarnings = CASE WHEN s.weekBucket = :week THEN s.weekEarnings + :weekEarnings " +
+            "WHEN s.weekBucket IS NULL OR s.weekBucket < :week THEN :weekEarnings ELSE s.weekEarnings END, " +
+            "s.weekBucket = CASE WHEN s.weekBucket IS NULL OR s.weekBucket < :week THEN :week ELSE s.weekBucket END " +
+            "WHERE s.courierId = :courierId")
+    int addTotals(@Param("courierId") Long courierId, @Param("deliveries") long deliveries, @Param("km") double km,
+                  @Param("earnings") double earnings,
+                  @Param("day") LocalDate day, @Param("dayDeliveries") int dayDeliveries, @Param("dayEarnings") double dayEarnings,
+                  @Param("week") LocalDate week, @Param("weekDeliveries") int weekDeliveries, @Param("weekEarnings") double weekEarnings);
+}
@@ -2,5 +2,12 @@ package com.example.food_delivery.repository;
 
 import com.example.food_delivery.model.domain.DeliveryZone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface DeliveryZoneRepository extends JpaRepository<DeliveryZone, Long> { }
+import java.util.List;
+
+public interface DeliveryZoneRepository extends JpaRepository<DeliveryZone, Long> {
+
+    @Query("SELECT DISTINCT z FROM DeliveryZone z JOIN FETCH z.restaurant LEFT JOIN FETCH z.boundary")
+    List<DeliveryZone> findAllWithRestaurant();
+}
@@ -1,33 +1,142 @@
 package com.example.food_delivery.repository;
 
+import com.example.food_delivery.model.domain.Courier;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.domain.User;
 import com.example.food_delivery.model.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByUserAndStatus(User user, OrderStatus status);
+    @EntityGraph("Order.listing")
     @Query("SELECT o FROM Order o WHERE o.status = 'CONFIRMED' ORDER BY o.placedAt ASC")
     List<Order> findConfirmed();
 
+    @EntityGraph(attributePaths = "restaurant")
     @Query("SELECT o FROM Order o WHERE o.status = 'CONFIRMED' AND o.courier IS NULL ORDER BY o.placedAt ASC")
     List<Order> findConfirmedUnassignedOrders();
 
+    // Keyset pages of the confirmed board, ordered by (placedAt, id); ids first so limits never apply to a fetch join.
+    // Orders without a placedAt (legacy rows) come after all others, ordered by id
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'CONFIRMED' AND o.placedAt IS NOT NULL ORDER BY o.placedAt ASC, o.id ASC")
+    List<Long> findConfirmedIds(Pageable page);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'CONFIRMED' " +
+            "AND (o.placedAt > :placedAt OR (o.placedAt = :placedAt AND o.id > :id)) ORDER BY o.placedAt ASC, o.id ASC")
+    List<Long> findConfirmedIdsAfter(@Param("placedAt") Instant placedAt, @Param("id") Long id, Pageable page);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'CONFIRMED' AND o.placedAt IS NULL AND o.id > :id ORDER BY o.id ASC")
+    List<Long> findConfirmedIdsWithoutPlacedAtAfter(@Param("id") Long id, Pageable page);
+
+    @EntityGraph("Order.listing")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.placedAt ASC NULLS LAST, o.id ASC")
+    List<Order> findListingByIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph("Order.listing")
     @Query("SELECT o FROM Order o WHERE o.courier.user.username = :courierUsername")
     List<Order> findByCourierUsername(@Param("courierUsername") String courierUsername);
 
+    // The courier's current batch
+    @EntityGraph("Order.listing")
+    @Query("SELECT o FROM Order o WHERE o.courier.user.username = :courierUsername " +
+            "AND (o.status = 'PICKED_UP' OR o.status = 'EN_ROUTE') ORDER BY o.id ASC")
+    List<Order> findActiveByCourierUsername(@Param("courierUsername") String courierUsername);
+
+    @EntityGraph("Order.listing")
     @Query("SELECT o FROM Order o WHERE o.courier.user.username = :courierUsername AND o.status = 'DELIVERED'")
     List<Order> findByCourierUsernameAndDelivered(@Param("courierUsername") String courierUsername);
 
+    // Keyset pages of a courier's delivery history, newest first; ids first so limits never apply to a fetch join
+    @Query("SELECT o.id FROM Order o WHERE o.courier.id = :courierId AND o.status = 'DELIVERED' ORDER BY o.id DESC")
+    List<Long> findDeliveredIds(@Param("courierId") Long courierId, Pageable page);
+
+    @Query("SELECT o.id FROM Order o WHERE o.courier.id = :courierId AND o.status = 'DELIVERED' AND o.id < :beforeId ORDER BY o.id DESC")
+    List<Long> findDeliveredIdsBefore(@Param("courierId") Long courierId, @Param("beforeId") Long beforeId, Pageable page);
+
+    @EntityGraph("Order.listing")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id DESC")
+    List<Order> findListingByIdsNewestFirst(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT o.courier.id FROM Order o WHERE o.status = 'DELIVERED' AND o.courier IS NOT NULL " +
+            "AND NOT EXISTS (SELECT s.courierId FROM CourierStats s WHERE s.courierId = o.courier.id)")
+    List<Long> findCourierIdsWithoutStats();
+
+    // Page of [deliveryFee, deliveredAt, pickupLat, pickupLng, dropOffLat, dropOffLng] of one courier's deliveries
+    // made before :before, oldest first so the day and week buckets end on the latest ones
+    @Query("SELECT o.deliveryFee, o.deliveredAt, r.coordinates.lat, r.coordinates.lng, " +
+            "o.deliveryAddress.coordinates.lat, o.deliveryAddress.coordinates.lng FROM Order o LEFT JOIN o.restaurant r " +
+            "WHERE o.status = 'DELIVERED' AND o.courier.id = :courierId AND (o.deliveredAt IS NULL OR o.deliveredAt < :before) " +
+            "ORDER BY o.deliveredAt ASC NULLS FIRST, o.id ASC")
+    List<Object[]> findDeliveriesForStats(@Param("courierId") Long courierId, @Param("before") LocalDateTime before, Pageable page);
+
+    @EntityGraph("Order.listing")
     @Query("SELECT o FROM Order o WHERE o.user.username = :username AND (o.status = 'CONFIRMED' OR o.status = 'PICKED_UP')")
     List<Order> findByUsernameAndConfirmed(@Param("username") String username);
 
+    // Keyset page of abandoned carts, continue with afterId = last id of the previous page
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.expiresAt < :now AND o.id > :afterId ORDER BY o.id ASC")
+    List<Long> findExpiredPendingIds(@Param("now") Instant now, @Param("afterId") Long afterId, Pageable page);
+
+    // Carts that are being checked out right now are skipped instead of waited on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids AND o.status = 'PENDING' AND o.expiresAt < :now")
+    List<Order> lockExpiredPending(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = 'EXPIRED', o.version = o.version + 1 WHERE o.id IN :ids AND o.status = 'PENDING'")
+    int markExpired(@Param("ids") Collection<Long> ids);
+
+    // Guarded transitions: a single UPDATE that only matches while the order is still in the expected state
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'PICKED_UP', o.courier = :courier, o.pickedUpAt = :pickedUpAt, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.status = 'CONFIRMED' AND o.courier IS NULL")
+    int assignCourier(@Param("id") Long id, @Param("courier") Courier courier, @Param("pickedUpAt") Instant pickedUpAt);
+
+    // The courier has the food: from here on the route has no pickup stop for the order
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'EN_ROUTE', o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.courier = :courier AND o.status = 'PICKED_UP'")
+    int markCollected(@Param("id") Long id, @Param("courier") Courier courier);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'DELIVERED', o.deliveredAt = :deliveredAt, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.courier = :courier AND (o.status = 'PICKED_UP' OR o.status = 'EN_ROUTE')")
+    int markDelivered(@Param("id") Long id, @Param("courier") Courier courier, @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    // Keyset page of [id, restaurantId, placedAt, pickedUpAt, deliveredAt, dropOffLat, dropOffLng] for delivered orders
+    @Query("SELECT o.id, o.restaurant.id, o.placedAt, o.pickedUpAt, o.deliveredAt, " +
+            "o.deliveryAddress.coordinates.lat, o.deliveryAddress.coordinates.lng FROM Order o " +
+            "WHERE o.status = 'DELIVERED' AND o.placedAt >= :since AND o.deliveredAt IS NOT NULL AND o.id > :afterId ORDER BY o.id ASC")
+    List<Object[]> findDeliveryDurations(@Param("since") Instant since, @Param("afterId") Long afterId, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
+
+    // Orders that still have rows in the legacy Products join table
+    @Query("SELECT o.id FROM Order o WHERE o.Products IS NOT EMPTY AND o.id > :afterId ORDER BY o.id ASC")
+    List<Long> findIdsWithLegacyProducts(@Param("afterId") Long afterId, Pageable page);
+
+    // While dual-write keeps the join rows, only orders that have no items yet are left to migrate
+    @Query("SELECT o.id FROM Order o WHERE o.Products IS NOT EMPTY AND o.items IS EMPTY AND o.id > :afterId ORDER BY o.id ASC")
+    List<Long> findIdsWithOnlyLegacyProducts(@Param("afterId") Long afterId, Pageable page);
 
 }
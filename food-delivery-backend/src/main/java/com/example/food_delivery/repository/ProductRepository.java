@@ -2,17 +2,53 @@ package com.example.food_delivery.repository;
 
 import com.example.food_delivery.model.domain.Product;
 import com.example.food_delivery.model.domain.Restaurant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     @Override
     @Query("SELECT p FROM Product p ORDER BY p.id ASC")
     List<Product> findAll();
 
     List<Product> findByRestaurant(Restaurant restaurant);
+
+    List<Product> findByRestaurantId(Long restaurantId);
+
+    @EntityGraph(attributePaths = "restaurant")
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable page);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    // [id, quantity] of every product
+    @Query("SELECT p.id, p.quantity FROM Product p")
+    List<Object[]> findAllQuantities();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.restaurant ORDER BY p.id ASC")
+    Stream<Product> streamAll();
+
+    // Single conditional update, so concurrent carts can never oversell the same product
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount " +
+            "WHERE p.id = :id AND p.quantity >= :amount AND (p.isAvailable IS NULL OR p.isAvailable = true)")
+    int reserveStock(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = COALESCE(p.quantity, 0) + :amount WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("amount") int amount);
 }
@@ -1,16 +1,32 @@
 package com.example.food_delivery.repository;
 
 import com.example.food_delivery.model.domain.Restaurant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+public interface RestaurantRepository extends JpaRepository<Restaurant, Long>, JpaSpecificationExecutor<Restaurant> {
 
     @Override
     @Query("SELECT r FROM Restaurant r ORDER BY r.id ASC")
     List<Restaurant> findAll();
+
+    List<Restaurant> findByIdGreaterThanOrderByIdAsc(Long id, Pageable page);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Restaurant r ORDER BY r.id ASC")
+    Stream<Restaurant> streamAll();
+
+    // [id, lat, lng] of every restaurant; lat and lng are null when it has not been located
+    @Query("SELECT r.id, r.coordinates.lat, r.coordinates.lng FROM Restaurant r")
+    List<Object[]> findAllPositions();
 }
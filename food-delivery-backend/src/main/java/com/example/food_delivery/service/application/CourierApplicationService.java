@@ -2,9 +2,14 @@ package com.example.food_delivery.service.application;
 
 
 import com.example.food_delivery.dto.domain.CourierDto;
+import com.example.food_delivery.dto.domain.CourierLocationDto;
+import com.example.food_delivery.dto.domain.CourierStatsDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayCourierDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
+import com.example.food_delivery.dto.domain.LocationPingDto;
 import com.example.food_delivery.dto.domain.OrderDto;
+import com.example.food_delivery.dto.domain.RouteStopDto;
 import com.example.food_delivery.model.domain.Courier;
 import com.example.food_delivery.model.domain.Order;
 
@@ -21,7 +26,18 @@ public interface CourierApplicationService {
 
     Optional<CourierDto> deleteById(Long id);
     DisplayOrderDto assignToOrder(String courierUsername, Long orderId);
+    DisplayOrderDto collectOrder(String courierUsername, Long orderId);
     DisplayOrderDto completeDelivery(String courierUsername, Long orderId);
     List<DisplayCourierDto> findAvailable();
     List<OrderDto> findDeliveredOrders(String courierUsername);
+    CursorPageDto<OrderDto> findDeliveredPage(String courierUsername, String after, int limit);
+    CourierStatsDto findStats(String courierUsername);
+    List<RouteStopDto> planRoute(String courierUsername);
+
+    /**
+     * @return number of pings accepted
+     */
+    int recordLocation(String courierUsername, List<LocationPingDto> pings);
+
+    List<CourierLocationDto> findNearby(double lat, double lng, int limit, double maxKm);
 }
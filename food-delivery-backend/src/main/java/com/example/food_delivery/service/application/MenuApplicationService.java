@@ -0,0 +1,12 @@
+package com.example.food_delivery.service.application;
+
+import com.example.food_delivery.dto.domain.MenuSnapshotDto;
+
+import java.util.Optional;
+
+public interface MenuApplicationService {
+    /**
+     * The restaurant's products grouped by category, empty when there is no such restaurant.
+     */
+    Optional<MenuSnapshotDto> findMenu(Long restaurantId);
+}
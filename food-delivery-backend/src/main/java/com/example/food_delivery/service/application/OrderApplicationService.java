@@ -1,19 +1,27 @@
 package com.example.food_delivery.service.application;
 
 import com.example.food_delivery.dto.domain.AddressDto;
+import com.example.food_delivery.dto.domain.CartItemDeltaDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.OrderDto;
+import com.example.food_delivery.dto.domain.OrderTrackingDeltaDto;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderApplicationService {
     List<OrderDto> findAll();
     List<OrderDto> findAllConfirmed();
+    CursorPageDto<OrderDto> findConfirmedPage(String after, int limit);
+    void streamConfirmed(Consumer<OrderDto> sink);
     Optional<OrderDto> findById(Long id);
+    Optional<OrderTrackingDeltaDto> findTrackingSnapshot(Long id, String username);
     OrderDto getCart(String username);
     OrderDto addProductToCart(String username, Long ProductId);
     OrderDto removeProductFromCart(String username, Long ProductId);
+    OrderDto updateCart(String username, List<CartItemDeltaDto> deltas);
     Optional<OrderDto> confirm(String username);
     Optional<OrderDto> cancel(String username);
     List<OrderDto> findOrdersForCourier(String username);
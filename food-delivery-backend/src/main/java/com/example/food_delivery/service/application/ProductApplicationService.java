@@ -1,20 +1,33 @@
 package com.example.food_delivery.service.application;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateProductDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.DisplayProductDetailsDto;
 import com.example.food_delivery.dto.domain.DisplayProductDto;
 
+import com.example.food_delivery.model.domain.ProductFilter;
+import com.example.food_delivery.model.enums.ProductSort;
+
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductApplicationService {
     List<DisplayProductDto> findAll();
 
+    CursorPageDto<DisplayProductDto> findPage(ProductFilter filter, ProductSort sort, String after, int limit);
+
+    void streamAll(Consumer<DisplayProductDto> sink);
+
     Optional<DisplayProductDto> findById(Long id);
 
     Optional<DisplayProductDetailsDto> findByIdWithDetails(Long id);
 
+    Map<String, CacheStatsDto> cacheStats();
+
     DisplayProductDto save(CreateProductDto createMenuItemDto);
 
     Optional<DisplayProductDto> update(Long id, CreateProductDto createMenuItemDto);
@@ -1,16 +1,35 @@
 package com.example.food_delivery.service.application;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateRestaurantDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayRestaurantDto;
+import com.example.food_delivery.dto.domain.NearbyRestaurantDto;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
+import com.example.food_delivery.model.enums.RestaurantSort;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface RestaurantApplicationService {
     List<DisplayRestaurantDto> findAll();
 
+    CursorPageDto<DisplayRestaurantDto> findPage(RestaurantFilter filter, RestaurantListingSort sort, String after, int limit);
+
+    void streamAll(Consumer<DisplayRestaurantDto> sink);
+
     Optional<DisplayRestaurantDto> findById(Long id);
 
+    Map<String, CacheStatsDto> cacheStats();
+
+    /**
+     * Restaurants whose delivery zones cover the point.
+     */
+    List<NearbyRestaurantDto> findDeliveringTo(double lat, double lng, RestaurantSort sort, int limit);
+
     DisplayRestaurantDto save(CreateRestaurantDto createRestaurantDto);
 
     Optional<DisplayRestaurantDto> update(Long id, CreateRestaurantDto createRestaurantDto);
@@ -0,0 +1,18 @@
+package com.example.food_delivery.service.application;
+
+import com.example.food_delivery.dto.domain.SearchResultsDto;
+import com.example.food_delivery.dto.domain.SearchSuggestionDto;
+
+import java.util.List;
+
+public interface SearchApplicationService {
+    /**
+     * Restaurants and products matching any word of the query, best match first.
+     */
+    SearchResultsDto search(String query, int limit);
+
+    /**
+     * Names of restaurants and products matching every word typed so far, the last one as a prefix.
+     */
+    List<SearchSuggestionDto> autocomplete(String input, int limit);
+}
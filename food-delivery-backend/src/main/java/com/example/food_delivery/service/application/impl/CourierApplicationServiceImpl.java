@@ -1,23 +1,58 @@
 package com.example.food_delivery.service.application.impl;
 
 import com.example.food_delivery.dto.domain.*;
+import com.example.food_delivery.helpers.TtlCache;
 import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.LocationPing;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.mapper.BasicMappers;
 import com.example.food_delivery.service.application.CourierApplicationService;
+import com.example.food_delivery.service.domain.CourierLocationService;
 import com.example.food_delivery.service.domain.CourierService;
+import com.example.food_delivery.service.domain.CourierStatsService;
+import com.example.food_delivery.service.domain.RoutePlanningService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class CourierApplicationServiceImpl implements CourierApplicationService {
 
     private final CourierService courierService;
+    private final CourierLocationService courierLocationService;
+    private final RoutePlanningService routePlanningService;
+    private final CourierStatsService courierStatsService;
 
-    public CourierApplicationServiceImpl(CourierService courierService) {
+    @Value("${courier.id-cache.max-entries:10000}")
+    private int idCacheMaxEntries;
+
+    @Value("${courier.id-cache.ttl-minutes:60}")
+    private long idCacheTtlMinutes;
+
+    // Pings arrive every few seconds per courier; resolve the username once in a while, not per request
+    private TtlCache<String, Long> courierIds;
+
+    public CourierApplicationServiceImpl(CourierService courierService,
+                                         CourierLocationService courierLocationService,
+                                         RoutePlanningService routePlanningService,
+                                         CourierStatsService courierStatsService) {
         this.courierService = courierService;
+        this.courierLocationService = courierLocationService;
+        this.routePlanningService = routePlanningService;
+        this.courierStatsService = courierStatsService;
+    }
+
+    @PostConstruct
+    void createCaches() {
+        courierIds = new TtlCache<>(idCacheMaxEntries, idCacheTtlMinutes * 60_000);
     }
 
     @Override
@@ -38,6 +73,8 @@ public class CourierApplicationServiceImpl implements CourierApplicationService
     @Override
     public Optional<CourierDto> update(Long id, Courier createCourier) {
         Courier courier = courierService.findById(id).orElseThrow();
+        // the courier may now belong to another user
+        forget(id);
         return courierService
                 .update(id, createCourier)
                 .map(BasicMappers::toDto);
@@ -45,6 +82,7 @@ public class CourierApplicationServiceImpl implements CourierApplicationService
 
     @Override
     public Optional<CourierDto> deleteById(Long id) {
+        forget(id);
         return courierService
                 .deleteById(id)
                 .map(BasicMappers::toDto);
@@ -55,6 +93,11 @@ public class CourierApplicationServiceImpl implements CourierApplicationService
         return DisplayOrderDto.from(courierService.assignToOrder(courierUsername,orderId));
     }
 
+    @Override
+    public DisplayOrderDto collectOrder(String courierUsername, Long orderId) {
+        return DisplayOrderDto.from(courierService.collectOrder(courierUsername,orderId));
+    }
+
     @Override
     public DisplayOrderDto completeDelivery(String courierUsername, Long orderId) {
         return DisplayOrderDto.from(courierService.completeDelivery(courierUsername,orderId));
@@ -70,4 +113,56 @@ public class CourierApplicationServiceImpl implements CourierApplicationService
     {
         return courierService.findDeliveredOrders(courierUsername).stream().map(BasicMappers::toDto).toList();
     }
+
+    @Override
+    public CursorPageDto<OrderDto> findDeliveredPage(String courierUsername, String after, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        List<OrderDto> items = courierStatsService
+                .findHistoryPage(courierId(courierUsername), CursorPageDto.parseIdCursor(after), size).stream()
+                .map(BasicMappers::toDto)
+                .toList();
+        return CursorPageDto.of(items, size, o -> String.valueOf(o.getId()));
+    }
+
+    @Override
+    public CourierStatsDto findStats(String courierUsername) {
+        LocalDate today = LocalDate.now();
+        return CourierStatsDto.from(courierStatsService.findByCourierId(courierId(courierUsername)),
+                today, today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+    }
+
+    @Override
+    public List<RouteStopDto> planRoute(String courierUsername) {
+        return routePlanningService.planRoute(courierUsername).stream().map(RouteStopDto::from).toList();
+    }
+
+    @Override
+    public int recordLocation(String courierUsername, List<LocationPingDto> pings) {
+        Long courierId = courierId(courierUsername);
+        Instant now = Instant.now();
+        List<LocationPing> accepted = pings.stream()
+                .filter(Objects::nonNull)
+                .filter(p -> p.lat() != null && p.lng() != null)
+                .map(p -> new LocationPing(p.lat(), p.lng(), p.recordedAt() != null ? Instant.ofEpochMilli(p.recordedAt()) : now))
+                .toList();
+        return courierLocationService.record(courierId, accepted);
+    }
+
+    @Override
+    public List<CourierLocationDto> findNearby(double lat, double lng, int limit, double maxKm) {
+        return courierLocationService.nearestCouriers(lat, lng, limit, maxKm).stream()
+                .flatMap(id -> courierLocationService.latest(id).stream()
+                        .map(p -> new CourierLocationDto(id, p.lat(), p.lng(), p.recordedAt())))
+                .toList();
+    }
+
+    private Long courierId(String courierUsername) {
+        return courierIds.get(courierUsername, username -> courierService.findByUsername(username)
+                .map(Courier::getId)
+                .orElseThrow(() -> new RuntimeException("Courier not found")));
+    }
+
+    private void forget(Long courierId) {
+        courierIds.invalidateIf((username, id) -> id.equals(courierId));
+    }
 }
@@ -0,0 +1,178 @@
+package com.example.food_delivery.service.application.impl;
+
+import com.example.food_delivery.dto.domain.MenuDto;
+import com.example.food_delivery.dto.domain.MenuItemDto;
+import com.example.food_delivery.dto.domain.MenuSectionDto;
+import com.example.food_delivery.dto.domain.MenuSnapshotDto;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.events.ProductChangedEvent;
+import com.example.food_delivery.service.application.MenuApplicationService;
+import com.example.food_delivery.service.domain.ProductService;
+import com.example.food_delivery.service.domain.RestaurantService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Menus are the most read thing we serve and change rarely, so each one is serialized once and the
+ * bytes are kept until one of the restaurant's products changes. A hit only reads a concurrent map;
+ * puts, invalidations and evicting the least recently served menus take a lock.
+ */
+@Service
+public class MenuApplicationServiceImpl implements MenuApplicationService {
+
+    private static final Comparator<Product> MENU_ORDER = Comparator
+            .comparing(MenuApplicationServiceImpl::category)
+            .thenComparing(Product::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Product::getId);
+
+    private final ProductService productService;
+    private final RestaurantService restaurantService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, CachedMenu> cache = new ConcurrentHashMap<>();
+    // bumped by every change, so a snapshot built from older rows is never cached
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    // restaurant of every product in a cached menu, to find the old menu when a product moves
+    private final Map<Long, Long> restaurantOfProduct = new ConcurrentHashMap<>();
+    // held by writers only, so a put never races an invalidation of the same menu
+    private final Object writeLock = new Object();
+
+    @Value("${menus.cache.max-entries:5000}")
+    private int maxEntries;
+
+    public MenuApplicationServiceImpl(ProductService productService,
+                                      RestaurantService restaurantService,
+                                      ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.restaurantService = restaurantService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Optional<MenuSnapshotDto> findMenu(Long restaurantId) {
+        CachedMenu cached = cache.get(restaurantId);
+        if (cached != null) {
+            cached.lastServed = System.nanoTime();
+            return Optional.of(cached.snapshot);
+        }
+        long version = versions.getOrDefault(restaurantId, 0L);
+        if (restaurantService.findById(restaurantId).isEmpty()) {
+            return Optional.empty();
+        }
+        // built outside the lock; two threads missing on one menu both build it, which is harmless
+        MenuSnapshotDto snapshot = build(restaurantId, version);
+        synchronized (writeLock) {
+            if (versions.getOrDefault(restaurantId, 0L) == version) {
+                CachedMenu replaced = cache.put(restaurantId, new CachedMenu(snapshot));
+                if (replaced != null) {
+                    forgetProducts(replaced.snapshot);
+                }
+                for (long productId : snapshot.productIds()) {
+                    restaurantOfProduct.put(productId, restaurantId);
+                }
+                if (cache.size() > maxEntries) {
+                    evictLeastRecentlyServed();
+                }
+            }
+        }
+        return Optional.of(snapshot);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (writeLock) {
+            Long previous = restaurantOfProduct.get(event.productId());
+            if (previous != null) {
+                invalidate(previous);
+            }
+            if (event.restaurantId() != null && !event.restaurantId().equals(previous)) {
+                invalidate(event.restaurantId());
+            }
+        }
+    }
+
+    private void invalidate(Long restaurantId) {
+        versions.merge(restaurantId, 1L, Long::sum);
+        CachedMenu removed = cache.remove(restaurantId);
+        if (removed != null) {
+            forgetProducts(removed.snapshot);
+        }
+    }
+
+    // Drops the least recently served tenth at once, so the scan is paid once per many misses
+    private void evictLeastRecentlyServed() {
+        int keep = maxEntries - maxEntries / 10;
+        List<Map.Entry<Long, CachedMenu>> byLastServed = new ArrayList<>(cache.entrySet());
+        byLastServed.sort(Comparator.comparingLong(entry -> entry.getValue().lastServed));
+        for (int i = 0; i < byLastServed.size() - keep; i++) {
+            Map.Entry<Long, CachedMenu> eldest = byLastServed.get(i);
+            if (cache.remove(eldest.getKey(), eldest.getValue())) {
+                forgetProducts(eldest.getValue().snapshot);
+            }
+        }
+    }
+
+    private void forgetProducts(MenuSnapshotDto snapshot) {
+        for (long productId : snapshot.productIds()) {
+            restaurantOfProduct.remove(productId, snapshot.restaurantId());
+        }
+    }
+
+    private MenuSnapshotDto build(Long restaurantId, long version) {
+        List<Product> products = new ArrayList<>(productService.findByRestaurantId(restaurantId));
+        products.sort(MENU_ORDER);
+        List<MenuSectionDto> sections = new ArrayList<>();
+        List<MenuItemDto> items = null;
+        String current = null;
+        for (Product product : products) {
+            if (!category(product).equals(current)) {
+                current = category(product);
+                items = new ArrayList<>();
+                sections.add(new MenuSectionDto(current, items));
+            }
+            items.add(MenuItemDto.from(product));
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new MenuDto(restaurantId, sections));
+            long[] productIds = products.stream().mapToLong(Product::getId).toArray();
+            return new MenuSnapshotDto(restaurantId, version, etag(json), json, productIds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the menu of restaurant " + restaurantId, e);
+        }
+    }
+
+    private static String category(Product product) {
+        return product.getCategory() != null ? product.getCategory() : "";
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return '"' + HexFormat.of().formatHex(digest, 0, 12) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedMenu {
+        private final MenuSnapshotDto snapshot;
+        private volatile long lastServed = System.nanoTime();
+
+        private CachedMenu(MenuSnapshotDto snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
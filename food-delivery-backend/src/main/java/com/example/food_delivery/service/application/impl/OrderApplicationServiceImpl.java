@@ -1,21 +1,35 @@
 package com.example.food_delivery.service.application.impl;
 
 import com.example.food_delivery.dto.domain.AddressDto;
+import com.example.food_delivery.dto.domain.CartItemDeltaDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.OrderDto;
+import com.example.food_delivery.dto.domain.OrderTrackingDeltaDto;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.LocationPing;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.exceptions.InvalidCursorException;
+import com.example.food_delivery.model.exceptions.ProductNotFoundException;
 import com.example.food_delivery.model.mapper.BasicMappers;
 import com.example.food_delivery.repository.ProductRepository;
 import com.example.food_delivery.service.application.OrderApplicationService;
+import com.example.food_delivery.service.domain.CartStoreService;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.EtaService;
 import com.example.food_delivery.service.domain.OrderService;
 import com.example.food_delivery.service.domain.OrderTotalsService;
 import com.example.food_delivery.service.domain.ProductService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class OrderApplicationServiceImpl implements OrderApplicationService {
@@ -24,12 +38,18 @@ public class OrderApplicationServiceImpl implements OrderApplicationService {
     private final ProductService ProductDomain;
     private final OrderTotalsService totalsDomain;
     private final ProductRepository productRepository;
+    private final CartStoreService cartStore;
+    private final CourierLocationService courierLocationService;
+    private final EtaService etaService;
 
-    public OrderApplicationServiceImpl(OrderService orderDomain, ProductService productDomain, OrderTotalsService totalsDomain, ProductRepository productRepository) {
+    public OrderApplicationServiceImpl(OrderService orderDomain, ProductService productDomain, OrderTotalsService totalsDomain, ProductRepository productRepository, CartStoreService cartStore, CourierLocationService courierLocationService, EtaService etaService) {
         this.orderDomain = orderDomain;
         ProductDomain = productDomain;
         this.totalsDomain = totalsDomain;
         this.productRepository = productRepository;
+        this.cartStore = cartStore;
+        this.courierLocationService = courierLocationService;
+        this.etaService = etaService;
     }
 
     @Override
@@ -42,46 +62,110 @@ public class OrderApplicationServiceImpl implements OrderApplicationService {
         return orderDomain.findConfirmed().stream().map(BasicMappers::toDto).toList();
     }
 
+    @Override
+    public CursorPageDto<OrderDto> findConfirmedPage(String after, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        Instant afterPlacedAt = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            // cursor is "<placedAt>_<id>" of the last order on the previous page, "_<id>" when it had no placedAt
+            try {
+                int split = after.lastIndexOf('_');
+                String placedAt = after.substring(0, split);
+                afterPlacedAt = placedAt.isEmpty() ? null : Instant.parse(placedAt);
+                afterId = Long.parseLong(after.substring(split + 1));
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(after);
+            }
+        }
+        List<OrderDto> items = orderDomain.findConfirmedPage(afterPlacedAt, afterId, size).stream()
+                .map(BasicMappers::toDto)
+                .toList();
+        return CursorPageDto.of(items, size, o -> (o.getPlacedAt() != null ? o.getPlacedAt().toString() : "") + "_" + o.getId());
+    }
+
+    @Override
+    public void streamConfirmed(Consumer<OrderDto> sink) {
+        orderDomain.forEachConfirmed(order -> sink.accept(BasicMappers.toDto(order)));
+    }
+
     @Override
     public Optional<OrderDto> findById(Long id) {
-        return orderDomain.findById(id).map(BasicMappers::toDto);
+        return orderDomain.findById(id).map(this::toTrackedDto);
+    }
+
+    @Override
+    public Optional<OrderTrackingDeltaDto> findTrackingSnapshot(Long id, String username) {
+        return orderDomain.findById(id)
+                .filter(order -> order.getUser().getUsername().equals(username))
+                .map(order -> {
+                    Courier courier = order.getCourier();
+                    Optional<LocationPing> at = courier != null ? courierLocationService.latest(courier.getId()) : Optional.empty();
+                    return new OrderTrackingDeltaDto(
+                            order.getId(),
+                            order.getStatus(),
+                            courier != null ? courier.getId() : null,
+                            courier != null ? courier.getName() : null,
+                            at.map(LocationPing::lat).orElse(null),
+                            at.map(LocationPing::lng).orElse(null),
+                            etaService.estimateDeliveryAt(order).orElse(null),
+                            Instant.now());
+                });
     }
 
     @Override
     public OrderDto getCart(String username) {
-        Order cart = orderDomain.findOrCreatePending(username);
-        return BasicMappers.toDto(cart);
+        return cartStore.read(username, BasicMappers::toDto);
     }
 
     @Override
-    @Transactional
     public OrderDto addProductToCart(String username, Long ProductId) {
-        Order cart = orderDomain.findOrCreatePending(username);
-        Product product = productRepository.findById(ProductId).orElseThrow();
-        Order updated = ProductDomain.addToOrder(product, cart);
-        return BasicMappers.toDto(updated);
+        return cartStore.update(username, cart -> {
+            Product product = productRepository.findById(ProductId).orElseThrow();
+            return BasicMappers.toDto(ProductDomain.addToOrder(product, cart));
+        });
     }
 
     @Override
-    @Transactional
     public OrderDto removeProductFromCart(String username, Long ProductId) {
-        Order cart = orderDomain.findOrCreatePending(username);
-        Product Product = productRepository.findById(ProductId).orElseThrow();
-        Order updated = ProductDomain.removeFromOrder(Product, cart);
-        return BasicMappers.toDto(updated);
+        return cartStore.update(username, cart -> {
+            Product Product = productRepository.findById(ProductId).orElseThrow();
+            return BasicMappers.toDto(ProductDomain.removeFromOrder(Product, cart));
+        });
+    }
+
+    @Override
+    public OrderDto updateCart(String username, List<CartItemDeltaDto> deltas) {
+        Map<Long, Integer> deltaByProductId = new HashMap<>();
+        for (CartItemDeltaDto d : deltas) {
+            if (d.productId() != null && d.delta() != null) {
+                deltaByProductId.merge(d.productId(), d.delta(), Integer::sum);
+            }
+        }
+
+        return cartStore.update(username, cart -> {
+            Map<Product, Integer> quantityDeltas = new HashMap<>();
+            for (Product product : productRepository.findAllById(deltaByProductId.keySet())) {
+                quantityDeltas.put(product, deltaByProductId.remove(product.getId()));
+            }
+            if (!deltaByProductId.isEmpty()) {
+                throw new ProductNotFoundException(deltaByProductId.keySet().iterator().next());
+            }
+            return BasicMappers.toDto(ProductDomain.updateOrderItems(cart, quantityDeltas));
+        });
     }
 
     @Override
     @Transactional
     public Optional<OrderDto> confirm(String username) {
-        Order updated = orderDomain.confirm(username).orElseThrow();
+        Order updated = cartStore.checkout(username, () -> orderDomain.confirm(username)).orElseThrow();
         return Optional.of(BasicMappers.toDto(updated));
     }
 
     @Override
     @Transactional
     public Optional<OrderDto> cancel(String username) {
-        Order updated = orderDomain.cancel(username).orElseThrow();
+        Order updated = cartStore.checkout(username, () -> orderDomain.cancel(username)).orElseThrow();
         return Optional.of(BasicMappers.toDto(updated));
     }
 
@@ -92,31 +176,35 @@ public class OrderApplicationServiceImpl implements OrderApplicationService {
 
     @Override
     public List<OrderDto> findConfirmedOrdersForCustomer(String username) {
-        return orderDomain.findConfirmedOrdersForCustomer(username).stream().map(BasicMappers::toDto).toList();
+        return orderDomain.findConfirmedOrdersForCustomer(username).stream().map(this::toTrackedDto).toList();
+    }
+
+    private OrderDto toTrackedDto(Order order) {
+        OrderDto dto = BasicMappers.toDto(order);
+        dto.setEstimatedDeliveryAt(etaService.estimateDeliveryAt(order).orElse(null));
+        return dto;
     }
 
     @Override
-//    @Transactional
     public OrderDto setDeliveryAddress(Long id, AddressDto address) {
-        Order cart = orderDomain.findById(id).orElseThrow();
-//        // Re-apply fee rules now that address may affect zones later (stub keeps same rule)
-        cart=orderDomain.updateAddress(id,BasicMappers.fromDto(address)).orElseThrow();
-////        totalsDomain.setFeesAndRecalculate(cart, cart.getRestaurant());
+        // the address is written straight to the row, so bring the row up to date first
+        cartStore.evict(id);
+        // fees are recalculated for the new address in the same save
+        Order cart = orderDomain.updateAddress(id, BasicMappers.fromDto(address)).orElseThrow();
         return BasicMappers.toDto(cart);
-
     }
 
     @Override
-    @Transactional
     public OrderDto applyDiscount(String username, Double discountAmount) {
-        Order cart = orderDomain.findOrCreatePending(username);
-        cart.setDiscount(discountAmount == null ? 0.0 : Math.max(0.0, discountAmount));
-        totalsDomain.setFeesAndRecalculate(cart, cart.getRestaurant());
-        return BasicMappers.toDto(cart);
+        return cartStore.update(username, cart -> {
+            cart.setDiscount(discountAmount == null ? 0.0 : Math.max(0.0, discountAmount));
+            totalsDomain.setFeesAndRecalculate(cart, cart.getRestaurant());
+            return BasicMappers.toDto(cart);
+        });
     }
 
     @Override
     public DisplayOrderDto findOrCreatePending(String username) {
-        return DisplayOrderDto.from(orderDomain.findOrCreatePending(username));
+        return cartStore.read(username, DisplayOrderDto::from);
     }
 }
@@ -7,6 +7,7 @@ import com.example.food_delivery.model.mapper.BasicMappers;
 import com.example.food_delivery.repository.OrderRepository;
 import com.example.food_delivery.repository.PaymentRepository;
 import com.example.food_delivery.service.application.PaymentApplicationService;
+import com.example.food_delivery.service.domain.CartStoreService;
 import com.example.food_delivery.service.domain.PaymentService;
 import org.springframework.stereotype.Service;
 import com.stripe.Stripe;
@@ -18,17 +19,22 @@ public class PaymentApplicationServiceImpl implements PaymentApplicationService
     private final PaymentService paymentService;
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final CartStoreService cartStore;
 
     public PaymentApplicationServiceImpl(PaymentService paymentService,
                                          PaymentRepository paymentRepository,
-                                         OrderRepository orderRepository) {
+                                         OrderRepository orderRepository,
+                                         CartStoreService cartStore) {
         this.paymentService = paymentService;
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.cartStore = cartStore;
     }
 
     @Override
     public PaymentDto createIntent(Long orderId) {
+        // charge what the cart holds now, not the last write-back
+        cartStore.evict(orderId);
         Order order = orderRepository.findById(orderId).orElseThrow();
         Payment p = paymentService.createOrUpdateIntent(order);
         PaymentDto dto = BasicMappers.toDto(p);
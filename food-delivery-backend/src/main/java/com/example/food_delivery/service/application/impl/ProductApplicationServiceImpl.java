@@ -1,35 +1,39 @@
 package com.example.food_delivery.service.application.impl;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateProductDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.DisplayProductDetailsDto;
 import com.example.food_delivery.dto.domain.DisplayProductDto;
-import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.ProductFilter;
 import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.enums.ProductSort;
 import com.example.food_delivery.model.exceptions.ProductNotFoundException;
 import com.example.food_delivery.model.exceptions.RestaurantNotFoundException;
 import com.example.food_delivery.service.application.ProductApplicationService;
-import com.example.food_delivery.service.domain.OrderService;
+import com.example.food_delivery.service.domain.CartStoreService;
 import com.example.food_delivery.service.domain.ProductService;
 import com.example.food_delivery.service.domain.RestaurantService;
-import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class ProductApplicationServiceImpl implements ProductApplicationService {
 
     private final ProductService productService;
     private final RestaurantService restaurantService;
-    private final OrderService orderService;
+    private final CartStoreService cartStore;
 
-    public ProductApplicationServiceImpl(ProductService productService, RestaurantService restaurantService, OrderService orderService) {
+    public ProductApplicationServiceImpl(ProductService productService, RestaurantService restaurantService, CartStoreService cartStore) {
         this.productService = productService;
         this.restaurantService = restaurantService;
-        this.orderService = orderService;
+        this.cartStore = cartStore;
     }
 
     @Override
@@ -37,6 +41,21 @@ public class ProductApplicationServiceImpl implements ProductApplicationService
         return DisplayProductDto.from(productService.findAll());
     }
 
+    @Override
+    public CursorPageDto<DisplayProductDto> findPage(ProductFilter filter, ProductSort sort, String after, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        List<DisplayProductDto> items = DisplayProductDto.from(
+                productService.findPage(filter, sort, CursorPageDto.parseAnchor(after), size));
+        return CursorPageDto.of(items, size, p -> sort == ProductSort.ID
+                ? String.valueOf(p.id())
+                : CursorPageDto.anchorCursor(p.price(), p.id()));
+    }
+
+    @Override
+    public void streamAll(Consumer<DisplayProductDto> sink) {
+        productService.forEach(product -> sink.accept(DisplayProductDto.from(product)));
+    }
+
     @Override
     public Optional<DisplayProductDto> findById(Long id) {
         return productService
@@ -51,6 +70,11 @@ public class ProductApplicationServiceImpl implements ProductApplicationService
                 .map(DisplayProductDetailsDto::from);
     }
 
+    @Override
+    public Map<String, CacheStatsDto> cacheStats() {
+        return CacheStatsDto.from(productService.cacheStats());
+    }
+
     @Override
     public DisplayProductDto save(CreateProductDto createProductDto) {
         Restaurant restaurant = restaurantService
@@ -76,25 +100,23 @@ public class ProductApplicationServiceImpl implements ProductApplicationService
                 .map(DisplayProductDto::from);
     }
 
-    @Transactional
     @Override
     public DisplayOrderDto addToOrder(Long id, String username) {
-        Product Product = productService
-                .findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
-        Order order = orderService
-                .findOrCreatePending(username);
-        return DisplayOrderDto.from(productService.addToOrder(Product, order));
+        return cartStore.update(username, order -> {
+            Product Product = productService
+                    .findById(id)
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            return DisplayOrderDto.from(productService.addToOrder(Product, order));
+        });
     }
-    @Transactional
     @Override
     public DisplayOrderDto removeFromOrder(Long id, String username) {
-        Product Product = productService
-                .findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
-        Order order = orderService
-                .findOrCreatePending(username);
-        return DisplayOrderDto.from(productService.removeFromOrder(Product, order));
+        return cartStore.update(username, order -> {
+            Product Product = productService
+                    .findById(id)
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            return DisplayOrderDto.from(productService.removeFromOrder(Product, order));
+        });
     }
 
 }
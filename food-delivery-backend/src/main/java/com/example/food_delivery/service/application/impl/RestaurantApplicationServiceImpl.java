@@ -1,52 +1,139 @@
 package com.example.food_delivery.service.application.impl;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateRestaurantDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayRestaurantDto;
+import com.example.food_delivery.dto.domain.NearbyRestaurantDto;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.domain.RestaurantMatch;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
+import com.example.food_delivery.model.enums.RestaurantSort;
+import com.example.food_delivery.model.exceptions.InvalidCoordinatesException;
 import com.example.food_delivery.service.application.RestaurantApplicationService;
+import com.example.food_delivery.service.domain.EtaService;
+import com.example.food_delivery.service.domain.RestaurantLocatorService;
 import com.example.food_delivery.service.domain.RestaurantService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RestaurantApplicationServiceImpl implements RestaurantApplicationService {
 
     private final RestaurantService restaurantService;
+    private final EtaService etaService;
+    private final RestaurantLocatorService restaurantLocatorService;
 
-    public RestaurantApplicationServiceImpl(RestaurantService restaurantService) {
+    // Upper bound on restaurants considered per lookup, nearest first, before sorting by eta or rating
+    @Value("${restaurants.nearby.max-results:200}")
+    private int maxNearbyResults;
+
+    public RestaurantApplicationServiceImpl(RestaurantService restaurantService,
+                                            EtaService etaService,
+                                            RestaurantLocatorService restaurantLocatorService) {
         this.restaurantService = restaurantService;
+        this.etaService = etaService;
+        this.restaurantLocatorService = restaurantLocatorService;
     }
 
     @Override
     public List<DisplayRestaurantDto> findAll() {
-        return DisplayRestaurantDto.from(restaurantService.findAll());
+        return toDtos(restaurantService.findAll());
+    }
+
+    @Override
+    public CursorPageDto<DisplayRestaurantDto> findPage(RestaurantFilter filter, RestaurantListingSort sort, String after, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        List<DisplayRestaurantDto> items = toDtos(
+                restaurantService.findPage(filter, sort, CursorPageDto.parseAnchor(after), size));
+        return CursorPageDto.of(items, size, r -> switch (sort) {
+            case ID -> String.valueOf(r.id());
+            case RATING -> CursorPageDto.anchorCursor(r.averageRating(), r.id());
+            case ETA -> CursorPageDto.anchorCursor(r.deliveryTimeEstimate(), r.id());
+        });
+    }
+
+    @Override
+    public void streamAll(Consumer<DisplayRestaurantDto> sink) {
+        restaurantService.forEach(restaurant -> sink.accept(toDto(restaurant)));
     }
 
     @Override
     public Optional<DisplayRestaurantDto> findById(Long id) {
         return restaurantService
                 .findById(id)
-                .map(DisplayRestaurantDto::from);
+                .map(this::toDto);
+    }
+
+    @Override
+    public Map<String, CacheStatsDto> cacheStats() {
+        return CacheStatsDto.from(restaurantService.cacheStats());
+    }
+
+    @Override
+    public List<NearbyRestaurantDto> findDeliveringTo(double lat, double lng, RestaurantSort sort, int limit) {
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)) {
+            throw new InvalidCoordinatesException(lat, lng);
+        }
+        List<RestaurantMatch> matches = restaurantLocatorService.deliveringTo(lat, lng, maxNearbyResults);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Restaurant> restaurants = restaurantService
+                .findAllById(matches.stream().map(RestaurantMatch::restaurantId).toList()).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+
+        Comparator<NearbyRestaurantDto> byDistance = Comparator.comparingDouble(NearbyRestaurantDto::distanceKm);
+        Comparator<NearbyRestaurantDto> order = switch (sort) {
+            case DISTANCE -> byDistance;
+            case ETA -> Comparator.comparing((NearbyRestaurantDto r) -> r.restaurant().etaMinutes(),
+                    Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(byDistance);
+            case RATING -> Comparator.comparing((NearbyRestaurantDto r) -> r.restaurant().averageRating(),
+                    Comparator.nullsLast(Comparator.reverseOrder())).thenComparing(byDistance);
+        };
+        return matches.stream()
+                .filter(match -> restaurants.containsKey(match.restaurantId()))
+                .map(match -> new NearbyRestaurantDto(toDto(restaurants.get(match.restaurantId())),
+                        match.distanceKm(), match.zone().fee()))
+                .sorted(order)
+                .limit(CursorPageDto.clampLimit(limit))
+                .toList();
     }
 
     @Override
     public DisplayRestaurantDto save(CreateRestaurantDto createRestaurantDto) {
-        return DisplayRestaurantDto.from(restaurantService.save(createRestaurantDto.toRestaurant()));
+        return toDto(restaurantService.save(createRestaurantDto.toRestaurant()));
     }
 
     @Override
     public Optional<DisplayRestaurantDto> update(Long id, CreateRestaurantDto createRestaurantDto) {
         return restaurantService
                 .update(id, createRestaurantDto.toRestaurant())
-                .map(DisplayRestaurantDto::from);
+                .map(this::toDto);
     }
 
     @Override
     public Optional<DisplayRestaurantDto> deleteById(Long id) {
         return restaurantService
                 .deleteById(id)
-                .map(DisplayRestaurantDto::from);
+                .map(this::toDto);
+    }
+
+    // ETAs come from in-memory statistics, so listings stay a single restaurant query
+    private DisplayRestaurantDto toDto(Restaurant restaurant) {
+        return DisplayRestaurantDto.from(restaurant, etaService.estimateMinutes(restaurant));
     }
 
+    private List<DisplayRestaurantDto> toDtos(List<Restaurant> restaurants) {
+        return restaurants.stream().map(this::toDto).toList();
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.food_delivery.service.application.impl;
+
+import com.example.food_delivery.dto.domain.CursorPageDto;
+import com.example.food_delivery.dto.domain.DisplayProductDto;
+import com.example.food_delivery.dto.domain.DisplayRestaurantDto;
+import com.example.food_delivery.dto.domain.SearchResultsDto;
+import com.example.food_delivery.dto.domain.SearchSuggestionDto;
+import com.example.food_delivery.helpers.SearchIndex;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.service.application.SearchApplicationService;
+import com.example.food_delivery.service.domain.EtaService;
+import com.example.food_delivery.service.domain.ProductService;
+import com.example.food_delivery.service.domain.RestaurantService;
+import com.example.food_delivery.service.domain.SearchService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SearchApplicationServiceImpl implements SearchApplicationService {
+
+    private final SearchService searchService;
+    private final ProductService productService;
+    private final RestaurantService restaurantService;
+    private final EtaService etaService;
+
+    public SearchApplicationServiceImpl(SearchService searchService,
+                                        ProductService productService,
+                                        RestaurantService restaurantService,
+                                        EtaService etaService) {
+        this.searchService = searchService;
+        this.productService = productService;
+        this.restaurantService = restaurantService;
+        this.etaService = etaService;
+    }
+
+    @Override
+    public SearchResultsDto search(String query, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        List<Long> restaurantIds = ids(searchService.searchRestaurants(query, size));
+        List<Long> productIds = ids(searchService.searchProducts(query, size));
+
+        // one query per kind, then back into rank order; ids deleted since they were indexed drop out
+        Map<Long, Restaurant> restaurants = restaurantService.findAllById(restaurantIds).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        Map<Long, Product> products = productService.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return new SearchResultsDto(
+                restaurantIds.stream().filter(restaurants::containsKey)
+                        .map(id -> DisplayRestaurantDto.from(restaurants.get(id), etaService.estimateMinutes(restaurants.get(id))))
+                        .toList(),
+                productIds.stream().filter(products::containsKey)
+                        .map(id -> DisplayProductDto.from(products.get(id)))
+                        .toList()
+        );
+    }
+
+    // Served from the index alone, no database round trip per keystroke
+    @Override
+    public List<SearchSuggestionDto> autocomplete(String input, int limit) {
+        int size = CursorPageDto.clampLimit(limit);
+        List<Suggestion> merged = new ArrayList<>();
+        for (SearchIndex.Hit hit : searchService.completeRestaurants(input, size)) {
+            merged.add(new Suggestion("restaurant", hit));
+        }
+        for (SearchIndex.Hit hit : searchService.completeProducts(input, size)) {
+            merged.add(new Suggestion("product", hit));
+        }
+        return merged.stream()
+                .sorted(Comparator.comparingDouble((Suggestion s) -> s.hit().score()).reversed())
+                .limit(size)
+                .map(s -> new SearchSuggestionDto(s.type(), s.hit().key(), s.hit().label()))
+                .toList();
+    }
+
+    private static List<Long> ids(List<SearchIndex.Hit> hits) {
+        return hits.stream().map(SearchIndex.Hit::key).toList();
+    }
+
+    private record Suggestion(String type, SearchIndex.Hit hit) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Order;
+
+public interface CartReservationService {
+    /**
+     * Pushes the expiry of a pending cart forward; called on every cart mutation.
+     */
+    void extend(Order order);
+
+    /**
+     * Returns the stock held by abandoned pending carts and marks them EXPIRED.
+     * @return number of carts that were expired
+     */
+    int expireStaleCarts();
+}
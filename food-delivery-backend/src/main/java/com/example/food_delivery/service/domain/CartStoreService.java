@@ -0,0 +1,35 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Order;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps each user's pending cart in memory and writes it back to the database later.
+ * The Order handed to readers and mutations is a detached copy, never a managed entity.
+ */
+public interface CartStoreService {
+
+    <T> T read(String username, Function<Order, T> reader);
+
+    /**
+     * Applies a change to a copy of the cart and publishes it only if the change succeeds.
+     */
+    <T> T update(String username, Function<Order, T> change);
+
+    /**
+     * Writes the cart back and runs the action while no other cart operation for the user can interleave.
+     */
+    <T> T checkout(String username, Supplier<T> action);
+
+    void evict(String username);
+
+    void evict(Long orderId);
+
+    /**
+     * Writes back dirty carts and drops idle ones.
+     * @return number of carts written
+     */
+    int flush();
+}
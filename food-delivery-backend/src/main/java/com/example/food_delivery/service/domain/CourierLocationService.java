@@ -0,0 +1,33 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.LocationPing;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CourierLocationService {
+    /**
+     * Takes a batch of fixes from the courier app into memory only.
+     * @return number of fixes accepted; invalid, late and duplicate ones are dropped
+     */
+    int record(Long courierId, List<LocationPing> pings);
+
+    Optional<LocationPing> latest(Long courierId);
+
+    /**
+     * The recent fixes held in memory, oldest first.
+     */
+    List<LocationPing> recentTrail(Long courierId);
+
+    /**
+     * Couriers whose last fix is within {@code maxKm} of the point, nearest first.
+     */
+    List<Long> nearestCouriers(double lat, double lng, int limit, double maxKm);
+
+    /**
+     * Writes a downsampled trail and the latest position of every courier that moved since the last run,
+     * and forgets couriers that stopped reporting.
+     * @return number of trail points written
+     */
+    int persist();
+}
@@ -17,6 +17,7 @@ public interface CourierService {
     Optional<Courier> deleteById(Long id);
     Optional<Courier> findByUsername(String username);
     Order assignToOrder(String courierUsername, Long orderId);
+    Order collectOrder(String courierUsername, Long orderId);
     Order completeDelivery(String courierUsername, Long orderId);
     List<Courier> findAvailable();
     List<Order> findDeliveredOrders(String courierUsername);
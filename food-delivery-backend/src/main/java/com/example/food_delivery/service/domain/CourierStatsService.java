@@ -0,0 +1,32 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.CourierStats;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+
+import java.util.List;
+
+public interface CourierStatsService {
+    /**
+     * Adds one delivery to the courier's totals, inside the transaction that completed it.
+     */
+    void recordDelivery(OrderDeliveredEvent event);
+
+    /**
+     * The courier's totals; all zero before their first delivery.
+     */
+    CourierStats findByCourierId(Long courierId);
+
+    /**
+     * One keyset page of delivered orders, newest first.
+     * @param beforeId id of the last order on the previous page, or null for the first page
+     */
+    List<Order> findHistoryPage(Long courierId, Long beforeId, int limit);
+
+    /**
+     * Builds the totals of couriers that delivered before stats were kept, from their delivered orders.
+     * Deliveries made while it runs are left to {@link #recordDelivery}; its totals are added to theirs.
+     * @return number of couriers backfilled
+     */
+    int backfill();
+}
@@ -0,0 +1,39 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.model.events.DeliveryZoneChangedEvent;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DeliveryZoneService {
+    /**
+     * Zones of the restaurant that contain the point, cheapest first.
+     */
+    List<ZoneArea> zonesContaining(Long restaurantId, double lat, double lng);
+
+    /**
+     * Zones of every restaurant that contain the point, cheapest first.
+     */
+    List<ZoneArea> zonesAt(double lat, double lng);
+
+    /**
+     * All zones of the restaurant, in id order.
+     */
+    List<ZoneArea> zonesOf(Long restaurantId);
+
+    /**
+     * The zone whose fee applies to a drop-off: the cheapest one containing it, or the restaurant's
+     * first zone while the drop-off is not located or lies outside all of them.
+     */
+    Optional<ZoneArea> resolve(Long restaurantId, Coordinates dropOff);
+
+    void zoneChanged(DeliveryZoneChangedEvent event);
+
+    /**
+     * Reloads every zone from the database.
+     * @return number of zones indexed
+     */
+    int rebuild();
+}
@@ -0,0 +1,28 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.events.CourierAvailableEvent;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+
+import java.util.List;
+
+public interface DispatchService {
+    /**
+     * Matches queued orders to idle couriers by pickup distance and waiting time and claims each pair.
+     * @return number of orders assigned
+     */
+    int dispatchRound();
+
+    /**
+     * Reloads the unassigned order queue and the idle courier pool from the database.
+     */
+    void resync();
+
+    /**
+     * Couriers currently waiting for an order, as held in memory.
+     */
+    List<Long> idleCourierIds();
+
+    void enqueue(OrderConfirmedEvent event);
+
+    void courierAvailable(CourierAvailableEvent event);
+}
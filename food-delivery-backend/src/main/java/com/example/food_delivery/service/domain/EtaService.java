@@ -0,0 +1,30 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface EtaService {
+    /**
+     * Expected minutes from checkout to the door for an order placed now, from memory only.
+     * Falls back to the restaurant's static estimate until enough deliveries were seen.
+     */
+    int estimateMinutes(Restaurant restaurant);
+
+    /**
+     * When an active order is expected at the door; the delivery time for a delivered one.
+     * Empty for carts and cancelled or expired orders.
+     */
+    Optional<Instant> estimateDeliveryAt(Order order);
+
+    void recordDelivery(OrderDeliveredEvent event);
+
+    /**
+     * Rebuilds the statistics from the deliveries of the last {@code eta.warmup-days} days.
+     * @return number of deliveries read
+     */
+    int reload();
+}
@@ -0,0 +1,14 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+
+import java.util.Optional;
+
+/**
+ * Turns a postal address into a point. Implementations may be slow or remote; callers go through
+ * {@link GeocodingService}, which caches the answers.
+ */
+public interface Geocoder {
+    Optional<Coordinates> geocode(Address address);
+}
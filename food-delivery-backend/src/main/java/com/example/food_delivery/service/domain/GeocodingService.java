@@ -0,0 +1,20 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+
+import java.util.Optional;
+
+public interface GeocodingService {
+    /**
+     * Coordinates of the address, answered from the cache when the same normalized address was seen before.
+     * Empty when the geocoder does not know it.
+     */
+    Optional<Coordinates> locate(Address address);
+
+    /**
+     * Fills in the coordinates of an address that has none.
+     * @return whether the address now has coordinates
+     */
+    boolean locateIfMissing(Address address);
+}
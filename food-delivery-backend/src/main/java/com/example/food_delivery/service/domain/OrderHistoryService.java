@@ -0,0 +1,16 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+
+public interface OrderHistoryService {
+    /**
+     * Queues one UserOrderHistory row per line of the confirmed order; never blocks the caller.
+     */
+    void record(OrderConfirmedEvent event);
+
+    /**
+     * Writes queued rows with batched inserts.
+     * @return number of rows written
+     */
+    int flush();
+}
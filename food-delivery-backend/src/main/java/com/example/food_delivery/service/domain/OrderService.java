@@ -3,8 +3,10 @@ package com.example.food_delivery.service.domain;
 import com.example.food_delivery.model.domain.Address;
 import com.example.food_delivery.model.domain.Order;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderService {
     List<Order> findAll();
@@ -20,6 +22,16 @@ public interface OrderService {
 
     List<Order> findConfirmed();
 
+    /**
+     * Keyset page of confirmed orders ordered by (placedAt, id); pass nulls for the first page.
+     */
+    List<Order> findConfirmedPage(Instant afterPlacedAt, Long afterId, int limit);
+
+    /**
+     * Hands out every confirmed order in keyset batches, detaching each batch afterwards.
+     */
+    void forEachConfirmed(Consumer<Order> action);
+
     List<Order> findOrdersForCourier(String username);
     List<Order> findConfirmedOrdersForCustomer(String username);
     Optional<Order> updateAddress(Long id, Address deliveryAddress);
@@ -1,23 +1,59 @@
 package com.example.food_delivery.service.domain;
 
+import com.example.food_delivery.helpers.TtlCache;
 import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.PageAnchor;
 import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.ProductFilter;
+import com.example.food_delivery.model.enums.ProductSort;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
     List<Product> findAll();
 
     Optional<Product> findById(Long id);
 
+    /**
+     * Counters of the product, full-catalog and stock cache tiers, by tier name.
+     */
+    Map<String, TtlCache.Stats> cacheStats();
+
+    /**
+     * One keyset page of the products matching the filter, after the anchor row in the given order.
+     */
+    List<Product> findPage(ProductFilter filter, ProductSort sort, PageAnchor after, int limit);
+
+    List<Product> findAllById(Collection<Long> ids);
+
+    List<Product> findByRestaurantId(Long restaurantId);
+
+    /**
+     * Scrolls the whole catalog in id order without materializing it.
+     */
+    void forEach(Consumer<Product> action);
+
     Product save(Product menuItem);
 
     Optional<Product> update(Long id, Product menuItem);
 
     Optional<Product> deleteById(Long id);
 
+    /**
+     * Cart mutations reserve or release stock right away but only change the given order;
+     * persisting it is up to the caller (see CartStoreService).
+     */
     Order addToOrder(Product Product, Order order);
 
     Order removeFromOrder(Product Product, Order order);
+
+    /**
+     * Applies several quantity changes to a cart at once (positive adds, negative removes)
+     * with a single totals and fee recalculation.
+     */
+    Order updateOrderItems(Order order, Map<Product, Integer> quantityDeltas);
 }
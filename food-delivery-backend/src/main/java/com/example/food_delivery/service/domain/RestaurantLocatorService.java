@@ -0,0 +1,18 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.RestaurantMatch;
+
+import java.util.List;
+
+public interface RestaurantLocatorService {
+    /**
+     * Restaurants with a delivery zone covering the point, nearest first, at most {@code limit}.
+     */
+    List<RestaurantMatch> deliveringTo(double lat, double lng, int limit);
+
+    /**
+     * Rebuilds the coordinate arrays from the restaurants table and the zone index.
+     * @return number of restaurants that deliver anywhere
+     */
+    int rebuild();
+}
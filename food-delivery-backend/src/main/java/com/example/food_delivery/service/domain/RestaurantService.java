@@ -1,15 +1,39 @@
 package com.example.food_delivery.service.domain;
 
+import com.example.food_delivery.helpers.TtlCache;
+import com.example.food_delivery.model.domain.PageAnchor;
 import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface RestaurantService {
     List<Restaurant> findAll();
 
     Optional<Restaurant> findById(Long id);
 
+    /**
+     * Counters of the restaurant and full-list cache tiers, by tier name.
+     */
+    Map<String, TtlCache.Stats> cacheStats();
+
+    /**
+     * One keyset page of the restaurants matching the filter, after the anchor row in the given order.
+     */
+    List<Restaurant> findPage(RestaurantFilter filter, RestaurantListingSort sort, PageAnchor after, int limit);
+
+    List<Restaurant> findAllById(Collection<Long> ids);
+
+    /**
+     * Scrolls all restaurants in id order without materializing them.
+     */
+    void forEach(Consumer<Restaurant> action);
+
     Restaurant save(Restaurant restaurant);
 
     Optional<Restaurant> update(Long id, Restaurant restaurant);
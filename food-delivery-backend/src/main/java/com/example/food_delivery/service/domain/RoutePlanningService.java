@@ -0,0 +1,13 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.RouteStop;
+
+import java.util.List;
+
+public interface RoutePlanningService {
+    /**
+     * Pickups and drop-offs of the courier's undelivered orders in the order to visit them,
+     * starting from the courier's last known position.
+     */
+    List<RouteStop> planRoute(String courierUsername);
+}
@@ -0,0 +1,40 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.helpers.SearchIndex;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+
+import java.util.List;
+
+public interface SearchService {
+    /**
+     * Products ranked by BM25 over their name, category, description and their restaurant's name and category.
+     */
+    List<SearchIndex.Hit> searchProducts(String query, int limit);
+
+    List<SearchIndex.Hit> searchRestaurants(String query, int limit);
+
+    /**
+     * Search-as-you-type over products; the last word of the input may be unfinished.
+     */
+    List<SearchIndex.Hit> completeProducts(String input, int limit);
+
+    List<SearchIndex.Hit> completeRestaurants(String input, int limit);
+
+    void productSaved(Product product);
+
+    void productDeleted(Long productId);
+
+    /**
+     * Re-indexes the restaurant and, since they carry its name and category, all of its products.
+     */
+    void restaurantSaved(Restaurant restaurant);
+
+    void restaurantDeleted(Long restaurantId);
+
+    /**
+     * Builds both indexes again from the database.
+     * @return number of products indexed
+     */
+    int rebuild();
+}
@@ -0,0 +1,15 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.domain.StockReservation;
+
+import java.util.Optional;
+
+public interface StockReservationService {
+    /**
+     * Atomically takes the given amount out of the product's stock.
+     * @return the reservation, or empty when there is not enough stock left
+     */
+    Optional<StockReservation> reserve(Long productId, int quantity);
+
+    void release(StockReservation reservation);
+}
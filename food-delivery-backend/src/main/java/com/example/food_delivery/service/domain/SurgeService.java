@@ -0,0 +1,19 @@
+package com.example.food_delivery.service.domain;
+
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+
+public interface SurgeService {
+    /**
+     * Delivery fee multiplier of the zone as of the last tick, 1 when it is calm.
+     * Constant time and memory only, for the checkout path.
+     */
+    double multiplier(Long zoneId);
+
+    void orderConfirmed(OrderConfirmedEvent event);
+
+    /**
+     * Samples the idle couriers of every zone and recomputes all multipliers from the sliding windows.
+     * @return number of zones currently surging
+     */
+    int tick();
+}
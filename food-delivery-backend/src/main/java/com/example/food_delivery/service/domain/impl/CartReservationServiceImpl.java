@@ -0,0 +1,82 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.StockReservation;
+import com.example.food_delivery.repository.OrderItemRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class CartReservationServiceImpl implements CartReservationService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final StockReservationService stockReservationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.reservation.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${cart.reservation.sweep-batch-size:200}")
+    private int batchSize;
+
+    public CartReservationServiceImpl(OrderRepository orderRepository,
+                                      OrderItemRepository orderItemRepository,
+                                      StockReservationService stockReservationService,
+                                      TransactionTemplate transactionTemplate) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.stockReservationService = stockReservationService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void extend(Order order) {
+        order.extendReservation(Duration.ofMinutes(ttlMinutes));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${cart.reservation.sweep-interval-ms:60000}")
+    public int expireStaleCarts() {
+        Instant now = Instant.now();
+        int expired = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = orderRepository.findExpiredPendingIds(now, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            // one short transaction per page so checkouts are never blocked for long
+            Integer count = transactionTemplate.execute(status -> expireBatch(ids, now));
+            expired += count != null ? count : 0;
+            if (ids.size() < batchSize) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        return expired;
+    }
+
+    private int expireBatch(List<Long> ids, Instant now) {
+        List<Long> locked = orderRepository.lockExpiredPending(ids, now).stream()
+                .map(Order::getId)
+                .toList();
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        for (Object[] row : orderItemRepository.sumQuantitiesByProduct(locked)) {
+            stockReservationService.release(new StockReservation((Long) row[0], ((Number) row[1]).intValue()));
+        }
+        return orderRepository.markExpired(locked);
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.StockReservation;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.exceptions.ProductOutOfStockException;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.CartStoreService;
+import com.example.food_delivery.service.domain.OrderService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+public class CartStoreServiceImpl implements CartStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStoreServiceImpl.class);
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final StockReservationService stockReservationService;
+    private final OrderTotalsService orderTotalsService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CartEntry> carts = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernamesByOrder = new ConcurrentHashMap<>();
+    // One lock per user with an operation in flight, so it survives the cart being evicted and reloaded
+    // while a user waiting on the database never holds up anyone else
+    private final Map<String, UserLock> locks = new ConcurrentHashMap<>();
+
+    @Value("${cart.store.max-carts:10000}")
+    private int maxCarts;
+
+    @Value("${cart.store.idle-minutes:10}")
+    private long idleMinutes;
+
+    @Value("${orders.legacy-products.dual-write:false}")
+    private boolean legacyProductsDualWrite;
+
+    public CartStoreServiceImpl(OrderService orderService,
+                                OrderRepository orderRepository,
+                                StockReservationService stockReservationService,
+                                OrderTotalsService orderTotalsService,
+                                TransactionTemplate transactionTemplate) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.stockReservationService = stockReservationService;
+        this.orderTotalsService = orderTotalsService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public <T> T read(String username, Function<Order, T> reader) {
+        CartEntry entry = carts.get(username);
+        if (entry == null || isExpired(entry)) {
+            UserLock lock = lock(username);
+            try {
+                entry = entryFor(username);
+            } finally {
+                unlock(username, lock);
+            }
+            evictOverflow();
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return reader.apply(entry.cart);
+    }
+
+    @Override
+    public <T> T update(String username, Function<Order, T> change) {
+        T result;
+        UserLock lock = lock(username);
+        try {
+            CartEntry entry = entryFor(username);
+            Order draft = copyOf(entry.cart);
+            // stock reservations made by the change commit together with it
+            result = transactionTemplate.execute(status -> change.apply(draft));
+            entry.cart = draft;
+            entry.dirty = true;
+            entry.lastAccess = System.currentTimeMillis();
+        } finally {
+            unlock(username, lock);
+        }
+        evictOverflow();
+        return result;
+    }
+
+    @Override
+    public <T> T checkout(String username, Supplier<T> action) {
+        UserLock lock = lock(username);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                drop(username);
+                return action.get();
+            } finally {
+                unlock(username, lock);
+            }
+        }
+        // the action's writes commit with the caller's transaction; until then a reload would see the old row
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(username, lock);
+            }
+        });
+        drop(username);
+        return action.get();
+    }
+
+    @Override
+    public void evict(String username) {
+        UserLock lock = lock(username);
+        try {
+            drop(username);
+        } finally {
+            unlock(username, lock);
+        }
+    }
+
+    @Override
+    public void evict(Long orderId) {
+        String username = usernamesByOrder.get(orderId);
+        if (username == null) {
+            return;
+        }
+        CartEntry dropped = null;
+        UserLock lock = lock(username);
+        try {
+            CartEntry entry = carts.get(username);
+            if (entry != null && entry.orderId.equals(orderId)) {
+                dropped = drop(username);
+            }
+        } finally {
+            unlock(username, lock);
+        }
+        if (dropped != null && !dropped.unavailable.isEmpty()) {
+            throw new ProductOutOfStockException(dropped.unavailable.get(0));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:30000}")
+    public int flush() {
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        int written = 0;
+        for (CartEntry entry : new ArrayList<>(carts.values())) {
+            // a user busy with their cart right now gets written on the next round
+            UserLock lock = tryLock(entry.username);
+            if (lock == null) {
+                continue;
+            }
+            try {
+                if (carts.get(entry.username) != entry) {
+                    continue;
+                }
+                boolean idle = entry.lastAccess < idleBefore;
+                if (entry.dirty && writeBack(entry)) {
+                    written++;
+                }
+                if (idle) {
+                    forget(entry);
+                }
+            } catch (RuntimeException e) {
+                // the cart stays dirty and in memory for the next round; the carts after it still get written
+                log.warn("Could not write back the cart of {} (order {})", entry.username, entry.orderId, e);
+            } finally {
+                unlock(entry.username, lock);
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        for (String username : new ArrayList<>(carts.keySet())) {
+            evict(username);
+        }
+    }
+
+    private CartEntry entryFor(String username) {
+        CartEntry entry = carts.get(username);
+        if (entry != null && isExpired(entry)) {
+            // past its reservation; reload so the sweeper's view and ours agree
+            drop(username);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = transactionTemplate.execute(status -> load(username));
+            carts.put(username, entry);
+            usernamesByOrder.put(entry.orderId, username);
+        }
+        return entry;
+    }
+
+    // Written back before removal so a failed write leaves the cart in memory to retry
+    private CartEntry drop(String username) {
+        CartEntry entry = carts.get(username);
+        if (entry != null) {
+            writeBack(entry);
+            forget(entry);
+        }
+        return entry;
+    }
+
+    private void forget(CartEntry entry) {
+        if (carts.remove(entry.username, entry)) {
+            usernamesByOrder.remove(entry.orderId, entry.username);
+        }
+    }
+
+    private boolean isExpired(CartEntry entry) {
+        Instant expiresAt = entry.cart.getExpiresAt();
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+
+    private CartEntry load(String username) {
+        Order order = orderService.findOrCreatePending(username);
+        // touch everything the copy reads later, outside any session; fee rules use the zone index
+        Hibernate.initialize(order.getItems());
+        CartEntry entry = new CartEntry(username, order.getId());
+        entry.cart = copyOf(order);
+        entry.flushed = quantities(order);
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    private boolean writeBack(CartEntry entry) {
+        if (entry == null || !entry.dirty) {
+            return false;
+        }
+        Boolean written = transactionTemplate.execute(status -> {
+            Order row = orderRepository.lockById(entry.orderId).orElse(null);
+            if (row == null || row.getStatus() != OrderStatus.PENDING) {
+                reconcile(entry, row);
+                forget(entry);
+                return false;
+            }
+            copyInto(entry.cart, row);
+            orderRepository.save(row);
+            return true;
+        });
+        entry.flushed = quantities(entry.cart);
+        entry.dirty = false;
+        return Boolean.TRUE.equals(written);
+    }
+
+    /**
+     * The row was confirmed, cancelled or expired since the last write-back, so whatever
+     * happened to it accounted for the flushed quantities only. Settle the difference to
+     * what this cart actually holds. Units the cart gave back that have been sold again since
+     * cannot be taken back; an order still holding its stock keeps only what the cart held.
+     */
+    private void reconcile(CartEntry entry, Order row) {
+        Map<Long, Integer> held = quantities(entry.cart);
+        Set<Long> productIds = new HashSet<>(held.keySet());
+        productIds.addAll(entry.flushed.keySet());
+        for (Long productId : productIds) {
+            int diff = held.getOrDefault(productId, 0) - entry.flushed.getOrDefault(productId, 0);
+            if (diff > 0) {
+                stockReservationService.release(new StockReservation(productId, diff));
+            } else if (diff < 0 && stockReservationService.reserve(productId, -diff).isEmpty()) {
+                entry.unavailable.add(productId);
+            }
+        }
+        if (entry.unavailable.isEmpty() || row == null
+                || row.getStatus() == OrderStatus.CANCELED || row.getStatus() == OrderStatus.EXPIRED) {
+            return;
+        }
+        row.getItems().removeIf(item -> {
+            Long productId = item.getProduct().getId();
+            if (!entry.unavailable.contains(productId)) {
+                return false;
+            }
+            int quantity = held.getOrDefault(productId, 0);
+            item.setQuantity(quantity);
+            return quantity == 0;
+        });
+        if (legacyProductsDualWrite) {
+            copyLegacyProducts(row);
+        }
+        orderTotalsService.setFeesAndRecalculate(row, row.getRestaurant());
+        orderRepository.save(row);
+    }
+
+    private void copyInto(Order cart, Order row) {
+        Map<Long, OrderItem> wanted = new HashMap<>();
+        for (OrderItem item : cart.getItems()) {
+            wanted.put(item.getProduct().getId(), item);
+        }
+        Iterator<OrderItem> it = row.getItems().iterator();
+        while (it.hasNext()) {
+            OrderItem existing = it.next();
+            OrderItem item = wanted.remove(existing.getProduct().getId());
+            if (item == null) {
+                it.remove();
+            } else {
+                existing.setQuantity(item.getQuantity());
+                existing.setUnitPriceSnapshot(item.getUnitPriceSnapshot());
+            }
+        }
+        for (OrderItem item : cart.getItems()) {
+            if (wanted.containsKey(item.getProduct().getId())) {
+                OrderItem added = new OrderItem();
+                added.setOrder(row);
+                added.setProduct(item.getProduct());
+                added.setQuantity(item.getQuantity());
+                added.setUnitPriceSnapshot(item.getUnitPriceSnapshot());
+                row.getItems().add(added);
+            }
+        }
+        if (legacyProductsDualWrite) {
+            copyLegacyProducts(row);
+        }
+        row.setRestaurant(cart.getRestaurant());
+        row.setSubtotal(cart.getSubtotal());
+        row.setDeliveryFee(cart.getDeliveryFee());
+        row.setPlatformFee(cart.getPlatformFee());
+        row.setDiscount(cart.getDiscount());
+        row.setTotal(cart.getTotal());
+        row.setExpiresAt(cart.getExpiresAt());
+    }
+
+    private void copyLegacyProducts(Order row) {
+        row.getProducts().clear();
+        for (OrderItem item : row.getItems()) {
+            for (int i = 0; i < item.getQuantity(); i++) {
+                row.getProducts().add(item.getProduct());
+            }
+        }
+    }
+
+    private Order copyOf(Order order) {
+        Order copy = new Order(order.getUser());
+        copy.setId(order.getId());
+        copy.setStatus(order.getStatus());
+        copy.setRestaurant(order.getRestaurant());
+        copy.setDeliveryAddress(order.getDeliveryAddress());
+        copy.setSubtotal(order.getSubtotal());
+        copy.setDeliveryFee(order.getDeliveryFee());
+        copy.setPlatformFee(order.getPlatformFee());
+        copy.setDiscount(order.getDiscount());
+        copy.setTotal(order.getTotal());
+        copy.setExpiresAt(order.getExpiresAt());
+        for (OrderItem item : order.getItems()) {
+            OrderItem line = new OrderItem();
+            line.setId(item.getId());
+            line.setOrder(copy);
+            line.setProduct(item.getProduct());
+            line.setQuantity(item.getQuantity());
+            line.setUnitPriceSnapshot(item.getUnitPriceSnapshot());
+            copy.getItems().add(line);
+        }
+        return copy;
+    }
+
+    private Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> result = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            result.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return result;
+    }
+
+    private void evictOverflow() {
+        while (carts.size() > maxCarts) {
+            CartEntry oldest = null;
+            for (CartEntry entry : carts.values()) {
+                if (oldest == null || entry.lastAccess < oldest.lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            evict(oldest.username);
+        }
+    }
+
+    private UserLock lock(String username) {
+        UserLock lock = reference(username);
+        lock.lock();
+        return lock;
+    }
+
+    private UserLock tryLock(String username) {
+        UserLock lock = reference(username);
+        if (lock.tryLock()) {
+            return lock;
+        }
+        dereference(username);
+        return null;
+    }
+
+    private void unlock(String username, UserLock lock) {
+        lock.unlock();
+        dereference(username);
+    }
+
+    private UserLock reference(String username) {
+        return locks.compute(username, (k, lock) -> {
+            UserLock held = lock == null ? new UserLock() : lock;
+            held.references++;
+            return held;
+        });
+    }
+
+    private void dereference(String username) {
+        locks.computeIfPresent(username, (k, lock) -> --lock.references == 0 ? null : lock);
+    }
+
+    // references only change inside compute calls on the lock map
+    private static final class UserLock extends ReentrantLock {
+        private int references;
+    }
+
+    private static final class CartEntry {
+        private final String username;
+        private final Long orderId;
+        private volatile Order cart;
+        private volatile boolean dirty;
+        private volatile long lastAccess;
+        private Map<Long, Integer> flushed;
+        // products the write-back could not settle and had to take off the order
+        private final List<Long> unavailable = new ArrayList<>();
+
+        private CartEntry(String username, Long orderId) {
+            this.username = username;
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.SpatialGrid;
+import com.example.food_delivery.model.domain.LocationPing;
+import com.example.food_delivery.model.events.CourierMovedEvent;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class CourierLocationServiceImpl implements CourierLocationService {
+
+    private static final String INSERT_TRAIL_SQL =
+            "INSERT INTO courier_location_trail (courier_id, lat, lng, recorded_at) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_LAST_SQL =
+            "UPDATE courier SET last_lat = ?, last_lng = ?, last_seen_at = ? WHERE id = ?";
+    // fixes stamped further ahead than this by the device clock are taken as "now"
+    private static final long MAX_CLOCK_SKEW_MS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, CourierTrack> tracks = new ConcurrentHashMap<>();
+    private final SpatialGrid grid;
+
+    @Value("${courier.location.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${courier.location.trail-spacing-ms:15000}")
+    private long trailSpacingMs;
+
+    @Value("${courier.location.stale-minutes:10}")
+    private long staleMinutes;
+
+    public CourierLocationServiceImpl(JdbcTemplate jdbcTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${courier.location.grid-cell-km:1}") double gridCellKm) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.grid = new SpatialGrid(gridCellKm);
+    }
+
+    @Override
+    public int record(Long courierId, List<LocationPing> pings) {
+        long now = System.currentTimeMillis();
+        long oldest = now - staleMinutes * 60_000;
+        CourierTrack track = tracks.computeIfAbsent(courierId, id -> new CourierTrack(bufferSize));
+        int accepted = 0;
+        List<LocationPing> ordered = new ArrayList<>(pings);
+        ordered.sort(Comparator.comparing(LocationPing::recordedAt));
+        for (LocationPing ping : ordered) {
+            long at = Math.min(ping.recordedAt().toEpochMilli(), now + MAX_CLOCK_SKEW_MS);
+            if (isValid(ping) && at >= oldest && track.add(ping.lat(), ping.lng(), at)) {
+                accepted++;
+            }
+        }
+        LocationPing latest = track.latest();
+        if (accepted > 0) {
+            grid.put(courierId, latest.lat(), latest.lng());
+            eventPublisher.publishEvent(new CourierMovedEvent(courierId, latest.lat(), latest.lng(), latest.recordedAt()));
+        }
+        return accepted;
+    }
+
+    @Override
+    public Optional<LocationPing> latest(Long courierId) {
+        CourierTrack track = tracks.get(courierId);
+        return Optional.ofNullable(track != null ? track.latest() : null);
+    }
+
+    @Override
+    public List<LocationPing> recentTrail(Long courierId) {
+        CourierTrack track = tracks.get(courierId);
+        return track != null ? track.snapshot() : List.of();
+    }
+
+    @Override
+    public List<Long> nearestCouriers(double lat, double lng, int limit, double maxKm) {
+        return grid.nearest(lat, lng, limit, maxKm);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${courier.location.persist-interval-ms:30000}")
+    public int persist() {
+        long staleBefore = System.currentTimeMillis() - staleMinutes * 60_000;
+        List<Object[]> trail = new ArrayList<>();
+        List<Object[]> last = new ArrayList<>();
+        for (Map.Entry<Long, CourierTrack> entry : tracks.entrySet()) {
+            Long courierId = entry.getKey();
+            CourierTrack track = entry.getValue();
+            List<LocationPing> points = track.drainSampled(trailSpacingMs);
+            for (LocationPing p : points) {
+                trail.add(new Object[]{courierId, p.lat(), p.lng(), Timestamp.from(p.recordedAt())});
+            }
+            if (!points.isEmpty()) {
+                LocationPing newest = points.get(points.size() - 1);
+                last.add(new Object[]{newest.lat(), newest.lng(), Timestamp.from(newest.recordedAt()), courierId});
+            }
+            if (track.latestAt() < staleBefore) {
+                // gone quiet: no longer a candidate for proximity dispatch
+                tracks.remove(courierId, track);
+                grid.remove(courierId);
+            }
+        }
+        if (!trail.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRAIL_SQL, trail);
+        }
+        if (!last.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_SQL, last);
+        }
+        return trail.size();
+    }
+
+    @PreDestroy
+    public void persistRemaining() {
+        persist();
+    }
+
+    private boolean isValid(LocationPing ping) {
+        return ping.lat() >= -90 && ping.lat() <= 90 && ping.lng() >= -180 && ping.lng() <= 180;
+    }
+}
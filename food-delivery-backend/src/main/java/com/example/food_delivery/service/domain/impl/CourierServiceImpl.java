@@ -3,12 +3,19 @@ package com.example.food_delivery.service.domain.impl;
 import com.example.food_delivery.model.domain.Courier;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.CourierAvailableEvent;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+import com.example.food_delivery.model.events.OrderStatusChangedEvent;
+import com.example.food_delivery.model.exceptions.OrderStatusConflictException;
 import com.example.food_delivery.repository.CourierRepository;
 import com.example.food_delivery.repository.OrderRepository;
 import com.example.food_delivery.service.domain.CourierService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -18,10 +25,17 @@ public class CourierServiceImpl implements CourierService {
 
     private final CourierRepository courierRepository;
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CourierServiceImpl(CourierRepository courierRepository, OrderRepository orderRepository) {
+    @Value("${courier.batch.max-orders:3}")
+    private int maxBatchSize;
+
+    public CourierServiceImpl(CourierRepository courierRepository,
+                              OrderRepository orderRepository,
+                              ApplicationEventPublisher eventPublisher) {
         this.courierRepository = courierRepository;
         this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -64,24 +78,41 @@ public class CourierServiceImpl implements CourierService {
         Courier courier = courierRepository.findByUser_Username(courierUsername)
                 .orElseThrow(() -> new RuntimeException("Courier not found"));
 
-        if (!courier.getActive()) {
-            throw new RuntimeException("Courier is already busy with another delivery");
+        // Both claims are single guarded updates; losing either race rolls the other back
+        if (orderRepository.assignCourier(orderId, courier, Instant.now()) == 0) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new RuntimeException("Order not found");
+            }
+            throw new OrderStatusConflictException(orderId, OrderStatus.CONFIRMED);
         }
-
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        if (order.getStatus() != OrderStatus.CONFIRMED) {
-            throw new RuntimeException("Order must be confirmed to assign courier");
+        if (courierRepository.claimSlot(courier.getId(), maxBatchSize) == 0) {
+            throw new RuntimeException("Courier already carries the maximum number of orders");
         }
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
+        return order;
+    }
 
-        // Set courier as busy and update order status
-        courier.setActive(false);
-        order.setStatus(OrderStatus.PICKED_UP);
-        order.setCourier(courier);
+    @Override
+    @Transactional
+    public Order collectOrder(String courierUsername, Long orderId) {
+        Courier courier = courierRepository.findByUser_Username(courierUsername)
+                .orElseThrow(() -> new RuntimeException("Courier not found"));
 
-        courierRepository.save(courier);
-        return orderRepository.save(order);
+        if (orderRepository.markCollected(orderId, courier) == 0) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (order.getCourier() == null || !order.getCourier().getId().equals(courier.getId())) {
+                throw new RuntimeException("This order is not assigned to you");
+            }
+            if (!order.getStatus().canTransitionTo(OrderStatus.EN_ROUTE)) {
+                throw new OrderStatusConflictException(orderId, order.getStatus(), OrderStatus.EN_ROUTE);
+            }
+            throw new OrderStatusConflictException(orderId, OrderStatus.PICKED_UP);
+        }
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
+        return order;
     }
 
     @Override
@@ -90,20 +121,20 @@ public class CourierServiceImpl implements CourierService {
         Courier courier = courierRepository.findByUser_Username(courierUsername)
                 .orElseThrow(() -> new RuntimeException("Courier not found"));
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        if (!order.getCourier().getId().equals(courier.getId())) {
-            throw new RuntimeException("This order is not assigned to you");
+        if (orderRepository.markDelivered(orderId, courier, LocalDateTime.now()) == 0) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (order.getCourier() == null || !order.getCourier().getId().equals(courier.getId())) {
+                throw new RuntimeException("This order is not assigned to you");
+            }
+            throw new OrderStatusConflictException(orderId, OrderStatus.PICKED_UP);
         }
-
-        // Mark courier as available and order as delivered
-        courier.setActive(true);
-        order.setStatus(OrderStatus.DELIVERED);
-        order.setDeliveredAt(LocalDateTime.now());
-
-        courierRepository.save(courier);
-        return orderRepository.save(order);
+        courierRepository.releaseSlot(courier.getId());
+        eventPublisher.publishEvent(new CourierAvailableEvent(courier.getId(), courierUsername));
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
+        eventPublisher.publishEvent(OrderDeliveredEvent.of(order));
+        return order;
     }
 
     @Override
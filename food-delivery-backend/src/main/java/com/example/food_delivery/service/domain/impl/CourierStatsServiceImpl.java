@@ -0,0 +1,130 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.model.domain.CourierStats;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.CourierStatsRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.CourierStatsService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+@Service
+public class CourierStatsServiceImpl implements CourierStatsService, SmartInitializingSingleton {
+
+    private final CourierStatsRepository courierStatsRepository;
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${courier.stats.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${courier.stats.backfill-batch-size:1000}")
+    private int backfillBatchSize;
+
+    public CourierStatsServiceImpl(CourierStatsRepository courierStatsRepository,
+                                   OrderRepository orderRepository,
+                                   CourierRepository courierRepository,
+                                   TransactionTemplate transactionTemplate) {
+        this.courierStatsRepository = courierStatsRepository;
+        this.orderRepository = orderRepository;
+        this.courierRepository = courierRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Before the web server starts, so no delivery is recorded for a courier whose history is still being summed
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    // Synchronous on purpose: the totals commit or roll back together with the delivery. completeDelivery has
+    // already updated the courier row, so two deliveries of one courier cannot both insert the first stats row
+    @Override
+    @EventListener
+    public void recordDelivery(OrderDeliveredEvent event) {
+        if (event.courierId() == null) {
+            return;
+        }
+        LocalDate day = LocalDate.ofInstant(event.deliveredAt(), ZoneId.systemDefault());
+        LocalDate week = weekOf(day);
+        if (courierStatsRepository.recordDelivery(event.courierId(), day, week, event.distanceKm(), event.deliveryFee()) == 0) {
+            CourierStats stats = new CourierStats(event.courierId());
+            stats.add(day, week, event.distanceKm(), event.deliveryFee());
+            courierStatsRepository.save(stats);
+        }
+    }
+
+    @Override
+    public CourierStats findByCourierId(Long courierId) {
+        return courierStatsRepository.findById(courierId).orElseGet(() -> new CourierStats(courierId));
+    }
+
+    @Override
+    public List<Order> findHistoryPage(Long courierId, Long beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Long> ids = beforeId == null
+                ? orderRepository.findDeliveredIds(courierId, page)
+                : orderRepository.findDeliveredIdsBefore(courierId, beforeId, page);
+        return ids.isEmpty() ? List.of() : orderRepository.findListingByIdsNewestFirst(ids);
+    }
+
+    // Sums deliveries made before it started; later ones are recorded live, and if a live delivery created the
+    // courier's row in the meantime the sums are added to it instead of overwriting it. Locking the courier
+    // orders the first insert against recordDelivery, which runs while completeDelivery holds that row
+    @Override
+    public int backfill() {
+        LocalDateTime before = LocalDateTime.now();
+        List<Long> courierIds = orderRepository.findCourierIdsWithoutStats();
+        for (Long courierId : courierIds) {
+            CourierStats stats = new CourierStats(courierId);
+            for (int page = 0; ; page++) {
+                List<Object[]> rows = orderRepository.findDeliveriesForStats(courierId, before, PageRequest.of(page, backfillBatchSize));
+                for (Object[] row : rows) {
+                    double fee = row[0] != null ? (Double) row[0] : 0.0;
+                    LocalDate day = row[1] != null ? ((LocalDateTime) row[1]).toLocalDate() : LocalDate.EPOCH;
+                    double km = row[2] != null && row[3] != null && row[4] != null && row[5] != null
+                            ? GeoHelper.distanceKm((Double) row[2], (Double) row[3], (Double) row[4], (Double) row[5])
+                            : 0.0;
+                    stats.add(day, weekOf(day), km, fee);
+                }
+                if (rows.size() < backfillBatchSize) {
+                    break;
+                }
+            }
+            if (stats.getTotalDeliveries() > 0) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    courierRepository.lockById(courierId);
+                    int added = courierStatsRepository.addTotals(courierId,
+                            stats.getTotalDeliveries(), stats.getTotalDistanceKm(), stats.getTotalEarnings(),
+                            stats.getDayBucket(), stats.getDayDeliveries(), stats.getDayEarnings(),
+                            stats.getWeekBucket(), stats.getWeekDeliveries(), stats.getWeekEarnings());
+                    if (added == 0) {
+                        courierStatsRepository.save(stats);
+                    }
+                });
+            }
+        }
+        return courierIds.size();
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.LocationPing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The last N fixes of one courier in fixed primitive arrays, so a ping allocates nothing.
+ * Fixes are kept in time order; late or duplicate fixes are dropped.
+ */
+final class CourierTrack {
+
+    private final double[] lat;
+    private final double[] lng;
+    private final long[] at;
+    private int head;
+    private int size;
+    // newest fix already handed to the trail writer, and the last one it kept
+    private long persistedUntil = Long.MIN_VALUE;
+    private long lastSampled = Long.MIN_VALUE;
+
+    CourierTrack(int capacity) {
+        this.lat = new double[capacity];
+        this.lng = new double[capacity];
+        this.at = new long[capacity];
+    }
+
+    synchronized boolean add(double lat, double lng, long at) {
+        if (size > 0 && at <= this.at[newest()]) {
+            return false;
+        }
+        this.lat[head] = lat;
+        this.lng[head] = lng;
+        this.at[head] = at;
+        head = (head + 1) % this.at.length;
+        size = Math.min(size + 1, this.at.length);
+        return true;
+    }
+
+    synchronized LocationPing latest() {
+        return size == 0 ? null : ping(newest());
+    }
+
+    synchronized long latestAt() {
+        return size == 0 ? Long.MIN_VALUE : at[newest()];
+    }
+
+    /**
+     * Oldest first.
+     */
+    synchronized List<LocationPing> snapshot() {
+        List<LocationPing> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ping(index(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Fixes not handed out before, thinned so consecutive ones are at least {@code spacingMs} apart.
+     * The newest fix is always included so the trail ends where the courier is.
+     */
+    synchronized List<LocationPing> drainSampled(long spacingMs) {
+        List<LocationPing> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int idx = index(i);
+            boolean newest = i == size - 1;
+            if (at[idx] > persistedUntil && (newest || lastSampled == Long.MIN_VALUE || at[idx] - lastSampled >= spacingMs)) {
+                result.add(ping(idx));
+                lastSampled = at[idx];
+            }
+        }
+        if (size > 0) {
+            persistedUntil = at[newest()];
+        }
+        return result;
+    }
+
+    private int newest() {
+        return (head - 1 + at.length) % at.length;
+    }
+
+    // i-th fix counting from the oldest one still held
+    private int index(int i) {
+        return (head - size + i + at.length) % at.length;
+    }
+
+    private LocationPing ping(int idx) {
+        return new LocationPing(lat[idx], lng[idx], Instant.ofEpochMilli(at[idx]));
+    }
+}
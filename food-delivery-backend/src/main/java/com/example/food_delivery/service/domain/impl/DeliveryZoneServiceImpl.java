@@ -0,0 +1,433 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.DeliveryZone;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.model.events.DeliveryZoneChangedEvent;
+import com.example.food_delivery.repository.DeliveryZoneRepository;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class DeliveryZoneServiceImpl implements DeliveryZoneService, ApplicationRunner {
+
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final ZoneArea[] NONE = new ZoneArea[0];
+    // absorbs the error of treating a cell as planar when classifying it against a circle
+    private static final double CIRCLE_MARGIN_KM = 0.01;
+    private static final Comparator<ZoneArea> CHEAPEST_FIRST =
+            Comparator.comparingDouble(ZoneArea::fee).thenComparing(ZoneArea::id);
+
+    private final DeliveryZoneRepository deliveryZoneRepository;
+
+    private volatile Index index;
+    // one rebuild at a time, whether started at startup, by the schedule or by the first lookup
+    private final Object rebuildLock = new Object();
+    // changes committed while a rebuild reads the table, replayed onto the new index before it goes live
+    private List<DeliveryZoneChangedEvent> duringRebuild;
+
+    @Value("${zones.index.cell-km:1}")
+    private double cellKm;
+
+    // Bigger zones are checked on every lookup instead of being copied into thousands of cells
+    @Value("${zones.index.max-cells-per-zone:2500}")
+    private int maxCellsPerZone;
+
+    public DeliveryZoneServiceImpl(DeliveryZoneRepository deliveryZoneRepository) {
+        this.deliveryZoneRepository = deliveryZoneRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Override
+    public List<ZoneArea> zonesContaining(Long restaurantId, double lat, double lng) {
+        return current().matching(restaurantId, lat, lng);
+    }
+
+    @Override
+    public List<ZoneArea> zonesAt(double lat, double lng) {
+        return current().matching(null, lat, lng);
+    }
+
+    @Override
+    public List<ZoneArea> zonesOf(Long restaurantId) {
+        return List.of(current().byRestaurant.getOrDefault(restaurantId, NONE));
+    }
+
+    @Override
+    public Optional<ZoneArea> resolve(Long restaurantId, Coordinates dropOff) {
+        if (restaurantId == null) {
+            return Optional.empty();
+        }
+        Index current = current();
+        if (dropOff != null && dropOff.getLat() != null && dropOff.getLng() != null) {
+            ZoneArea cheapest = current.cheapest(restaurantId, dropOff.getLat(), dropOff.getLng());
+            if (cheapest != null) {
+                return Optional.of(cheapest);
+            }
+        }
+        ZoneArea[] own = current.byRestaurant.getOrDefault(restaurantId, NONE);
+        return own.length > 0 ? Optional.of(own[0]) : Optional.empty();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void zoneChanged(DeliveryZoneChangedEvent event) {
+        if (duringRebuild != null) {
+            duringRebuild.add(event);
+        }
+        if (index != null) {
+            index.apply(event);
+            index.publish();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${zones.index.resync-interval-ms:600000}",
+            initialDelayString = "${zones.index.resync-interval-ms:600000}")
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            List<DeliveryZoneChangedEvent> changes = new ArrayList<>();
+            synchronized (this) {
+                duringRebuild = changes;
+            }
+            Index fresh = new Index(cellKm / KM_PER_DEGREE, maxCellsPerZone);
+            int indexed = 0;
+            boolean complete = false;
+            try {
+                for (DeliveryZone zone : deliveryZoneRepository.findAllWithRestaurant()) {
+                    ZoneArea area = ZoneArea.from(zone);
+                    if (area != null) {
+                        fresh.put(area);
+                        indexed++;
+                    }
+                }
+                complete = true;
+            } finally {
+                synchronized (this) {
+                    duringRebuild = null;
+                    // a failed read keeps the live index, it is still kept current by zoneChanged
+                    if (complete) {
+                        changes.forEach(fresh::apply);
+                        fresh.publish();
+                        index = fresh;
+                    }
+                }
+            }
+            return indexed;
+        }
+    }
+
+    private Index current() {
+        Index current = index;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                if (index == null) {
+                    rebuild();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Uniform lat/lng raster. Each cell lists the zones that reach into it, cheapest first, and flags the
+     * ones that cover the whole cell, so only cells on a zone's edge need the exact circle or polygon test.
+     * Cells a zone's bounding box overlaps but the zone itself misses are left out entirely.
+     * Writers (serialized by the service) edit {@code cells} and then {@link #publish()} an immutable
+     * open-addressed copy that lookups read without locks, boxing or allocation.
+     */
+    private static final class Index {
+        private final double cellDegrees;
+        private final int maxCellsPerZone;
+        private final Map<Long, ZoneArea> zones = new ConcurrentHashMap<>();
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private final Map<Long, ZoneArea[]> byRestaurant = new ConcurrentHashMap<>();
+        private volatile ZoneArea[] wide = NONE;
+        private volatile Raster raster = Raster.EMPTY;
+
+        Index(double cellDegrees, int maxCellsPerZone) {
+            this.cellDegrees = cellDegrees;
+            this.maxCellsPerZone = maxCellsPerZone;
+        }
+
+        // the first match in cheapest-first order; a null restaurant id matches every restaurant
+        ZoneArea cheapest(Long restaurantId, double lat, double lng) {
+            Cell cell = raster.get(cellKey(row(lat), col(lng)));
+            ZoneArea found = null;
+            if (cell != null) {
+                for (int i = 0; i < cell.zones.length; i++) {
+                    ZoneArea zone = cell.zones[i];
+                    if ((restaurantId == null || zone.restaurantId().equals(restaurantId))
+                            && (cell.interior[i] || zone.contains(lat, lng))) {
+                        found = zone;
+                        break;
+                    }
+                }
+            }
+            for (ZoneArea zone : wide) {
+                if (found != null && CHEAPEST_FIRST.compare(zone, found) >= 0) {
+                    break;
+                }
+                if ((restaurantId == null || zone.restaurantId().equals(restaurantId)) && zone.contains(lat, lng)) {
+                    found = zone;
+                    break;
+                }
+            }
+            return found;
+        }
+
+        List<ZoneArea> matching(Long restaurantId, double lat, double lng) {
+            List<ZoneArea> result = new ArrayList<>(2);
+            Cell cell = raster.get(cellKey(row(lat), col(lng)));
+            if (cell != null) {
+                for (int i = 0; i < cell.zones.length; i++) {
+                    ZoneArea zone = cell.zones[i];
+                    if ((restaurantId == null || zone.restaurantId().equals(restaurantId))
+                            && (cell.interior[i] || zone.contains(lat, lng))) {
+                        result.add(zone);
+                    }
+                }
+            }
+            ZoneArea[] wideZones = wide;
+            if (wideZones.length > 0) {
+                int fromCells = result.size();
+                for (ZoneArea zone : wideZones) {
+                    if ((restaurantId == null || zone.restaurantId().equals(restaurantId)) && zone.contains(lat, lng)) {
+                        result.add(zone);
+                    }
+                }
+                if (result.size() > fromCells && fromCells > 0) {
+                    result.sort(CHEAPEST_FIRST);
+                }
+            }
+            return result;
+        }
+
+        void apply(DeliveryZoneChangedEvent event) {
+            remove(event.zoneId());
+            if (event.area() != null) {
+                put(event.area());
+            }
+        }
+
+        void put(ZoneArea zone) {
+            remove(zone.id());
+            zones.put(zone.id(), zone);
+            byRestaurant.compute(zone.restaurantId(), (id, own) -> with(own, zone, Comparator.comparing(ZoneArea::id)));
+            Box box = box(zone);
+            if (box.cells() > maxCellsPerZone) {
+                wide = with(wide, zone, CHEAPEST_FIRST);
+                return;
+            }
+            for (int r = box.minRow; r <= box.maxRow; r++) {
+                for (int c = box.minCol; c <= box.maxCol; c++) {
+                    Coverage coverage = coverage(zone, r, c);
+                    if (coverage != Coverage.NONE) {
+                        cells.compute(cellKey(r, c), (key, cell) -> Cell.with(cell, zone, coverage == Coverage.FULL));
+                    }
+                }
+            }
+        }
+
+        void remove(Long zoneId) {
+            ZoneArea old = zones.remove(zoneId);
+            if (old == null) {
+                return;
+            }
+            byRestaurant.computeIfPresent(old.restaurantId(), (id, own) -> without(own, zoneId));
+            Box box = box(old);
+            if (box.cells() > maxCellsPerZone) {
+                ZoneArea[] rest = without(wide, zoneId);
+                wide = rest != null ? rest : NONE;
+                return;
+            }
+            for (int r = box.minRow; r <= box.maxRow; r++) {
+                for (int c = box.minCol; c <= box.maxCol; c++) {
+                    cells.computeIfPresent(cellKey(r, c), (key, cell) -> cell.without(zoneId));
+                }
+            }
+        }
+
+        void publish() {
+            raster = new Raster(cells);
+        }
+
+        private Coverage coverage(ZoneArea zone, int row, int col) {
+            double minLat = row * cellDegrees;
+            double maxLat = minLat + cellDegrees;
+            double minLng = col * cellDegrees;
+            double maxLng = minLng + cellDegrees;
+            if (zone.polygon() != null) {
+                if (zone.polygon().edgeCrosses(minLat, maxLat, minLng, maxLng)) {
+                    return Coverage.PARTIAL;
+                }
+                return zone.polygon().contains((minLat + maxLat) / 2, (minLng + maxLng) / 2) ? Coverage.FULL : Coverage.NONE;
+            }
+            double nearestLat = Math.max(minLat, Math.min(zone.lat(), maxLat));
+            double nearestLng = Math.max(minLng, Math.min(zone.lng(), maxLng));
+            if (GeoHelper.distanceKm(zone.lat(), zone.lng(), nearestLat, nearestLng) > zone.radiusKm() + CIRCLE_MARGIN_KM) {
+                return Coverage.NONE;
+            }
+            double farthestLat = zone.lat() - minLat > maxLat - zone.lat() ? minLat : maxLat;
+            double farthestLng = zone.lng() - minLng > maxLng - zone.lng() ? minLng : maxLng;
+            return GeoHelper.distanceKm(zone.lat(), zone.lng(), farthestLat, farthestLng) < zone.radiusKm() - CIRCLE_MARGIN_KM
+                    ? Coverage.FULL
+                    : Coverage.PARTIAL;
+        }
+
+        private Box box(ZoneArea zone) {
+            double dLat = zone.radiusKm() / KM_PER_DEGREE;
+            double dLng = zone.radiusKm() / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(zone.lat())), 0.01));
+            return new Box(row(zone.lat() - dLat), row(zone.lat() + dLat), col(zone.lng() - dLng), col(zone.lng() + dLng));
+        }
+
+        private int row(double lat) {
+            return (int) Math.floor(lat / cellDegrees);
+        }
+
+        private int col(double lng) {
+            return (int) Math.floor(lng / cellDegrees);
+        }
+
+        private static long cellKey(int row, int col) {
+            return ((long) row << 32) | (col & 0xFFFFFFFFL);
+        }
+
+        private static ZoneArea[] with(ZoneArea[] listed, ZoneArea zone, Comparator<ZoneArea> order) {
+            ZoneArea[] result = listed == null ? new ZoneArea[1] : Arrays.copyOf(listed, listed.length + 1);
+            result[result.length - 1] = zone;
+            Arrays.sort(result, order);
+            return result;
+        }
+
+        // null drops an emptied entry from the map
+        private static ZoneArea[] without(ZoneArea[] listed, Long zoneId) {
+            ZoneArea[] result = Arrays.stream(listed).filter(z -> !z.id().equals(zoneId)).toArray(ZoneArea[]::new);
+            return result.length == 0 ? null : result;
+        }
+
+        private enum Coverage { NONE, PARTIAL, FULL }
+
+        private record Box(int minRow, int maxRow, int minCol, int maxCol) {
+            long cells() {
+                return (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+            }
+        }
+    }
+
+    /**
+     * The zones of one cell, cheapest first; {@code interior[i]} is set when {@code zones[i]} covers the whole cell.
+     */
+    private static final class Cell {
+        final ZoneArea[] zones;
+        final boolean[] interior;
+
+        private Cell(ZoneArea[] zones, boolean[] interior) {
+            this.zones = zones;
+            this.interior = interior;
+        }
+
+        static Cell with(Cell cell, ZoneArea zone, boolean covers) {
+            int n = cell == null ? 0 : cell.zones.length;
+            int at = 0;
+            while (at < n && CHEAPEST_FIRST.compare(cell.zones[at], zone) < 0) {
+                at++;
+            }
+            ZoneArea[] zones = new ZoneArea[n + 1];
+            boolean[] interior = new boolean[n + 1];
+            if (cell != null) {
+                System.arraycopy(cell.zones, 0, zones, 0, at);
+                System.arraycopy(cell.interior, 0, interior, 0, at);
+                System.arraycopy(cell.zones, at, zones, at + 1, n - at);
+                System.arraycopy(cell.interior, at, interior, at + 1, n - at);
+            }
+            zones[at] = zone;
+            interior[at] = covers;
+            return new Cell(zones, interior);
+        }
+
+        // null drops an emptied cell from the map
+        Cell without(Long zoneId) {
+            int at = 0;
+            while (at < zones.length && !zones[at].id().equals(zoneId)) {
+                at++;
+            }
+            if (at == zones.length) {
+                return this;
+            }
+            if (zones.length == 1) {
+                return null;
+            }
+            ZoneArea[] restZones = new ZoneArea[zones.length - 1];
+            boolean[] restInterior = new boolean[zones.length - 1];
+            System.arraycopy(zones, 0, restZones, 0, at);
+            System.arraycopy(interior, 0, restInterior, 0, at);
+            System.arraycopy(zones, at + 1, restZones, at, zones.length - at - 1);
+            System.arraycopy(interior, at + 1, restInterior, at, zones.length - at - 1);
+            return new Cell(restZones, restInterior);
+        }
+    }
+
+    /**
+     * Immutable open-addressed map from cell key to cell, at most half full so probes stay short.
+     */
+    private static final class Raster {
+        static final Raster EMPTY = new Raster(Map.of());
+
+        private final long[] keys;
+        private final Cell[] values;
+        private final int mask;
+
+        Raster(Map<Long, Cell> cells) {
+            int capacity = Integer.highestOneBit(Math.max(cells.size(), 1) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new Cell[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int slot = slot(entry.getKey());
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                values[slot] = entry.getValue();
+            }
+        }
+
+        Cell get(long key) {
+            int slot = slot(key);
+            Cell value;
+            while ((value = values[slot]) != null) {
+                if (keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.LocationPing;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.CourierAvailableEvent;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.model.events.RestaurantChangedEvent;
+import com.example.food_delivery.model.exceptions.OrderStatusConflictException;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.CourierService;
+import com.example.food_delivery.service.domain.DispatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class DispatchServiceImpl implements DispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchServiceImpl.class);
+    private static final double[] UNKNOWN = {Double.NaN, Double.NaN};
+
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final CourierService courierService;
+    private final CourierLocationService courierLocationService;
+
+    // Removing an entry is the in-memory claim; whoever removes it owns the order or courier
+    private final Map<Long, QueuedOrder> queue = new ConcurrentHashMap<>();
+    private final Map<Long, IdleCourier> idle = new ConcurrentHashMap<>();
+    private final Map<Long, double[]> restaurantPositions = new ConcurrentHashMap<>();
+    private volatile long lastResync;
+
+    @Value("${dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.resync-interval-ms:60000}")
+    private long resyncIntervalMs;
+
+    @Value("${dispatch.max-orders-per-round:500}")
+    private int maxOrdersPerRound;
+
+    @Value("${dispatch.courier-speed-kmh:20}")
+    private double courierSpeedKmh;
+
+    @Value("${dispatch.wait-weight:0.5}")
+    private double waitWeight;
+
+    @Value("${dispatch.max-pickup-km:15}")
+    private double maxPickupKm;
+
+    @Value("${dispatch.unknown-position-km:3}")
+    private double unknownPositionKm;
+
+    // A courier who already holds orders only takes more from around their current pickup
+    @Value("${dispatch.batch-radius-km:1}")
+    private double batchRadiusKm;
+
+    public DispatchServiceImpl(OrderRepository orderRepository,
+                               CourierRepository courierRepository,
+                               RestaurantRepository restaurantRepository,
+                               CourierService courierService,
+                               CourierLocationService courierLocationService) {
+        this.orderRepository = orderRepository;
+        this.courierRepository = courierRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.courierService = courierService;
+        this.courierLocationService = courierLocationService;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dispatch.round-interval-ms:2000}")
+    public int dispatchRound() {
+        if (!enabled) {
+            return 0;
+        }
+        if (System.currentTimeMillis() - lastResync >= resyncIntervalMs) {
+            resync();
+        }
+        // oldest first, and bounded so a backlog cannot blow up the pair matrix
+        List<QueuedOrder> orders = queue.values().stream()
+                .sorted(Comparator.comparing(QueuedOrder::placedAt))
+                .limit(maxOrdersPerRound)
+                .toList();
+        List<IdleCourier> couriers = new ArrayList<>(idle.values());
+        if (orders.isEmpty() || couriers.isEmpty()) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        double[] pickupLat = new double[orders.size()];
+        double[] pickupLng = new double[orders.size()];
+        double[] waitMinutes = new double[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            QueuedOrder order = orders.get(i);
+            double[] at = restaurantPosition(order.restaurantId());
+            pickupLat[i] = at[0];
+            pickupLng[i] = at[1];
+            waitMinutes[i] = Math.max(0, now - order.placedAt().toEpochMilli()) / 60_000.0;
+        }
+        double[] courierLat = new double[couriers.size()];
+        double[] courierLng = new double[couriers.size()];
+        double[] courierReachKm = new double[couriers.size()];
+        for (int j = 0; j < couriers.size(); j++) {
+            IdleCourier courier = couriers.get(j);
+            if (!Double.isNaN(courier.anchorLat())) {
+                courierLat[j] = courier.anchorLat();
+                courierLng[j] = courier.anchorLng();
+            } else {
+                Optional<LocationPing> at = courierLocationService.latest(courier.courierId());
+                courierLat[j] = at.map(LocationPing::lat).orElse(Double.NaN);
+                courierLng[j] = at.map(LocationPing::lng).orElse(Double.NaN);
+            }
+            courierReachKm[j] = courier.batching() ? batchRadiusKm : maxPickupKm;
+        }
+
+        int[] match = match(pickupLat, pickupLng, waitMinutes, courierLat, courierLng, courierReachKm,
+                courierSpeedKmh, waitWeight, unknownPositionKm);
+        int assigned = 0;
+        for (int i = 0; i < match.length; i++) {
+            if (match[i] >= 0 && claim(orders.get(i), couriers.get(match[i]), pickupLat[i], pickupLng[i])) {
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    @Override
+    public void resync() {
+        long started = System.currentTimeMillis();
+        Set<Long> orderIds = new HashSet<>();
+        for (Order order : orderRepository.findConfirmedUnassignedOrders()) {
+            Restaurant restaurant = order.getRestaurant();
+            Long restaurantId = restaurant != null ? restaurant.getId() : null;
+            if (restaurant != null) {
+                restaurantPositions.put(restaurantId, positionOf(restaurant));
+            }
+            orderIds.add(order.getId());
+            queue.putIfAbsent(order.getId(), new QueuedOrder(order.getId(), restaurantId, placedAtOf(order), started));
+        }
+        Set<Long> courierIds = new HashSet<>();
+        for (Courier courier : courierRepository.findAllActiveCouriers()) {
+            courierIds.add(courier.getId());
+            idle.putIfAbsent(courier.getId(), new IdleCourier(courier.getId(), courier.getUser().getUsername(), started,
+                    courier.getActiveOrders() != null && courier.getActiveOrders() > 0, Double.NaN, Double.NaN));
+        }
+        // entries that arrived through events while we were reading are kept until the next resync
+        queue.values().removeIf(order -> !orderIds.contains(order.orderId()) && order.seenAt() < started);
+        idle.values().removeIf(courier -> !courierIds.contains(courier.courierId()) && courier.seenAt() < started);
+        lastResync = started;
+    }
+
+    @Override
+    public List<Long> idleCourierIds() {
+        return List.copyOf(idle.keySet());
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void enqueue(OrderConfirmedEvent event) {
+        Long restaurantId = event.lines().isEmpty() ? null : event.lines().get(0).restaurantId();
+        queue.put(event.orderId(), new QueuedOrder(event.orderId(), restaurantId, event.placedAt(), System.currentTimeMillis()));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void courierAvailable(CourierAvailableEvent event) {
+        idle.put(event.courierId(), new IdleCourier(event.courierId(), event.username(), System.currentTimeMillis(),
+                false, Double.NaN, Double.NaN));
+    }
+
+    // A moved pin is read again for the next order from that restaurant
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        restaurantPositions.remove(event.restaurantId());
+    }
+
+    /**
+     * Greedy matching over all order/courier pairs, cheapest first. The cost of a pair is the
+     * pickup time in minutes minus {@code waitWeight} for every minute the order has waited,
+     * so long-waiting orders win close contests. Pairs beyond the courier's reach are never made.
+     * @return for each order the index of its courier, or -1
+     */
+    static int[] match(double[] pickupLat, double[] pickupLng, double[] waitMinutes,
+                       double[] courierLat, double[] courierLng, double[] courierReachKm,
+                       double speedKmh, double waitWeight, double unknownPositionKm) {
+        int orders = pickupLat.length;
+        int couriers = courierLat.length;
+        double maxWait = 0;
+        for (double wait : waitMinutes) {
+            maxWait = Math.max(maxWait, wait);
+        }
+        // cost in hundredths of a minute in the high half, pair index in the low half, so a primitive sort orders the pairs
+        long[] keys = new long[orders * couriers];
+        int n = 0;
+        for (int i = 0; i < orders; i++) {
+            for (int j = 0; j < couriers; j++) {
+                double km = Double.isNaN(pickupLat[i]) || Double.isNaN(courierLat[j])
+                        ? unknownPositionKm
+                        : GeoHelper.distanceKm(courierLat[j], courierLng[j], pickupLat[i], pickupLng[i]);
+                if (km > courierReachKm[j]) {
+                    continue;
+                }
+                double cost = km / speedKmh * 60.0 + waitWeight * (maxWait - waitMinutes[i]);
+                long scaled = Math.min(Integer.MAX_VALUE, Math.round(cost * 100));
+                keys[n++] = (scaled << 32) | (i * (long) couriers + j);
+            }
+        }
+        Arrays.sort(keys, 0, n);
+
+        int[] result = new int[orders];
+        Arrays.fill(result, -1);
+        boolean[] taken = new boolean[couriers];
+        int remaining = Math.min(orders, couriers);
+        for (int k = 0; k < n && remaining > 0; k++) {
+            long pair = keys[k] & 0xFFFFFFFFL;
+            int i = (int) (pair / couriers);
+            int j = (int) (pair % couriers);
+            if (result[i] < 0 && !taken[j]) {
+                result[i] = j;
+                taken[j] = true;
+                remaining--;
+            }
+        }
+        return result;
+    }
+
+    private boolean claim(QueuedOrder order, IdleCourier courier, double pickupLat, double pickupLng) {
+        if (!queue.remove(order.orderId(), order)) {
+            return false;
+        }
+        if (!idle.remove(courier.courierId(), courier)) {
+            queue.putIfAbsent(order.orderId(), order);
+            return false;
+        }
+        try {
+            // the guarded updates in assignToOrder are the real claim; a courier polling the board may beat us
+            Order assigned = courierService.assignToOrder(courier.username(), order.orderId());
+            if (Boolean.TRUE.equals(assigned.getCourier().getActive())) {
+                // room left in the batch: offer the courier again, anchored at this pickup
+                idle.putIfAbsent(courier.courierId(), new IdleCourier(courier.courierId(), courier.username(),
+                        System.currentTimeMillis(), true, pickupLat, pickupLng));
+            }
+            return true;
+        } catch (OrderStatusConflictException e) {
+            idle.putIfAbsent(courier.courierId(), courier);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Could not assign order {} to courier {}", order.orderId(), courier.username(), e);
+            requeueValid(order, courier);
+            return false;
+        }
+    }
+
+    // Puts back whichever side of a failed claim resync would still pick up, so neither waits for it
+    private void requeueValid(QueuedOrder order, IdleCourier courier) {
+        try {
+            if (orderRepository.findById(order.orderId())
+                    .filter(o -> o.getStatus() == OrderStatus.CONFIRMED && o.getCourier() == null)
+                    .isPresent()) {
+                queue.putIfAbsent(order.orderId(), order);
+            }
+            if (courierRepository.findById(courier.courierId())
+                    .filter(c -> Boolean.TRUE.equals(c.getActive()))
+                    .isPresent()) {
+                idle.putIfAbsent(courier.courierId(), courier);
+            }
+        } catch (RuntimeException e) {
+            // the next resync brings them back once the database answers again
+            log.warn("Could not re-check order {} and courier {} after a failed claim", order.orderId(), courier.courierId(), e);
+        }
+    }
+
+    private double[] restaurantPosition(Long restaurantId) {
+        if (restaurantId == null) {
+            return UNKNOWN;
+        }
+        return restaurantPositions.computeIfAbsent(restaurantId, id -> restaurantRepository.findById(id)
+                .map(this::positionOf)
+                .orElse(UNKNOWN));
+    }
+
+    private double[] positionOf(Restaurant restaurant) {
+        Coordinates c = restaurant.getCoordinates();
+        if (c == null || c.getLat() == null || c.getLng() == null) {
+            return UNKNOWN;
+        }
+        return new double[]{c.getLat(), c.getLng()};
+    }
+
+    private Instant placedAtOf(Order order) {
+        return order.getPlacedAt() != null ? order.getPlacedAt() : Instant.now();
+    }
+
+    private record QueuedOrder(Long orderId, Long restaurantId, Instant placedAt, long seenAt) {
+    }
+
+    private record IdleCourier(Long courierId, String username, long seenAt,
+                               boolean batching, double anchorLat, double anchorLng) {
+    }
+}
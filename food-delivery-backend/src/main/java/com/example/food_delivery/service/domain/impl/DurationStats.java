@@ -0,0 +1,57 @@
+package com.example.food_delivery.service.domain.impl;
+
+/**
+ * Exponentially weighted means of preparation, delivery and total minutes for one key.
+ * Until there are 1/alpha samples every sample weighs the same, so a new key is not dominated by its first order.
+ */
+final class DurationStats {
+
+    private final double alpha;
+    private double prep;
+    private double delivery;
+    private double total;
+    private long prepCount;
+    private long deliveryCount;
+    private long totalCount;
+
+    DurationStats(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * @param prepMinutes NaN when the pickup time is unknown; delivery is then unknown too
+     */
+    synchronized void add(double prepMinutes, double deliveryMinutes, double totalMinutes) {
+        if (!Double.isNaN(prepMinutes)) {
+            prepCount++;
+            prep += weight(prepCount) * (prepMinutes - prep);
+        }
+        if (!Double.isNaN(deliveryMinutes)) {
+            deliveryCount++;
+            delivery += weight(deliveryCount) * (deliveryMinutes - delivery);
+        }
+        totalCount++;
+        total += weight(totalCount) * (totalMinutes - total);
+    }
+
+    // NaN until there are at least minSamples (and at least one)
+    synchronized double prep(int minSamples) {
+        return prepCount > 0 && prepCount >= minSamples ? prep : Double.NaN;
+    }
+
+    synchronized double delivery(int minSamples) {
+        return deliveryCount > 0 && deliveryCount >= minSamples ? delivery : Double.NaN;
+    }
+
+    synchronized double total(int minSamples) {
+        return totalCount > 0 && totalCount >= minSamples ? total : Double.NaN;
+    }
+
+    synchronized long count() {
+        return totalCount;
+    }
+
+    private double weight(long n) {
+        return Math.max(alpha, 1.0 / n);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import com.example.food_delivery.service.domain.EtaService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class EtaServiceImpl implements EtaService, ApplicationRunner {
+
+    private final OrderRepository orderRepository;
+    private final DeliveryZoneService deliveryZoneService;
+
+    private volatile Stats stats = new Stats(0);
+
+    // Smoothing of the rolling means; 0.05 is roughly the last 20 deliveries
+    @Value("${eta.smoothing:0.05}")
+    private double smoothing;
+
+    // A restaurant, zone or hour needs this many deliveries before its own numbers are trusted
+    @Value("${eta.min-samples:5}")
+    private int minSamples;
+
+    @Value("${eta.default-minutes:35}")
+    private int defaultMinutes;
+
+    @Value("${eta.warmup-days:28}")
+    private int warmupDays;
+
+    @Value("${eta.warmup-batch-size:1000}")
+    private int warmupBatchSize;
+
+    public EtaServiceImpl(OrderRepository orderRepository, DeliveryZoneService deliveryZoneService) {
+        this.orderRepository = orderRepository;
+        this.deliveryZoneService = deliveryZoneService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reload();
+    }
+
+    @Override
+    public int estimateMinutes(Restaurant restaurant) {
+        return (int) Math.round(totalMinutes(stats, restaurant, null, LocalDateTime.now().getHour()));
+    }
+
+    @Override
+    public Optional<Instant> estimateDeliveryAt(Order order) {
+        if (order.getStatus() == null || order.getPlacedAt() == null) {
+            return Optional.empty();
+        }
+        switch (order.getStatus()) {
+            case DELIVERED:
+                return Optional.ofNullable(order.getDeliveredAt()).map(at -> at.atZone(ZoneId.systemDefault()).toInstant());
+            case CONFIRMED:
+            case ACCEPTED_BY_RESTAURANT:
+            case IN_PREPARATION:
+            case READY_FOR_PICKUP:
+            case PICKED_UP:
+            case EN_ROUTE:
+                break;
+            default:
+                return Optional.empty();
+        }
+
+        Restaurant restaurant = order.getRestaurant();
+        Long restaurantId = restaurant != null ? restaurant.getId() : null;
+        Long zoneId = order.getDeliveryAddress() != null && order.getDeliveryAddress().getCoordinates() != null
+                ? zoneOf(restaurantId, order.getDeliveryAddress().getCoordinates().getLat(), order.getDeliveryAddress().getCoordinates().getLng())
+                : null;
+        int hour = order.getPlacedAt().atZone(ZoneId.systemDefault()).getHour();
+        Stats current = stats;
+
+        Instant eta = null;
+        if (order.getPickedUpAt() != null) {
+            double delivery = current.delivery(restaurantId, zoneId, hour);
+            if (!Double.isNaN(delivery)) {
+                eta = order.getPickedUpAt().plus(minutes(delivery));
+            }
+        }
+        if (eta == null) {
+            eta = order.getPlacedAt().plus(minutes(totalMinutes(current, restaurant, zoneId, hour)));
+        }
+        // running late: the order is still expected, just not in the past
+        Instant now = Instant.now();
+        return Optional.of(eta.isBefore(now) ? now : eta);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void recordDelivery(OrderDeliveredEvent event) {
+        stats.add(event.restaurantId(), zoneOf(event.restaurantId(), event.dropOffLat(), event.dropOffLng()),
+                event.placedAt(), event.pickedUpAt(), event.deliveredAt());
+    }
+
+    @Override
+    public int reload() {
+        Stats fresh = new Stats(smoothing);
+        Instant since = Instant.now().minus(Duration.ofDays(warmupDays));
+        int read = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = orderRepository.findDeliveryDurations(since, afterId, PageRequest.of(0, warmupBatchSize));
+            for (Object[] row : rows) {
+                Long restaurantId = (Long) row[1];
+                fresh.add(restaurantId, zoneOf(restaurantId, (Double) row[5], (Double) row[6]), (Instant) row[2], (Instant) row[3],
+                        ((LocalDateTime) row[4]).atZone(ZoneId.systemDefault()).toInstant());
+            }
+            read += rows.size();
+            if (rows.size() < warmupBatchSize) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        stats = fresh;
+        return read;
+    }
+
+    // the zone the drop-off falls in, for ride times; null when it is not located or outside every zone
+    private Long zoneOf(Long restaurantId, Double lat, Double lng) {
+        if (restaurantId == null || lat == null || lng == null) {
+            return null;
+        }
+        List<ZoneArea> zones = deliveryZoneService.zonesContaining(restaurantId, lat, lng);
+        return zones.isEmpty() ? null : zones.get(0).id();
+    }
+
+    // A restaurant's own configured estimate beats the platform-wide mean until it has a history of its own
+    private double totalMinutes(Stats current, Restaurant restaurant, Long zoneId, int hour) {
+        Integer configured = null;
+        if (restaurant != null) {
+            configured = restaurant.getDeliveryTimeEstimate() != null
+                    ? restaurant.getDeliveryTimeEstimate()
+                    : restaurant.getDeliveryTimeMinutes();
+        }
+        Long restaurantId = restaurant != null ? restaurant.getId() : null;
+        if (configured != null && !current.knows(restaurantId)) {
+            return configured;
+        }
+        double learned = current.total(restaurantId, zoneId, hour);
+        if (!Double.isNaN(learned)) {
+            return learned;
+        }
+        return configured != null ? configured : defaultMinutes;
+    }
+
+    private static Duration minutes(double minutes) {
+        return Duration.ofSeconds(Math.round(minutes * 60));
+    }
+
+    /**
+     * Rolling statistics per restaurant, per zone and per hour of the day the order was placed.
+     * The hour only scales the estimate, relative to the overall mean, so a quiet restaurant still feels the lunch rush.
+     */
+    private final class Stats {
+        private final double alpha;
+        private final DurationStats overall;
+        private final DurationStats[] byHour = new DurationStats[24];
+        private final Map<Long, DurationStats> byRestaurant = new ConcurrentHashMap<>();
+        private final Map<Long, DurationStats> byZone = new ConcurrentHashMap<>();
+
+        Stats(double alpha) {
+            this.alpha = alpha;
+            this.overall = new DurationStats(alpha);
+            for (int h = 0; h < byHour.length; h++) {
+                byHour[h] = new DurationStats(alpha);
+            }
+        }
+
+        void add(Long restaurantId, Long zoneId, Instant placedAt, Instant pickedUpAt, Instant deliveredAt) {
+            if (placedAt == null || deliveredAt == null || deliveredAt.isBefore(placedAt)) {
+                return;
+            }
+            double total = Duration.between(placedAt, deliveredAt).toMillis() / 60_000.0;
+            boolean split = pickedUpAt != null && !pickedUpAt.isBefore(placedAt) && !pickedUpAt.isAfter(deliveredAt);
+            double prep = split ? Duration.between(placedAt, pickedUpAt).toMillis() / 60_000.0 : Double.NaN;
+            double delivery = split ? total - prep : Double.NaN;
+
+            overall.add(prep, delivery, total);
+            byHour[placedAt.atZone(ZoneId.systemDefault()).getHour()].add(prep, delivery, total);
+            if (restaurantId != null) {
+                byRestaurant.computeIfAbsent(restaurantId, id -> new DurationStats(alpha)).add(prep, delivery, total);
+            }
+            if (zoneId != null) {
+                // the zone describes the ride, not the kitchen
+                byZone.computeIfAbsent(zoneId, id -> new DurationStats(alpha)).add(Double.NaN, delivery, total);
+            }
+        }
+
+        boolean knows(Long restaurantId) {
+            DurationStats restaurant = restaurantId != null ? byRestaurant.get(restaurantId) : null;
+            return restaurant != null && restaurant.count() >= Math.max(1, minSamples);
+        }
+
+        // NaN while nothing at all is known
+        double total(Long restaurantId, Long zoneId, int hour) {
+            DurationStats restaurant = restaurantId != null ? byRestaurant.get(restaurantId) : null;
+            double prep = first(restaurant != null ? restaurant.prep(minSamples) : Double.NaN, overall.prep(1));
+            double delivery = rawDelivery(restaurant, zoneId);
+            double base = !Double.isNaN(prep) && !Double.isNaN(delivery)
+                    ? prep + delivery
+                    : first(restaurant != null ? restaurant.total(minSamples) : Double.NaN, overall.total(1));
+            return base * hourFactor(hour);
+        }
+
+        double delivery(Long restaurantId, Long zoneId, int hour) {
+            DurationStats restaurant = restaurantId != null ? byRestaurant.get(restaurantId) : null;
+            return rawDelivery(restaurant, zoneId) * hourFactor(hour);
+        }
+
+        private double rawDelivery(DurationStats restaurant, Long zoneId) {
+            DurationStats zone = zoneId != null ? byZone.get(zoneId) : null;
+            return first(zone != null ? zone.delivery(minSamples) : Double.NaN,
+                    first(restaurant != null ? restaurant.delivery(minSamples) : Double.NaN, overall.delivery(1)));
+        }
+
+        private double hourFactor(int hour) {
+            double atHour = byHour[hour].total(minSamples);
+            double mean = overall.total(minSamples);
+            if (Double.isNaN(atHour) || Double.isNaN(mean) || mean <= 0) {
+                return 1.0;
+            }
+            return Math.max(0.5, Math.min(2.0, atHour / mean));
+        }
+
+        private static double first(double preferred, double fallback) {
+            return Double.isNaN(preferred) ? fallback : preferred;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.AddressNormalizer;
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.service.domain.Geocoder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline geocoder over a CSV gazetteer of {@code country,postal_code,city,street,lat,lng} rows.
+ * A row without a street is a postal code centroid, one without a postal code a city centroid.
+ * An address resolves to the most precise row it matches: street in its postal code, street in its city,
+ * postal code, then city. Addresses without a country match rows of any country.
+ */
+@Service
+public class GazetteerGeocoder implements Geocoder {
+
+    private volatile Map<String, double[]> points = Map.of();
+
+    @Value("${geocoding.gazetteer:classpath:geocoding/gazetteer.csv}")
+    private Resource gazetteer;
+
+    @PostConstruct
+    public void load() {
+        Map<String, double[]> fresh = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(gazetteer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] cols = line.split(",", -1);
+                double[] point = {Double.parseDouble(cols[4].trim()), Double.parseDouble(cols[5].trim())};
+                String country = AddressNormalizer.country(cols[0]);
+                String postalCode = AddressNormalizer.postalCode(cols[1]);
+                String city = AddressNormalizer.normalize(cols[2]);
+                String street = AddressNormalizer.street(cols[3]);
+                for (String c : new String[]{country, ""}) {
+                    for (String key : rowKeys(c, postalCode, city, street)) {
+                        fresh.putIfAbsent(key, point);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read gazetteer " + gazetteer, e);
+        }
+        points = fresh;
+    }
+
+    @Override
+    public Optional<Coordinates> geocode(Address address) {
+        if (address == null) {
+            return Optional.empty();
+        }
+        String country = AddressNormalizer.country(address.getCountry());
+        String postalCode = AddressNormalizer.postalCode(address.getPostalCode());
+        String city = AddressNormalizer.normalize(address.getCity());
+        String street = AddressNormalizer.street(address.getLine1());
+        for (String key : lookupKeys(country, postalCode, city, street)) {
+            double[] point = points.get(key);
+            if (point != null) {
+                return Optional.of(new Coordinates(point[0], point[1]));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // a street row is found by postal code or city, centroid rows only by what they are the centroid of
+    private static List<String> rowKeys(String country, String postalCode, String city, String street) {
+        List<String> keys = new ArrayList<>(2);
+        if (!street.isEmpty()) {
+            if (!postalCode.isEmpty()) {
+                keys.add(streetInPostalCode(country, postalCode, street));
+            }
+            if (!city.isEmpty()) {
+                keys.add(streetInCity(country, city, street));
+            }
+        } else if (!postalCode.isEmpty()) {
+            keys.add(postalCode(country, postalCode));
+        } else if (!city.isEmpty()) {
+            keys.add(city(country, city));
+        }
+        return keys;
+    }
+
+    // most precise first; parts the address lacks are skipped
+    private static List<String> lookupKeys(String country, String postalCode, String city, String street) {
+        List<String> keys = new ArrayList<>(4);
+        if (!street.isEmpty() && !postalCode.isEmpty()) {
+            keys.add(streetInPostalCode(country, postalCode, street));
+        }
+        if (!street.isEmpty() && !city.isEmpty()) {
+            keys.add(streetInCity(country, city, street));
+        }
+        if (!postalCode.isEmpty()) {
+            keys.add(postalCode(country, postalCode));
+        }
+        if (!city.isEmpty()) {
+            keys.add(city(country, city));
+        }
+        return keys;
+    }
+
+    private static String streetInPostalCode(String country, String postalCode, String street) {
+        return "s|" + country + '|' + postalCode + '|' + street;
+    }
+
+    private static String streetInCity(String country, String city, String street) {
+        return "c|" + country + '|' + city + '|' + street;
+    }
+
+    private static String postalCode(String country, String postalCode) {
+        return "p|" + country + '|' + postalCode;
+    }
+
+    private static String city(String country, String city) {
+        return "t|" + country + '|' + city;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.AddressNormalizer;
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.service.domain.Geocoder;
+import com.example.food_delivery.service.domain.GeocodingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of geocoder answers keyed by normalized address. Customers keep using the same few
+ * addresses, so nearly every lookup is a hit. Misses are cached too, so an unknown address is not
+ * geocoded again on every checkout.
+ */
+@Service
+public class GeocodingServiceImpl implements GeocodingService {
+
+    private static final double[] UNKNOWN = new double[0];
+
+    private final Geocoder geocoder;
+    private final Map<String, double[]> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    @Value("${geocoding.cache.max-entries:50000}")
+    private int maxEntries;
+
+    public GeocodingServiceImpl(Geocoder geocoder) {
+        this.geocoder = geocoder;
+    }
+
+    @Override
+    public Optional<Coordinates> locate(Address address) {
+        if (address == null) {
+            return Optional.empty();
+        }
+        String key = AddressNormalizer.key(address);
+        double[] point;
+        synchronized (this) {
+            point = cache.get(key);
+            if (point != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (point == null) {
+            // geocoded outside the lock; two threads missing on one key both ask, which is harmless
+            point = geocoder.geocode(address)
+                    .filter(c -> c.getLat() != null && c.getLng() != null)
+                    .map(c -> new double[]{c.getLat(), c.getLng()})
+                    .orElse(UNKNOWN);
+            put(key, point);
+        }
+        return point == UNKNOWN ? Optional.empty() : Optional.of(new Coordinates(point[0], point[1]));
+    }
+
+    @Override
+    public boolean locateIfMissing(Address address) {
+        if (address == null) {
+            return false;
+        }
+        Coordinates known = address.getCoordinates();
+        if (known != null && known.getLat() != null && known.getLng() != null) {
+            return true;
+        }
+        Optional<Coordinates> found = locate(address);
+        found.ifPresent(address::setCoordinates);
+        return found.isPresent();
+    }
+
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private synchronized void put(String key, double[] point) {
+        cache.put(key, point);
+        Iterator<double[]> it = cache.values().iterator();
+        while (cache.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
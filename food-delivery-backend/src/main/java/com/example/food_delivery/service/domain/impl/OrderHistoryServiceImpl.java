@@ -0,0 +1,111 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.service.domain.OrderHistoryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class OrderHistoryServiceImpl implements OrderHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderHistoryServiceImpl.class);
+    private static final long DROP_LOG_INTERVAL_MS = 60_000;
+
+    private static final String INSERT_SQL = "INSERT INTO user_order_history " +
+            "(user_username, product_id, restaurant_id, quantity, price, order_date, hour_of_day, day_of_week, order_value) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Object[]> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong lastDropLog = new AtomicLong();
+
+    @Value("${order-history.batch-size:500}")
+    private int batchSize;
+
+    public OrderHistoryServiceImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${order-history.queue-capacity:50000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void record(OrderConfirmedEvent event) {
+        LocalDateTime orderDate = LocalDateTime.ofInstant(event.placedAt(), ZoneId.systemDefault());
+        String dayOfWeek = orderDate.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        for (OrderConfirmedEvent.Line line : event.lines()) {
+            Object[] row = {
+                    event.username(),
+                    line.productId(),
+                    line.restaurantId(),
+                    line.quantity(),
+                    line.unitPrice(),
+                    Timestamp.valueOf(orderDate),
+                    orderDate.getHour(),
+                    dayOfWeek,
+                    Math.round(line.unitPrice() * line.quantity() * 100.0) / 100.0
+            };
+            // history feeds recommendations only, so shed rows rather than slow checkout down
+            if (!pending.offer(row)) {
+                dropped(1);
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${order-history.flush-interval-ms:1000}")
+    public int flush() {
+        int written = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            } catch (RuntimeException e) {
+                // the failed batch is given up; what is still queued waits for the next run
+                log.warn("Could not write {} order history rows", batch.size(), e);
+                dropped(batch.size());
+                break;
+            }
+            written += batch.size();
+            batch.clear();
+        }
+        return written;
+    }
+
+    // rows lost to a full queue or a failed insert since startup
+    public long droppedRows() {
+        return dropped.get();
+    }
+
+    private void dropped(int rows) {
+        long total = dropped.addAndGet(rows);
+        long now = System.currentTimeMillis();
+        long last = lastDropLog.get();
+        if (now - last >= DROP_LOG_INTERVAL_MS && lastDropLog.compareAndSet(last, now)) {
+            log.warn("Order history is shedding rows; {} dropped so far", total);
+        }
+    }
+
+    @PreDestroy
+    public void flushRemaining() {
+        flush();
+    }
+}
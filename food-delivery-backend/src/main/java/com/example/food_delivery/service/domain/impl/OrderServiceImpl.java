@@ -1,35 +1,64 @@
 package com.example.food_delivery.service.domain.impl;
 
 import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
 import com.example.food_delivery.model.domain.Order;
-import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.StockReservation;
 import com.example.food_delivery.model.domain.User;
 import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.model.events.OrderStatusChangedEvent;
 import com.example.food_delivery.model.exceptions.EmptyOrderException;
 import com.example.food_delivery.model.exceptions.UserNotFoundException;
 import com.example.food_delivery.repository.OrderRepository;
 import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import com.example.food_delivery.service.domain.GeocodingService;
 import com.example.food_delivery.service.domain.OrderService;
 import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final OrderTotalsService orderTotalsService;
+    private final StockReservationService stockReservationService;
+    private final CartReservationService cartReservationService;
+    private final GeocodingService geocodingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     public OrderServiceImpl(OrderRepository orderRepository,
                             UserRepository userRepository,
-                            OrderTotalsService orderTotalsService) {
+                            OrderTotalsService orderTotalsService,
+                            StockReservationService stockReservationService,
+                            CartReservationService cartReservationService,
+                            GeocodingService geocodingService,
+                            ApplicationEventPublisher eventPublisher,
+                            EntityManager entityManager) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.orderTotalsService = orderTotalsService;
+        this.stockReservationService = stockReservationService;
+        this.cartReservationService = cartReservationService;
+        this.geocodingService = geocodingService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -56,6 +85,7 @@ public class OrderServiceImpl implements OrderService {
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UserNotFoundException(username));
             Order order = new Order(user); // status=PENDING
+            cartReservationService.extend(order);
             order.recalcTotals();
             return orderRepository.save(order);
         });
@@ -67,9 +97,7 @@ public class OrderServiceImpl implements OrderService {
         Optional<Order> orderOpt = findPending(username);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
-            boolean hasItems = (order.getItems() != null && !order.getItems().isEmpty()) ||
-                    (order.getProducts() != null && !order.getProducts().isEmpty());
-            if (!hasItems) {
+            if (!order.hasItems()) {
                 throw new EmptyOrderException();
             }
             // Recalc before confirm
@@ -77,7 +105,10 @@ public class OrderServiceImpl implements OrderService {
             // Optional: apply fees one last time
             orderTotalsService.setFeesAndRecalculate(order, order.getRestaurant());
             order.confirm();
-            return Optional.of(orderRepository.save(order));
+            Order saved = orderRepository.save(order);
+            eventPublisher.publishEvent(toConfirmedEvent(saved));
+            eventPublisher.publishEvent(OrderStatusChangedEvent.of(saved));
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -88,15 +119,15 @@ public class OrderServiceImpl implements OrderService {
         Optional<Order> orderOpt = findPending(username);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
-            boolean hasItems = (order.getItems() != null && !order.getItems().isEmpty()) ||
-                    (order.getProducts() != null && !order.getProducts().isEmpty());
-            if (!hasItems) {
+            if (!order.hasItems()) {
                 throw new EmptyOrderException();
             }
-            order.getProducts()
-                    .forEach(Product::increaseQuantity);
+            order.getItems().forEach(item -> stockReservationService.release(
+                    new StockReservation(item.getProduct().getId(), item.getQuantity())));
             order.cancel();
-            return Optional.of(orderRepository.save(order));
+            Order saved = orderRepository.save(order);
+            eventPublisher.publishEvent(OrderStatusChangedEvent.of(saved));
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -106,6 +137,41 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findConfirmed();
     }
 
+    @Override
+    public List<Order> findConfirmedPage(Instant afterPlacedAt, Long afterId, int limit) {
+        if (afterId != null && afterPlacedAt == null) {
+            // already into the orders without a placedAt
+            List<Long> ids = orderRepository.findConfirmedIdsWithoutPlacedAtAfter(afterId, PageRequest.of(0, limit));
+            return ids.isEmpty() ? List.of() : orderRepository.findListingByIds(ids);
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        List<Long> ids = new ArrayList<>(afterId == null
+                ? orderRepository.findConfirmedIds(page)
+                : orderRepository.findConfirmedIdsAfter(afterPlacedAt, afterId, page));
+        if (ids.size() < limit) {
+            ids.addAll(orderRepository.findConfirmedIdsWithoutPlacedAtAfter(0L, PageRequest.of(0, limit - ids.size())));
+        }
+        return ids.isEmpty() ? List.of() : orderRepository.findListingByIds(ids);
+    }
+
+    @Override
+    @Transactional
+    public void forEachConfirmed(Consumer<Order> action) {
+        Instant afterPlacedAt = null;
+        Long afterId = null;
+        while (true) {
+            List<Order> batch = findConfirmedPage(afterPlacedAt, afterId, STREAM_BATCH_SIZE);
+            batch.forEach(action);
+            if (batch.size() < STREAM_BATCH_SIZE) {
+                break;
+            }
+            Order last = batch.get(batch.size() - 1);
+            afterPlacedAt = last.getPlacedAt();
+            afterId = last.getId();
+            entityManager.clear();
+        }
+    }
+
     @Override
     public List<Order> findOrdersForCourier(String username) {
         return orderRepository.findByCourierUsername(username);
@@ -117,6 +183,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional
     public Optional<Order> updateAddress(Long id, Address deliveryAddress) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -130,7 +197,12 @@ public class OrderServiceImpl implements OrderService {
         address.setCity(deliveryAddress.getCity());
         address.setPostalCode(deliveryAddress.getPostalCode());
         address.setCountry(deliveryAddress.getCountry());
+        // a pin dropped by the client wins over the gazetteer
+        address.setCoordinates(deliveryAddress.getCoordinates());
+        geocodingService.locateIfMissing(address);
         order.setDeliveryAddress(address);
+        // the delivery fee depends on the zone the new address falls in
+        orderTotalsService.setFeesAndRecalculate(order, order.getRestaurant());
         return Optional.of(orderRepository.save(order));
     }
 
@@ -138,4 +210,17 @@ public class OrderServiceImpl implements OrderService {
     public Order save(Order order) {
         return orderRepository.save(order);
     }
+
+    private OrderConfirmedEvent toConfirmedEvent(Order order) {
+        List<OrderConfirmedEvent.Line> lines = order.getItems().stream()
+                .map(item -> new OrderConfirmedEvent.Line(
+                        item.getProduct().getId(),
+                        item.getProduct().getRestaurant().getId(),
+                        item.getQuantity(),
+                        item.getUnitPriceSnapshot() != null ? item.getUnitPriceSnapshot() : item.getProduct().getPrice()))
+                .toList();
+        Coordinates dropOff = order.getDeliveryAddress() != null ? order.getDeliveryAddress().getCoordinates() : null;
+        return new OrderConfirmedEvent(order.getId(), order.getUser().getUsername(), order.getPlacedAt(),
+                dropOff != null ? dropOff.getLat() : null, dropOff != null ? dropOff.getLng() : null, lines);
+    }
 }
@@ -1,9 +1,11 @@
 package com.example.food_delivery.service.domain.impl;
 
-import com.example.food_delivery.model.domain.DeliveryZone;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
 import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.SurgeService;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,15 +14,22 @@ public class OrderTotalsServiceImpl implements OrderTotalsService {
     // Simplified fee rules; you can move these to props/db later
     private static final double PLATFORM_FEE = 0.05; // 5%
 
+    private final DeliveryZoneService deliveryZoneService;
+    private final SurgeService surgeService;
+
+    public OrderTotalsServiceImpl(DeliveryZoneService deliveryZoneService, SurgeService surgeService) {
+        this.deliveryZoneService = deliveryZoneService;
+        this.surgeService = surgeService;
+    }
+
     @Override
     public void setFeesAndRecalculate(Order order, Restaurant restaurant) {
-        if (restaurant != null && !restaurant.getDeliveryZones().isEmpty()) {
-            // naive: pick first zone's fee
-            DeliveryZone z = restaurant.getDeliveryZones().get(0);
-            order.setDeliveryFee(z.getDeliveryFee());
-        } else {
-            order.setDeliveryFee(0.0);
-        }
+        // zones and surge both come from memory, so the restaurant's zone collection is never loaded here
+        ZoneArea zone = deliveryZoneService
+                .resolve(restaurant != null ? restaurant.getId() : null,
+                        order.getDeliveryAddress() != null ? order.getDeliveryAddress().getCoordinates() : null)
+                .orElse(null);
+        order.setDeliveryFee(zone != null ? round2(zone.fee() * surgeService.multiplier(zone.id())) : 0.0);
         double sub = order.getSubtotal() != null ? order.getSubtotal() : 0.0;
         order.setPlatformFee(round2(sub * PLATFORM_FEE));
         order.recalcTotals();
@@ -1,51 +1,164 @@
 package com.example.food_delivery.service.domain.impl;
 
+import com.example.food_delivery.helpers.TtlCache;
 import com.example.food_delivery.model.domain.Order;
 import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.PageAnchor;
 import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.ProductFilter;
+import com.example.food_delivery.model.domain.StockReservation;
+import com.example.food_delivery.model.enums.ProductSort;
+import com.example.food_delivery.model.events.RestaurantChangedEvent;
 import com.example.food_delivery.model.exceptions.ProductOutOfStockException;
-import com.example.food_delivery.repository.OrderItemRepository;
-import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.CatalogSpecifications;
 import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
 import com.example.food_delivery.service.domain.OrderTotalsService;
 import com.example.food_delivery.service.domain.ProductService;
+import com.example.food_delivery.service.domain.SearchService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
-    private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
     private final OrderTotalsService orderTotalsService;
+    private final StockReservationService stockReservationService;
+    private final CartReservationService cartReservationService;
+    private final SearchService searchService;
+    private final EntityManager entityManager;
+
+    @Value("${orders.legacy-products.dual-write:false}")
+    private boolean legacyProductsDualWrite;
+
+    @Value("${catalog.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${catalog.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    // Stock moves with every cart through bulk updates that bypass this service, so it only lives briefly
+    @Value("${catalog.cache.stock-ttl-ms:1000}")
+    private long stockTtlMs;
+
+    private TtlCache<Long, Product> products;
+    private TtlCache<Boolean, List<Product>> allProducts;
+    // empty when the product has no quantity set
+    private TtlCache<Long, Optional<Integer>> stock;
 
     public ProductServiceImpl(ProductRepository ProductRepository,
-                           OrderRepository orderRepository,
-                           OrderItemRepository orderItemRepository,
-                           OrderTotalsService orderTotalsService) {
+                           OrderTotalsService orderTotalsService,
+                           StockReservationService stockReservationService,
+                           CartReservationService cartReservationService,
+                           SearchService searchService,
+                           EntityManager entityManager) {
         this.productRepository = ProductRepository;
-        this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
         this.orderTotalsService = orderTotalsService;
+        this.stockReservationService = stockReservationService;
+        this.cartReservationService = cartReservationService;
+        this.searchService = searchService;
+        this.entityManager = entityManager;
+    }
+
+    @PostConstruct
+    void createCaches() {
+        products = new TtlCache<>(cacheMaxEntries, cacheTtlSeconds * 1000);
+        allProducts = new TtlCache<>(1, cacheTtlSeconds * 1000);
+        stock = new TtlCache<>(cacheMaxEntries, stockTtlMs);
     }
 
+    // One bulk read of the quantities per call; they would not fit the stock tier once the catalog outgrows it
     @Override
     public List<Product> findAll() {
-        return productRepository.findAll();
+        List<Product> all = allProducts.get(true, ignored -> productRepository.findAll());
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : productRepository.findAllQuantities()) {
+            quantities.put((Long) row[0], (Integer) row[1]);
+        }
+        return all.stream()
+                .map(p -> p.withQuantity(quantities.get(p.getId())))
+                .toList();
     }
 
     @Override
     public Optional<Product> findById(Long id) {
-        return productRepository.findById(id);
+        return Optional.ofNullable(products.get(id, key -> productRepository.findById(key).orElse(null)))
+                .map(p -> p.withQuantity(stock.get(id, productRepository::findQuantityById).orElse(null)));
+    }
+
+    @Override
+    public Map<String, TtlCache.Stats> cacheStats() {
+        Map<String, TtlCache.Stats> tiers = new LinkedHashMap<>();
+        tiers.put("products", products.stats());
+        tiers.put("all", allProducts.stats());
+        tiers.put("stock", stock.stats());
+        return tiers;
+    }
+
+    // Products carry their restaurant, so a restaurant change makes its products stale too
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        products.invalidateIf((id, product) -> product.getRestaurant() != null
+                && event.restaurantId().equals(product.getRestaurant().getId()));
+        allProducts.invalidateAll();
+    }
+
+    @Override
+    public List<Product> findPage(ProductFilter filter, ProductSort sort, PageAnchor after, int limit) {
+        Specification<Product> matching = CatalogSpecifications.products(filter)
+                .and(CatalogSpecifications.after(after, sort.attribute(), sort.descending()))
+                .and(CatalogSpecifications.ordered(sort.attribute(), sort.descending()));
+        return productRepository.findBy(matching, query -> query
+                .project("restaurant")
+                .limit(limit)
+                .all());
+    }
+
+    @Override
+    public List<Product> findAllById(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    @Override
+    public List<Product> findByRestaurantId(Long restaurantId) {
+        return productRepository.findByRestaurantId(restaurantId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                action.accept(product);
+                entityManager.detach(product);
+            });
+        }
     }
 
     @Override
     public Product save(Product Product) {
-        return productRepository.save(Product);
+        Product saved = productRepository.save(Product);
+        evict(saved.getId());
+        searchService.productSaved(saved);
+        return saved;
     }
 
     @Override
@@ -59,21 +172,57 @@ public class ProductServiceImpl implements ProductService {
             existing.setIsAvailable(updated.getIsAvailable());
             existing.setCategory(updated.getCategory());
             existing.setImageUrl(updated.getImageUrl());
-            return productRepository.save(existing);
+            Product saved = productRepository.save(existing);
+            evict(saved.getId());
+            searchService.productSaved(saved);
+            return saved;
         });
     }
 
     @Override
     public Optional<Product> deleteById(Long id) {
         Optional<Product> product = productRepository.findById(id);
-        product.ifPresent(productRepository::delete);
+        product.ifPresent(existing -> {
+            productRepository.delete(existing);
+            evict(existing.getId());
+            searchService.productDeleted(existing.getId());
+        });
         return product;
     }
 
     @Override
     @Transactional
     public Order addToOrder(Product product, Order order) {
-        if (product.getQuantity() == null || product.getQuantity() <= 0 || Boolean.FALSE.equals(product.getIsAvailable())) {
+        addUnits(product, order, 1);
+        return finishCartMutation(order);
+    }
+
+    @Override
+    @Transactional
+    public Order removeFromOrder(Product Product, Order order) {
+        removeUnits(Product, order, 1);
+        return finishCartMutation(order);
+    }
+
+    @Override
+    @Transactional
+    public Order updateOrderItems(Order order, Map<Product, Integer> quantityDeltas) {
+        // Always touch products in id order so two concurrent batches cannot deadlock on stock rows
+        quantityDeltas.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getKey().getId()))
+                .forEach(e -> {
+                    int delta = e.getValue() != null ? e.getValue() : 0;
+                    if (delta > 0) {
+                        addUnits(e.getKey(), order, delta);
+                    } else if (delta < 0) {
+                        removeUnits(e.getKey(), order, -delta);
+                    }
+                });
+        return finishCartMutation(order);
+    }
+
+    private void addUnits(Product product, Order order, int units) {
+        if (product.getQuantity() == null || product.getQuantity() < units || Boolean.FALSE.equals(product.getIsAvailable())) {
             throw new ProductOutOfStockException(product.getId());
         }
 
@@ -89,44 +238,69 @@ public class ProductServiceImpl implements ProductService {
             order.setRestaurant(product.getRestaurant());
         }
 
-        product.decreaseQuantity();
-        productRepository.save(product);
-
-        order.getProducts().add(product);
+        stockReservationService.reserve(product.getId(), units)
+                .orElseThrow(() -> new ProductOutOfStockException(product.getId()));
 
-        OrderItem item = new OrderItem();
-        item.setOrder(order);
-        item.setProduct(product);
-        item.setQuantity(1);
-        item.setUnitPriceSnapshot(product.getPrice());
-        order.getItems().add(item);
-        orderItemRepository.save(item);
-
-        order.recalcTotals();
-        orderTotalsService.setFeesAndRecalculate(order, order.getRestaurant());
+        if (legacyProductsDualWrite) {
+            for (int i = 0; i < units; i++) {
+                order.getProducts().add(product);
+            }
+        }
 
-        return orderRepository.save(order);
+        // One line per product, repeated adds only bump its quantity
+        OrderItem item = findItem(order, product);
+        if (item == null) {
+            item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(units);
+            item.setUnitPriceSnapshot(product.getPrice());
+            order.getItems().add(item);
+        } else {
+            item.setQuantity(item.getQuantity() + units);
+        }
     }
 
-    @Override
-    @Transactional
-    public Order removeFromOrder(Product Product, Order order) {
-        OrderItem target = order.getItems().stream()
-                .filter(it -> it.getProduct().getId().equals(Product.getId()))
-                .findFirst().orElse(null);
-        if (target != null) {
-            order.getItems().remove(target);
-            orderItemRepository.delete(target);
+    private void removeUnits(Product product, Order order, int units) {
+        OrderItem item = findItem(order, product);
+        if (item == null) {
+            return;
+        }
+        int removed = Math.min(units, item.getQuantity());
+        if (removed >= item.getQuantity()) {
+            order.getItems().remove(item);
+        } else {
+            item.setQuantity(item.getQuantity() - removed);
         }
+        if (legacyProductsDualWrite) {
+            // by id: the caller's product is usually a cached copy, not the instance the order loaded
+            int left = removed;
+            for (Iterator<Product> it = order.getProducts().iterator(); it.hasNext() && left > 0; ) {
+                if (it.next().getId().equals(product.getId())) {
+                    it.remove();
+                    left--;
+                }
+            }
+        }
+        stockReservationService.release(new StockReservation(product.getId(), removed));
+    }
 
-        order.getProducts().remove(Product);
+    private void evict(Long id) {
+        products.invalidate(id);
+        stock.invalidate(id);
+        allProducts.invalidateAll();
+    }
 
-        Product.increaseQuantity();
-        productRepository.save(Product);
+    private OrderItem findItem(Order order, Product product) {
+        return order.getItems().stream()
+                .filter(it -> it.getProduct().getId().equals(product.getId()))
+                .findFirst().orElse(null);
+    }
 
+    private Order finishCartMutation(Order order) {
+        cartReservationService.extend(order);
         order.recalcTotals();
         orderTotalsService.setFeesAndRecalculate(order, order.getRestaurant());
-
-        return orderRepository.save(order);
+        return order;
     }
 }
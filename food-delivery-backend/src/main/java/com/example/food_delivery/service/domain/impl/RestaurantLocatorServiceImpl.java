@@ -0,0 +1,139 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.GeoHelper;
+import com.example.food_delivery.model.domain.RestaurantMatch;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.model.events.DeliveryZoneChangedEvent;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import com.example.food_delivery.service.domain.RestaurantLocatorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Every restaurant that delivers anywhere, as parallel primitive arrays of position and reach (the farthest
+ * point any of its zones covers). A lookup scans all of them with the equirectangular pre-filter and only
+ * checks the zones of restaurants whose reach includes the point.
+ */
+@Service
+public class RestaurantLocatorServiceImpl implements RestaurantLocatorService, ApplicationRunner {
+
+    // covers the equirectangular error so the pre-filter never drops a restaurant that does deliver
+    private static final double PREFILTER_MARGIN = 1.01;
+    private static final double PREFILTER_SLACK_KM = 0.1;
+
+    private final RestaurantRepository restaurantRepository;
+    private final DeliveryZoneService deliveryZoneService;
+
+    private volatile Positions positions;
+    private volatile boolean dirty = true;
+    private volatile long builtAt;
+
+    // Restaurants moving is rare and not signalled, so the arrays are also rebuilt on this interval
+    @Value("${restaurants.locator.resync-interval-ms:300000}")
+    private long resyncIntervalMs;
+
+    public RestaurantLocatorServiceImpl(RestaurantRepository restaurantRepository, DeliveryZoneService deliveryZoneService) {
+        this.restaurantRepository = restaurantRepository;
+        this.deliveryZoneService = deliveryZoneService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Override
+    public List<RestaurantMatch> deliveringTo(double lat, double lng, int limit) {
+        Positions p = positions;
+        if (p == null) {
+            rebuild();
+            p = positions;
+        }
+        double[] km = new double[p.size];
+        GeoHelper.equirectangularKm(lat, lng, p.latRad, p.lngRad, km, p.size);
+
+        List<RestaurantMatch> matches = new ArrayList<>();
+        for (int i = 0; i < p.size; i++) {
+            if (km[i] > p.reachKm[i] * PREFILTER_MARGIN + PREFILTER_SLACK_KM) {
+                continue;
+            }
+            List<ZoneArea> zones = deliveryZoneService.zonesContaining(p.ids[i], lat, lng);
+            if (!zones.isEmpty()) {
+                double exact = GeoHelper.distanceKm(lat, lng, Math.toDegrees(p.latRad[i]), Math.toDegrees(p.lngRad[i]));
+                matches.add(new RestaurantMatch(p.ids[i], exact, zones.get(0)));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(RestaurantMatch::distanceKm));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void zoneChanged(DeliveryZoneChangedEvent event) {
+        dirty = true;
+    }
+
+    // Zone changes are batched into at most one rebuild per interval
+    @Scheduled(fixedDelayString = "${restaurants.locator.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (dirty || System.currentTimeMillis() - builtAt >= resyncIntervalMs) {
+            rebuild();
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        dirty = false;
+        List<Object[]> rows = restaurantRepository.findAllPositions();
+        Positions fresh = new Positions(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            List<ZoneArea> zones = deliveryZoneService.zonesOf(id);
+            if (zones.isEmpty()) {
+                continue;
+            }
+            // a restaurant that was never located is placed at its first zone's center
+            double lat = row[1] != null && row[2] != null ? (Double) row[1] : zones.get(0).lat();
+            double lng = row[1] != null && row[2] != null ? (Double) row[2] : zones.get(0).lng();
+            double reach = 0;
+            for (ZoneArea zone : zones) {
+                reach = Math.max(reach, GeoHelper.distanceKm(lat, lng, zone.lat(), zone.lng()) + zone.radiusKm());
+            }
+            fresh.add(id, lat, lng, reach);
+        }
+        positions = fresh;
+        builtAt = System.currentTimeMillis();
+        return fresh.size;
+    }
+
+    private static final class Positions {
+        final long[] ids;
+        final double[] latRad;
+        final double[] lngRad;
+        final double[] reachKm;
+        int size;
+
+        Positions(int capacity) {
+            ids = new long[capacity];
+            latRad = new double[capacity];
+            lngRad = new double[capacity];
+            reachKm = new double[capacity];
+        }
+
+        void add(long id, double lat, double lng, double reach) {
+            ids[size] = id;
+            latRad[size] = Math.toRadians(lat);
+            lngRad[size] = Math.toRadians(lng);
+            reachKm[size] = reach;
+            size++;
+        }
+    }
+}
@@ -1,35 +1,113 @@
 package com.example.food_delivery.service.domain.impl;
 
+import com.example.food_delivery.helpers.TtlCache;
+import com.example.food_delivery.model.domain.PageAnchor;
 import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
+import com.example.food_delivery.model.events.RestaurantChangedEvent;
+import com.example.food_delivery.repository.CatalogSpecifications;
 import com.example.food_delivery.repository.RestaurantRepository;
 import com.example.food_delivery.service.domain.RestaurantService;
+import com.example.food_delivery.service.domain.SearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class RestaurantServiceImpl implements RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
+    private final SearchService searchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
-    public RestaurantServiceImpl(RestaurantRepository restaurantRepository) {
+    @Value("${catalog.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${catalog.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private TtlCache<Long, Restaurant> restaurants;
+    private TtlCache<Boolean, List<Restaurant>> allRestaurants;
+
+    public RestaurantServiceImpl(RestaurantRepository restaurantRepository, SearchService searchService,
+                                 ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.restaurantRepository = restaurantRepository;
+        this.searchService = searchService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+    }
+
+    @PostConstruct
+    void createCaches() {
+        restaurants = new TtlCache<>(cacheMaxEntries, cacheTtlSeconds * 1000);
+        allRestaurants = new TtlCache<>(1, cacheTtlSeconds * 1000);
     }
 
+    // Cached instances are shared between callers and must not be modified; writes load their own
     @Override
     public List<Restaurant> findAll() {
-        return restaurantRepository.findAll();
+        return allRestaurants.get(true, ignored -> List.copyOf(restaurantRepository.findAll()));
     }
 
     @Override
     public Optional<Restaurant> findById(Long id) {
-        return restaurantRepository.findById(id);
+        return Optional.ofNullable(restaurants.get(id, key -> restaurantRepository.findById(key).orElse(null)));
+    }
+
+    @Override
+    public Map<String, TtlCache.Stats> cacheStats() {
+        Map<String, TtlCache.Stats> tiers = new LinkedHashMap<>();
+        tiers.put("restaurants", restaurants.stats());
+        tiers.put("all", allRestaurants.stats());
+        return tiers;
+    }
+
+    @Override
+    public List<Restaurant> findPage(RestaurantFilter filter, RestaurantListingSort sort, PageAnchor after, int limit) {
+        Specification<Restaurant> matching = CatalogSpecifications.restaurants(filter)
+                .and(CatalogSpecifications.after(after, sort.attribute(), sort.descending()))
+                .and(CatalogSpecifications.ordered(sort.attribute(), sort.descending()));
+        return restaurantRepository.findBy(matching, query -> query
+                .limit(limit)
+                .all());
+    }
+
+    @Override
+    public List<Restaurant> findAllById(Collection<Long> ids) {
+        return restaurantRepository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Restaurant> action) {
+        try (Stream<Restaurant> restaurants = restaurantRepository.streamAll()) {
+            restaurants.forEach(restaurant -> {
+                action.accept(restaurant);
+                entityManager.detach(restaurant);
+            });
+        }
     }
 
     @Override
     public Restaurant save(Restaurant restaurant) {
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        evict(saved.getId());
+        searchService.restaurantSaved(saved);
+        return saved;
     }
 
     @Override
@@ -45,15 +123,27 @@ public class RestaurantServiceImpl implements RestaurantService {
                     existingRestaurant.setAverageRating(restaurant.getAverageRating());
                     existingRestaurant.setIsOpen(restaurant.getIsOpen());
                     existingRestaurant.setOpenHours(restaurant.getOpenHours());
-                    return restaurantRepository.save(existingRestaurant);
+                    Restaurant saved = restaurantRepository.save(existingRestaurant);
+                    evict(saved.getId());
+                    searchService.restaurantSaved(saved);
+                    return saved;
                 });
     }
 
     @Override
     public Optional<Restaurant> deleteById(Long id) {
-        Optional<Restaurant> restaurant = findById(id);
-        restaurant.ifPresent(restaurantRepository::delete);
+        Optional<Restaurant> restaurant = restaurantRepository.findById(id);
+        restaurant.ifPresent(existing -> {
+            restaurantRepository.delete(existing);
+            evict(existing.getId());
+            searchService.restaurantDeleted(existing.getId());
+        });
         return restaurant;
     }
 
+    private void evict(Long id) {
+        restaurants.invalidate(id);
+        allRestaurants.invalidateAll();
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id));
+    }
 }
@@ -0,0 +1,109 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.RouteOptimizer;
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.LocationPing;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RouteStop;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.RoutePlanningService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class RoutePlanningServiceImpl implements RoutePlanningService {
+
+    private final OrderRepository orderRepository;
+    private final CourierLocationService courierLocationService;
+
+    public RoutePlanningServiceImpl(OrderRepository orderRepository, CourierLocationService courierLocationService) {
+        this.orderRepository = orderRepository;
+        this.courierLocationService = courierLocationService;
+    }
+
+    @Override
+    public List<RouteStop> planRoute(String courierUsername) {
+        List<Order> orders = orderRepository.findActiveByCourierUsername(courierUsername);
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        // one pickup per restaurant for orders still waiting there: PICKED_UP means claimed, EN_ROUTE collected
+        List<RouteStop> stops = new ArrayList<>();
+        List<Integer> requires = new ArrayList<>();
+        Map<Long, Integer> pickupByRestaurant = new LinkedHashMap<>();
+        for (Order order : orders) {
+            Restaurant restaurant = order.getRestaurant();
+            if (order.getStatus() != OrderStatus.PICKED_UP || restaurant == null) {
+                continue;
+            }
+            Integer index = pickupByRestaurant.get(restaurant.getId());
+            if (index == null) {
+                pickupByRestaurant.put(restaurant.getId(), stops.size());
+                stops.add(stop(RouteStop.Type.PICKUP, new ArrayList<>(), restaurant.getName(), restaurant.getCoordinates()));
+                requires.add(-1);
+                index = stops.size() - 1;
+            }
+            stops.get(index).orderIds().add(order.getId());
+        }
+        for (Order order : orders) {
+            Address address = order.getDeliveryAddress();
+            Integer pickup = order.getRestaurant() != null ? pickupByRestaurant.get(order.getRestaurant().getId()) : null;
+            stops.add(stop(RouteStop.Type.DROPOFF, List.of(order.getId()),
+                    address != null ? address.getLine1() : null, address != null ? address.getCoordinates() : null));
+            requires.add(pickup != null && order.getStatus() == OrderStatus.PICKED_UP ? pickup : -1);
+        }
+
+        // stops that were never located cannot be routed; they go last, pickups first
+        List<Integer> located = new ArrayList<>();
+        List<Integer> unlocated = new ArrayList<>();
+        for (int i = 0; i < stops.size(); i++) {
+            boolean known = stops.get(i).lat() != null && stops.get(i).lng() != null;
+            Integer pickup = requires.get(i);
+            boolean pickupKnown = pickup < 0 || (stops.get(pickup).lat() != null && stops.get(pickup).lng() != null);
+            (known && pickupKnown ? located : unlocated).add(i);
+        }
+        if (located.isEmpty()) {
+            return stops;
+        }
+
+        int n = located.size();
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        int[] req = new int[n];
+        for (int k = 0; k < n; k++) {
+            RouteStop stop = stops.get(located.get(k));
+            lat[k] = stop.lat();
+            lng[k] = stop.lng();
+            req[k] = requires.get(located.get(k)) < 0 ? -1 : located.indexOf(requires.get(located.get(k)));
+        }
+        Long courierId = orders.get(0).getCourier().getId();
+        LocationPing start = courierLocationService.latest(courierId).orElse(null);
+        int[] route = RouteOptimizer.optimize(
+                start != null ? start.lat() : lat[0],
+                start != null ? start.lng() : lng[0],
+                lat, lng, req);
+
+        List<RouteStop> result = new ArrayList<>(stops.size());
+        for (int k : route) {
+            result.add(stops.get(located.get(k)));
+        }
+        for (int i : unlocated) {
+            result.add(stops.get(i));
+        }
+        return result;
+    }
+
+    private RouteStop stop(RouteStop.Type type, List<Long> orderIds, String label, Coordinates at) {
+        boolean known = at != null && at.getLat() != null && at.getLng() != null;
+        return new RouteStop(type, orderIds, label, known ? at.getLat() : null, known ? at.getLng() : null);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.SearchIndex;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.SearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SearchServiceImpl implements SearchService, ApplicationRunner {
+
+    // name, category, description, restaurant name, restaurant category
+    private static final float[] PRODUCT_WEIGHTS = {3f, 2f, 1f, 1.5f, 1f};
+    // name, category, description
+    private static final float[] RESTAURANT_WEIGHTS = {3f, 2f, 1f};
+
+    private final ProductRepository productRepository;
+    private final RestaurantRepository restaurantRepository;
+
+    private volatile Indexes current = new Indexes();
+    // ids changed while a rebuild reads the tables, re-read once the new indexes are live
+    private Set<Long> productsDuringRebuild;
+    private Set<Long> restaurantsDuringRebuild;
+
+    @Value("${search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    // Completions of the unfinished last word that are searched, most frequent first
+    @Value("${search.autocomplete.max-expansions:16}")
+    private int maxExpansions;
+
+    public SearchServiceImpl(ProductRepository productRepository, RestaurantRepository restaurantRepository) {
+        this.productRepository = productRepository;
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Override
+    public List<SearchIndex.Hit> searchProducts(String query, int limit) {
+        return current.products.search(query, limit);
+    }
+
+    @Override
+    public List<SearchIndex.Hit> searchRestaurants(String query, int limit) {
+        return current.restaurants.search(query, limit);
+    }
+
+    @Override
+    public List<SearchIndex.Hit> completeProducts(String input, int limit) {
+        return current.products.complete(input, limit, maxExpansions);
+    }
+
+    @Override
+    public List<SearchIndex.Hit> completeRestaurants(String input, int limit) {
+        return current.restaurants.complete(input, limit, maxExpansions);
+    }
+
+    @Override
+    public synchronized void productSaved(Product product) {
+        if (productsDuringRebuild != null) {
+            productsDuringRebuild.add(product.getId());
+        }
+        current.put(product);
+    }
+
+    @Override
+    public synchronized void productDeleted(Long productId) {
+        if (productsDuringRebuild != null) {
+            productsDuringRebuild.add(productId);
+        }
+        current.removeProduct(productId);
+    }
+
+    @Override
+    public synchronized void restaurantSaved(Restaurant restaurant) {
+        if (restaurantsDuringRebuild != null) {
+            restaurantsDuringRebuild.add(restaurant.getId());
+        }
+        current.put(restaurant);
+        for (Product product : productRepository.findByRestaurant(restaurant)) {
+            if (productsDuringRebuild != null) {
+                productsDuringRebuild.add(product.getId());
+            }
+            current.put(product);
+        }
+    }
+
+    @Override
+    public synchronized void restaurantDeleted(Long restaurantId) {
+        if (restaurantsDuringRebuild != null) {
+            restaurantsDuringRebuild.add(restaurantId);
+        }
+        // its products went with it through the cascade
+        current.removeRestaurant(restaurantId);
+    }
+
+    @Override
+    public int rebuild() {
+        synchronized (this) {
+            productsDuringRebuild = new HashSet<>();
+            restaurantsDuringRebuild = new HashSet<>();
+        }
+        Indexes fresh = new Indexes();
+        try {
+            long afterId = 0;
+            List<Restaurant> restaurantPage;
+            do {
+                restaurantPage = restaurantRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, rebuildBatchSize));
+                for (Restaurant restaurant : restaurantPage) {
+                    fresh.put(restaurant);
+                    afterId = restaurant.getId();
+                }
+            } while (restaurantPage.size() == rebuildBatchSize);
+
+            afterId = 0;
+            List<Product> productPage;
+            do {
+                productPage = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, rebuildBatchSize));
+                for (Product product : productPage) {
+                    fresh.put(product);
+                    afterId = product.getId();
+                }
+            } while (productPage.size() == rebuildBatchSize);
+        } finally {
+            synchronized (this) {
+                for (Long id : restaurantsDuringRebuild) {
+                    restaurantRepository.findById(id).ifPresentOrElse(fresh::put, () -> fresh.removeRestaurant(id));
+                }
+                for (Long id : productsDuringRebuild) {
+                    productRepository.findById(id).ifPresentOrElse(fresh::put, () -> fresh.removeProduct(id));
+                }
+                productsDuringRebuild = null;
+                restaurantsDuringRebuild = null;
+                current = fresh;
+            }
+        }
+        return fresh.products.size();
+    }
+
+    /**
+     * The product and restaurant indexes, plus which restaurant each indexed product belongs to so
+     * a deleted restaurant's products can be dropped without the database.
+     */
+    private static final class Indexes {
+        final SearchIndex products = new SearchIndex();
+        final SearchIndex restaurants = new SearchIndex();
+        final Map<Long, Long> restaurantOfProduct = new ConcurrentHashMap<>();
+
+        void put(Product product) {
+            Restaurant restaurant = product.getRestaurant();
+            products.put(product.getId(), product.getName(), new String[]{
+                    product.getName(),
+                    product.getCategory(),
+                    product.getDescription(),
+                    restaurant != null ? restaurant.getName() : null,
+                    restaurant != null ? restaurant.getCategory() : null
+            }, PRODUCT_WEIGHTS);
+            if (restaurant != null) {
+                restaurantOfProduct.put(product.getId(), restaurant.getId());
+            } else {
+                restaurantOfProduct.remove(product.getId());
+            }
+        }
+
+        void put(Restaurant restaurant) {
+            restaurants.put(restaurant.getId(), restaurant.getName(), new String[]{
+                    restaurant.getName(),
+                    restaurant.getCategory(),
+                    restaurant.getDescription()
+            }, RESTAURANT_WEIGHTS);
+        }
+
+        void removeProduct(Long productId) {
+            products.remove(productId);
+            restaurantOfProduct.remove(productId);
+        }
+
+        void removeRestaurant(Long restaurantId) {
+            restaurants.remove(restaurantId);
+            restaurantOfProduct.entrySet().removeIf(entry -> {
+                if (entry.getValue().equals(restaurantId)) {
+                    products.remove(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.StockReservation;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.service.domain.StockReservationService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final ProductRepository productRepository;
+
+    public StockReservationServiceImpl(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    @Transactional
+    public Optional<StockReservation> reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be positive");
+        }
+        if (productRepository.reserveStock(productId, quantity) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new StockReservation(productId, quantity));
+    }
+
+    @Override
+    @Transactional
+    public void release(StockReservation reservation) {
+        if (reservation.quantity() <= 0) {
+            return;
+        }
+        productRepository.releaseStock(reservation.productId(), reservation.quantity());
+    }
+}
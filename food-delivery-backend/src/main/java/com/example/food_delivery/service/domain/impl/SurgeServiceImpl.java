@@ -0,0 +1,164 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.SlidingWindowCounter;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.LocationPing;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import com.example.food_delivery.service.domain.DispatchService;
+import com.example.food_delivery.service.domain.SurgeService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per zone, a sliding window of confirmed orders (demand) and of idle couriers sampled every tick (supply).
+ * Each tick turns orders per idle courier into a bounded multiplier and publishes all of them at once, so
+ * checkout reads a plain map and never waits on the counters or the database.
+ */
+@Service
+public class SurgeServiceImpl implements SurgeService {
+
+    private final DeliveryZoneService deliveryZoneService;
+    private final DispatchService dispatchService;
+    private final CourierLocationService courierLocationService;
+
+    private final Map<Long, ZoneLoad> loads = new ConcurrentHashMap<>();
+    private volatile Map<Long, Double> multipliers = Map.of();
+    // ticks seen inside the window, to turn summed idle samples into an average
+    private SlidingWindowCounter ticks;
+
+    @Value("${surge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${surge.window-minutes:10}")
+    private int windowMinutes;
+
+    @Value("${surge.bucket-seconds:30}")
+    private int bucketSeconds;
+
+    // Orders one idle courier is expected to absorb per window before prices move
+    @Value("${surge.orders-per-courier:2}")
+    private double ordersPerCourier;
+
+    // A zone needs this many orders in the window before it can surge at all
+    @Value("${surge.min-orders:3}")
+    private int minOrders;
+
+    // Multiplier added per unit of demand above what the idle couriers absorb
+    @Value("${surge.sensitivity:0.25}")
+    private double sensitivity;
+
+    @Value("${surge.max-multiplier:2.0}")
+    private double maxMultiplier;
+
+    // Multipliers are rounded to this step so prices do not flicker between ticks
+    @Value("${surge.step:0.1}")
+    private double step;
+
+    public SurgeServiceImpl(DeliveryZoneService deliveryZoneService,
+                            DispatchService dispatchService,
+                            CourierLocationService courierLocationService) {
+        this.deliveryZoneService = deliveryZoneService;
+        this.dispatchService = dispatchService;
+        this.courierLocationService = courierLocationService;
+    }
+
+    @PostConstruct
+    public void init() {
+        ticks = newWindow();
+    }
+
+    @Override
+    public double multiplier(Long zoneId) {
+        Double multiplier = zoneId != null ? multipliers.get(zoneId) : null;
+        return multiplier != null ? multiplier : 1.0;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void orderConfirmed(OrderConfirmedEvent event) {
+        if (event.lines().isEmpty()) {
+            return;
+        }
+        // the zone whose fee the order paid, so demand is counted where it is priced
+        Coordinates dropOff = event.dropOffLat() != null && event.dropOffLng() != null
+                ? new Coordinates(event.dropOffLat(), event.dropOffLng())
+                : null;
+        Optional<ZoneArea> zone = deliveryZoneService.resolve(event.lines().get(0).restaurantId(), dropOff);
+        zone.ifPresent(z -> load(z.id()).orders().add(System.currentTimeMillis(), 1));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${surge.tick-ms:5000}")
+    public int tick() {
+        if (!enabled) {
+            multipliers = Map.of();
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        ticks.add(now, 1);
+
+        Map<Long, Integer> idleByZone = new HashMap<>();
+        for (Long courierId : dispatchService.idleCourierIds()) {
+            Optional<LocationPing> at = courierLocationService.latest(courierId);
+            if (at.isPresent()) {
+                for (ZoneArea zone : deliveryZoneService.zonesAt(at.get().lat(), at.get().lng())) {
+                    idleByZone.merge(zone.id(), 1, Integer::sum);
+                }
+            }
+        }
+        idleByZone.forEach((zoneId, idle) -> load(zoneId).idle().add(now, idle));
+
+        long sampled = Math.max(1, ticks.sum(now));
+        Map<Long, Double> fresh = new HashMap<>();
+        // a calm zone is forgotten; an order racing that removal is lost, delaying a surge by at most one order
+        loads.entrySet().removeIf(entry -> {
+            long orders = entry.getValue().orders().sum(now);
+            long idleSamples = entry.getValue().idle().sum(now);
+            if (orders == 0 && idleSamples == 0) {
+                return true;
+            }
+            double multiplier = multiplier(orders, (double) idleSamples / sampled);
+            if (multiplier > 1.0) {
+                fresh.put(entry.getKey(), multiplier);
+            }
+            return false;
+        });
+        multipliers = fresh;
+        return fresh.size();
+    }
+
+    /**
+     * {@code 1 + sensitivity * (pressure - 1)}, where pressure is the window's orders over what the average
+     * number of idle couriers (at least half of one) absorbs; bounded to [1, max] and rounded to the step.
+     */
+    double multiplier(long orders, double averageIdle) {
+        if (orders < minOrders) {
+            return 1.0;
+        }
+        double pressure = orders / (ordersPerCourier * Math.max(averageIdle, 0.5));
+        double raw = Math.min(maxMultiplier, Math.max(1.0, 1.0 + sensitivity * (pressure - 1.0)));
+        return Math.min(maxMultiplier, Math.round(raw / step) * step);
+    }
+
+    private ZoneLoad load(Long zoneId) {
+        return loads.computeIfAbsent(zoneId, id -> new ZoneLoad(newWindow(), newWindow()));
+    }
+
+    private SlidingWindowCounter newWindow() {
+        return new SlidingWindowCounter(Math.max(1, windowMinutes * 60 / bucketSeconds), bucketSeconds * 1000L);
+    }
+
+    private record ZoneLoad(SlidingWindowCounter orders, SlidingWindowCounter idle) {
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.food_delivery.web.controllers;
 
 import com.example.food_delivery.dto.domain.CourierDto;
+import com.example.food_delivery.dto.domain.CourierLocationDto;
+import com.example.food_delivery.dto.domain.CourierStatsDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayCourierDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
+import com.example.food_delivery.dto.domain.LocationPingDto;
 import com.example.food_delivery.dto.domain.OrderDto;
+import com.example.food_delivery.dto.domain.RouteStopDto;
 import com.example.food_delivery.model.domain.User;
 import com.example.food_delivery.model.mapper.BasicMappers;
 import com.example.food_delivery.service.application.CourierApplicationService;
 import com.example.food_delivery.service.application.OrderApplicationService;
+import com.example.food_delivery.web.streaming.OrderTrackingHub;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,10 +27,12 @@ import java.util.List;
 public class CourierController {
     private final CourierApplicationService courierApplicationService;
     private final OrderApplicationService orderApplicationService;
+    private final OrderTrackingHub trackingHub;
 
-    public CourierController(CourierApplicationService courierApplicationService, OrderApplicationService orderApplicationService) {
+    public CourierController(CourierApplicationService courierApplicationService, OrderApplicationService orderApplicationService, OrderTrackingHub trackingHub) {
         this.courierApplicationService = courierApplicationService;
         this.orderApplicationService = orderApplicationService;
+        this.trackingHub = trackingHub;
     }
 
     @GetMapping
@@ -66,6 +76,14 @@ public class CourierController {
         return ResponseEntity.ok(courierApplicationService.assignToOrder(user.getUsername(), orderId));
     }
 
+    // The food has left the restaurant with the courier
+    @PostMapping("/collect/{orderId}")
+    public ResponseEntity<DisplayOrderDto> collectOrder(
+            @PathVariable Long orderId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(courierApplicationService.collectOrder(user.getUsername(), orderId));
+    }
+
     @PostMapping("/complete/{orderId}")
     public ResponseEntity<DisplayOrderDto> completeDelivery(
             @PathVariable Long orderId,
@@ -78,9 +96,49 @@ public class CourierController {
         return ResponseEntity.ok(orderApplicationService.findOrdersForCourier(user.getUsername()));
     }
 
+    // Assignments and status changes for the courier's orders, instead of polling /my-orders
+    @GetMapping(value = "/my-orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyOrders(@AuthenticationPrincipal User user) {
+        return trackingHub.subscribeCourier(user.getUsername());
+    }
+
+    @GetMapping("/my-route")
+    public ResponseEntity<List<RouteStopDto>> getMyRoute(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(courierApplicationService.planRoute(user.getUsername()));
+    }
+
     @GetMapping("/my-delivered-orders")
     public ResponseEntity<List<OrderDto>> getMyDeliveredOrders(@AuthenticationPrincipal User user) {
         return ResponseEntity.ok(courierApplicationService.findDeliveredOrders(user.getUsername()));
     }
 
+    @GetMapping(value = "/my-delivered-orders", params = "limit")
+    public ResponseEntity<CursorPageDto<OrderDto>> getMyDeliveredOrdersPage(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(courierApplicationService.findDeliveredPage(user.getUsername(), after, limit));
+    }
+
+    @GetMapping("/my-stats")
+    public ResponseEntity<CourierStatsDto> getMyStats(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(courierApplicationService.findStats(user.getUsername()));
+    }
+
+    @PostMapping("/location")
+    public ResponseEntity<Integer> recordLocation(
+            @RequestBody List<LocationPingDto> pings,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.accepted().body(courierApplicationService.recordLocation(user.getUsername(), pings));
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<CourierLocationDto>> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "5") double maxKm) {
+        return ResponseEntity.ok(courierApplicationService.findNearby(lat, lng, Math.min(limit, 100), maxKm));
+    }
+
 }
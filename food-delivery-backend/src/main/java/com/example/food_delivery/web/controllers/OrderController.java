@@ -1,14 +1,22 @@
 package com.example.food_delivery.web.controllers;
 
 import com.example.food_delivery.dto.domain.AddressDto;
+import com.example.food_delivery.dto.domain.CartItemDeltaDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.OrderDto;
 import com.example.food_delivery.model.domain.User;
 import com.example.food_delivery.service.application.OrderApplicationService;
+import com.example.food_delivery.web.streaming.NdjsonWriter;
+import com.example.food_delivery.web.streaming.OrderTrackingHub;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,15 +24,32 @@ import java.util.List;
 public class OrderController {
 
     private final OrderApplicationService orderApplicationService;
+    private final NdjsonWriter ndjsonWriter;
+    private final OrderTrackingHub trackingHub;
 
-    public OrderController(OrderApplicationService orderApplicationService) {
+    public OrderController(OrderApplicationService orderApplicationService, NdjsonWriter ndjsonWriter, OrderTrackingHub trackingHub) {
         this.orderApplicationService = orderApplicationService;
+        this.ndjsonWriter = ndjsonWriter;
+        this.trackingHub = trackingHub;
     }
     @GetMapping("/confirmed")
     public ResponseEntity<List<OrderDto>> findConfirmed() {
         return ResponseEntity.ok(orderApplicationService.findAllConfirmed());
     }
 
+    @GetMapping(value = "/confirmed", params = "limit")
+    public ResponseEntity<CursorPageDto<OrderDto>> findConfirmedPage(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit
+    ) {
+        return ResponseEntity.ok(orderApplicationService.findConfirmedPage(after, limit));
+    }
+
+    @GetMapping(value = "/confirmed", params = {"format=ndjson", "!limit"})
+    public void streamConfirmed(HttpServletResponse response) throws IOException {
+        ndjsonWriter.<OrderDto>write(response, orderApplicationService::streamConfirmed);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderDto> findById(@PathVariable Long id) {
         return orderApplicationService
@@ -63,6 +88,14 @@ public class OrderController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/track/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTracking(@PathVariable Long id, @AuthenticationPrincipal User user) {
+        return orderApplicationService
+                .findTrackingSnapshot(id, user.getUsername())
+                .map(snapshot -> ResponseEntity.ok(trackingHub.subscribeOrder(snapshot)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/my-orders")
     public ResponseEntity<List<OrderDto>> findConfirmedOrdersForCustomer(@AuthenticationPrincipal User user) {
         return ResponseEntity.ok(orderApplicationService.findConfirmedOrdersForCustomer(user.getUsername()));
@@ -73,6 +106,13 @@ public class OrderController {
         return ResponseEntity.ok(orderApplicationService.getCart(user.getUsername()));
     }
 
+    @PutMapping("/cart")
+    public ResponseEntity<OrderDto> updateCart(
+            @RequestBody List<CartItemDeltaDto> deltas,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(orderApplicationService.updateCart(user.getUsername(), deltas));
+    }
+
     @PutMapping("/address/{id}")
     public ResponseEntity<OrderDto> updateAddress(
             @PathVariable Long id,
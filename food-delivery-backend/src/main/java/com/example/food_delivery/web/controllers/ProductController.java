@@ -1,27 +1,38 @@
 package com.example.food_delivery.web.controllers;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateProductDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayOrderDto;
 import com.example.food_delivery.dto.domain.DisplayProductDetailsDto;
 import com.example.food_delivery.dto.domain.DisplayProductDto;
+import com.example.food_delivery.model.domain.ProductFilter;
 import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.ProductSort;
 import com.example.food_delivery.service.application.ProductApplicationService;
+import com.example.food_delivery.web.streaming.NdjsonWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductApplicationService productApplicationService;
+    private final NdjsonWriter ndjsonWriter;
 
     public ProductController(
-            ProductApplicationService productApplicationService
+            ProductApplicationService productApplicationService,
+            NdjsonWriter ndjsonWriter
     ) {
         this.productApplicationService = productApplicationService;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @GetMapping
@@ -29,6 +40,27 @@ public class ProductController {
         return ResponseEntity.ok(productApplicationService.findAll());
     }
 
+    // Filters and sort only apply to the paged listing; sort is ID, PRICE_ASC or PRICE_DESC
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDto<DisplayProductDto>> findPage(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long restaurantId,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "ID") ProductSort sort
+    ) {
+        ProductFilter filter = new ProductFilter(category, restaurantId, available, minPrice, maxPrice);
+        return ResponseEntity.ok(productApplicationService.findPage(filter, sort, after, limit));
+    }
+
+    @GetMapping(params = {"format=ndjson", "!limit"})
+    public void streamAll(HttpServletResponse response) throws IOException {
+        ndjsonWriter.<DisplayProductDto>write(response, productApplicationService::streamAll);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DisplayProductDto> findById(@PathVariable Long id) {
         return productApplicationService
@@ -45,6 +77,10 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, CacheStatsDto>> cacheStats() {
+        return ResponseEntity.ok(productApplicationService.cacheStats());
+    }
 
     @PostMapping("/add")
     public ResponseEntity<DisplayProductDto> save(@RequestBody CreateProductDto createMenuItemDto) {
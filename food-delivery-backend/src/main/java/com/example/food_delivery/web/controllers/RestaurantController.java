@@ -1,21 +1,40 @@
 package com.example.food_delivery.web.controllers;
 
+import com.example.food_delivery.dto.domain.CacheStatsDto;
 import com.example.food_delivery.dto.domain.CreateRestaurantDto;
+import com.example.food_delivery.dto.domain.CursorPageDto;
 import com.example.food_delivery.dto.domain.DisplayRestaurantDto;
+import com.example.food_delivery.dto.domain.NearbyRestaurantDto;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
+import com.example.food_delivery.model.enums.RestaurantSort;
+import com.example.food_delivery.service.application.MenuApplicationService;
 import com.example.food_delivery.service.application.RestaurantApplicationService;
+import com.example.food_delivery.web.streaming.NdjsonWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/restaurants")
 public class RestaurantController {
 
     private final RestaurantApplicationService restaurantApplicationService;
+    private final MenuApplicationService menuApplicationService;
+    private final NdjsonWriter ndjsonWriter;
 
-    public RestaurantController(RestaurantApplicationService restaurantApplicationService) {
+    public RestaurantController(RestaurantApplicationService restaurantApplicationService,
+                                MenuApplicationService menuApplicationService,
+                                NdjsonWriter ndjsonWriter) {
         this.restaurantApplicationService = restaurantApplicationService;
+        this.menuApplicationService = menuApplicationService;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @GetMapping
@@ -23,6 +42,49 @@ public class RestaurantController {
         return ResponseEntity.ok(restaurantApplicationService.findAll());
     }
 
+    // Filters and sort only apply to the paged listing; sort is ID, RATING or ETA
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDto<DisplayRestaurantDto>> findPage(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean openNow,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "ID") RestaurantListingSort sort
+    ) {
+        RestaurantFilter filter = new RestaurantFilter(category, openNow, minRating);
+        return ResponseEntity.ok(restaurantApplicationService.findPage(filter, sort, after, limit));
+    }
+
+    @GetMapping(params = {"format=ndjson", "!limit"})
+    public void streamAll(HttpServletResponse response) throws IOException {
+        ndjsonWriter.<DisplayRestaurantDto>write(response, restaurantApplicationService::streamAll);
+    }
+
+    // sort is DISTANCE, ETA or RATING
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyRestaurantDto>> findDeliveringTo(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "DISTANCE") RestaurantSort sort,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(restaurantApplicationService.findDeliveringTo(lat, lng, sort, limit));
+    }
+
+    // Pre-serialized bytes. Spring answers a matching If-None-Match with a bodiless 304 from the ETag
+    @GetMapping("/{id}/menu")
+    public ResponseEntity<byte[]> findMenu(@PathVariable Long id) {
+        return menuApplicationService
+                .findMenu(id)
+                .map(menu -> ResponseEntity.ok()
+                        .eTag(menu.etag())
+                        .cacheControl(CacheControl.noCache())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(menu.json()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DisplayRestaurantDto> findById(@PathVariable Long id) {
         return restaurantApplicationService
@@ -31,6 +93,11 @@ public class RestaurantController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, CacheStatsDto>> cacheStats() {
+        return ResponseEntity.ok(restaurantApplicationService.cacheStats());
+    }
+
     @PostMapping("/add")
     public ResponseEntity<DisplayRestaurantDto> save(@RequestBody CreateRestaurantDto createRestaurantDto) {
         return ResponseEntity.ok(restaurantApplicationService.save(createRestaurantDto));
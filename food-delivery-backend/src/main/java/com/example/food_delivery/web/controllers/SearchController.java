@@ -0,0 +1,39 @@
+package com.example.food_delivery.web.controllers;
+
+import com.example.food_delivery.dto.domain.SearchResultsDto;
+import com.example.food_delivery.dto.domain.SearchSuggestionDto;
+import com.example.food_delivery.service.application.SearchApplicationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchApplicationService searchApplicationService;
+
+    public SearchController(SearchApplicationService searchApplicationService) {
+        this.searchApplicationService = searchApplicationService;
+    }
+
+    @GetMapping
+    public ResponseEntity<SearchResultsDto> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(searchApplicationService.search(q, limit));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SearchSuggestionDto>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(searchApplicationService.autocomplete(q, limit));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.food_delivery.web.exception;
+
+import com.example.food_delivery.model.exceptions.InvalidCoordinatesException;
+import com.example.food_delivery.model.exceptions.InvalidCursorException;
+import com.example.food_delivery.model.exceptions.OrderStatusConflictException;
+import com.example.food_delivery.model.exceptions.ProductOutOfStockException;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+@Hidden
+public class RequestExceptionHandler {
+
+    @ExceptionHandler({InvalidCursorException.class, InvalidCoordinatesException.class})
+    public ResponseEntity<ProblemDetail> handleBadRequest(RuntimeException exception) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage()));
+    }
+
+    @ExceptionHandler({OrderStatusConflictException.class, ProductOutOfStockException.class})
+    public ResponseEntity<ProblemDetail> handleConflict(RuntimeException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, exception.getMessage()));
+    }
+
+    // The order changed between our read and our write (e.g. the cart expired during checkout)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleStaleOrder(ObjectOptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "The order was changed concurrently, please retry."));
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.example.food_delivery.web.filters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Responses recorded per idempotency key. Bounded by entry count (least recently used go first)
+ * and by age, so a retry storm can neither grow it without limit nor pin old responses.
+ */
+@Component
+public class IdempotentResponseStore {
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    /**
+     * Claims the key for a request with the given fingerprint.
+     * @return null when the caller now owns the key and should run the request, otherwise the existing entry
+     */
+    public synchronized Entry claim(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt > now) {
+            return existing;
+        }
+        entries.put(key, new Entry(fingerprint, null, now + ttlMinutes * 60_000));
+        trim();
+        return null;
+    }
+
+    public synchronized void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response == null) {
+            entries.put(key, new Entry(entry.fingerprint, response, entry.expiresAt));
+        }
+    }
+
+    // The request failed in a way worth retrying, so the next attempt runs again
+    public synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response == null) {
+            entries.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:60000}")
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public record Entry(String fingerprint, StoredResponse response, long expiresAt) {
+        public boolean inFlight() {
+            return response == null;
+        }
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.food_delivery.web.streaming;
+
+import com.example.food_delivery.dto.domain.OrderTrackingDeltaDto;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.CourierMovedEvent;
+import com.example.food_delivery.model.events.OrderStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Event subscriptions for order tracking. Emitters are async requests, so an idle
+ * subscriber holds a socket but no thread. Each subscriber has a short queue of its own that a small
+ * sender pool drains, so a slow client only delays itself; one that lets its queue fill up is dropped
+ * and reconnects for a fresh snapshot.
+ */
+@Component
+public class OrderTrackingHub {
+
+    private static final Set<OrderStatus> ON_THE_WAY = Set.of(OrderStatus.PICKED_UP, OrderStatus.EN_ROUTE);
+    private static final Set<OrderStatus> FINAL = Set.of(OrderStatus.DELIVERED, OrderStatus.CANCELED, OrderStatus.EXPIRED);
+
+    private final Map<Long, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byCourier = new ConcurrentHashMap<>();
+    // orders currently being carried, so a courier's position can be forwarded to their customers
+    private final Map<Long, Set<Long>> ordersByCourier = new ConcurrentHashMap<>();
+    private ExecutorService sender;
+
+    @Value("${tracking.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${tracking.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${tracking.max-pending-events:64}")
+    private int maxPendingEvents;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "order-tracking-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribeOrder(OrderTrackingDeltaDto snapshot) {
+        if (FINAL.contains(snapshot.status())) {
+            // nothing more will happen to the order, so the snapshot is all there is to send
+            Subscriber subscriber = new Subscriber(newEmitter(), () -> { });
+            subscriber.enqueue("status", snapshot);
+            subscriber.finish();
+            return subscriber.emitter;
+        }
+        Subscriber subscriber = register(byOrder, snapshot.orderId());
+        if (snapshot.courierId() != null && ON_THE_WAY.contains(snapshot.status())) {
+            ordersByCourier.computeIfAbsent(snapshot.courierId(), id -> ConcurrentHashMap.newKeySet()).add(snapshot.orderId());
+        }
+        subscriber.enqueue("status", snapshot);
+        return subscriber.emitter;
+    }
+
+    public SseEmitter subscribeCourier(String username) {
+        return register(byCourier, username).emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.courierId() != null) {
+            if (ON_THE_WAY.contains(event.status())) {
+                ordersByCourier.computeIfAbsent(event.courierId(), id -> ConcurrentHashMap.newKeySet()).add(event.orderId());
+            } else {
+                ordersByCourier.computeIfPresent(event.courierId(), (id, orders) -> {
+                    orders.remove(event.orderId());
+                    return orders.isEmpty() ? null : orders;
+                });
+            }
+        }
+        OrderTrackingDeltaDto delta = OrderTrackingDeltaDto.status(
+                event.orderId(), event.status(), event.courierId(), event.courierName(), event.at());
+        if (event.courierUsername() != null) {
+            broadcast(byCourier.get(event.courierUsername()), "status", delta);
+        }
+        if (FINAL.contains(event.status())) {
+            Set<Subscriber> done = byOrder.remove(event.orderId());
+            if (done != null) {
+                done.forEach(subscriber -> {
+                    subscriber.enqueue("status", delta);
+                    subscriber.finish();
+                });
+            }
+        } else {
+            broadcast(byOrder.get(event.orderId()), "status", delta);
+        }
+    }
+
+    @EventListener
+    public void onCourierMoved(CourierMovedEvent event) {
+        Set<Long> orders = ordersByCourier.get(event.courierId());
+        if (orders == null) {
+            return;
+        }
+        for (Long orderId : orders) {
+            Set<Subscriber> subscribers = byOrder.get(orderId);
+            if (subscribers != null) {
+                broadcast(subscribers, "location", OrderTrackingDeltaDto.location(orderId, event.lat(), event.lng(), event.at()));
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams and finds clients that went away
+    @Scheduled(fixedDelayString = "${tracking.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        byOrder.values().forEach(subscribers -> broadcast(subscribers, null, null));
+        byCourier.values().forEach(subscribers -> broadcast(subscribers, null, null));
+    }
+
+    public int connections() {
+        return byOrder.values().stream().mapToInt(Set::size).sum()
+                + byCourier.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        byOrder.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        byCourier.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+
+    private <K> Subscriber register(Map<K, Set<Subscriber>> registry, K key) {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter, () -> unregister(registry, key, emitter));
+        registry.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(subscriber.unregister);
+        emitter.onTimeout(subscriber.unregister);
+        emitter.onError(e -> subscriber.unregister.run());
+        return subscriber;
+    }
+
+    private <K> void unregister(Map<K, Set<Subscriber>> registry, K key, SseEmitter emitter) {
+        registry.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.removeIf(s -> s.emitter == emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // a null name is a heartbeat comment
+    private static void broadcast(Set<Subscriber> subscribers, String name, Object data) {
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.enqueue(name, data));
+        }
+    }
+
+    private record Event(String name, Object data) {
+        // builders accumulate their text as they are built, so every send gets a fresh one
+        SseEmitter.SseEventBuilder toBuilder() {
+            return name == null ? SseEmitter.event().comment("") : SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    /**
+     * One client's pending events. At most one sender thread drains it at a time, which keeps its
+     * events in order without holding a thread while the queue is empty.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Runnable unregister;
+        private final BlockingQueue<Event> pending = new ArrayBlockingQueue<>(maxPendingEvents);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean finishing;
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter, Runnable unregister) {
+            this.emitter = emitter;
+            this.unregister = unregister;
+        }
+
+        private void enqueue(String name, Object data) {
+            if (dropped) {
+                return;
+            }
+            if (!pending.offer(new Event(name, data))) {
+                // fell too far behind; closing lets the client reconnect and start from a snapshot
+                drop(null);
+                return;
+            }
+            schedule();
+        }
+
+        private void finish() {
+            finishing = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                    drop(e);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    Event event;
+                    while (!dropped && (event = pending.poll()) != null) {
+                        try {
+                            emitter.send(event.toBuilder());
+                        } catch (IOException | RuntimeException e) {
+                            // a closed emitter, a data conversion failure: either way this stream is done
+                            drop(e);
+                        }
+                    }
+                    if (finishing && !dropped) {
+                        dropped = true;
+                        unregister.run();
+                        emitter.complete();
+                    }
+                } finally {
+                    draining.set(false);
+                }
+                // something may have been queued after the last poll but before the flag was cleared
+            } while (!dropped && (!pending.isEmpty() || finishing) && draining.compareAndSet(false, true));
+        }
+
+        private void drop(Exception cause) {
+            if (dropped) {
+                return;
+            }
+            dropped = true;
+            pending.clear();
+            unregister.run();
+            if (cause == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+}
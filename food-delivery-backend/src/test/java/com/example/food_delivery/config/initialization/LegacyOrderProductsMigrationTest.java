@@ -0,0 +1,117 @@
+package com.example.food_delivery.config.initialization;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy-products;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(LegacyOrderProductsMigration.class)
+class LegacyOrderProductsMigrationTest {
+
+    @Autowired
+    private LegacyOrderProductsMigration migration;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long orderId;
+    private Product pizza;
+    private Product salad;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        User customer = userRepository.save(new User("legacy-customer", "x", "L", "C", "lc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Old menu", ""));
+        pizza = productRepository.save(new Product("Pizza", "", 8.0, 10, restaurant));
+        salad = productRepository.save(new Product("Salad", "", 4.5, 10, restaurant));
+        // what the cart used to store: one join row per unit
+        Order order = new Order(customer);
+        order.setRestaurant(restaurant);
+        order.getProducts().addAll(List.of(pizza, salad, pizza));
+        orderId = orderRepository.save(order).getId();
+    }
+
+    @Test
+    void legacyRowsBecomeMergedItemsAndASecondRunDoesNothing() {
+        assertEquals(1, migration.migrate());
+
+        assertEquals(Map.of(pizza.getId(), 2, salad.getId(), 1), items());
+        assertEquals(0, legacyRows());
+        assertEquals(0, migration.migrate());
+        assertEquals(Map.of(pizza.getId(), 2, salad.getId(), 1), items());
+    }
+
+    @Test
+    void withDualWriteTheJoinRowsStayButAreNotMigratedAgain() {
+        ReflectionTestUtils.setField(migration, "dualWrite", true);
+        try {
+            assertEquals(1, migration.migrate());
+            assertEquals(3, legacyRows());
+
+            // the next startup finds nothing left to scan
+            assertEquals(List.of(), orderRepository.findIdsWithOnlyLegacyProducts(0L, PageRequest.of(0, 10)));
+            assertEquals(0, migration.migrate());
+            assertEquals(Map.of(pizza.getId(), 2, salad.getId(), 1), items());
+        } finally {
+            ReflectionTestUtils.setField(migration, "dualWrite", false);
+        }
+    }
+
+    private Map<Long, Integer> items() {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (OrderItem item : orderRepository.findById(orderId).orElseThrow().getItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            return quantities;
+        });
+    }
+
+    private Integer legacyRows() {
+        return transactionTemplate.execute(status -> orderRepository.findById(orderId).orElseThrow().getProducts().size());
+    }
+}
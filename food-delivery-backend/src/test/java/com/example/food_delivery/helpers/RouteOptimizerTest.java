@@ -0,0 +1,128 @@
+package com.example.food_delivery.helpers;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteOptimizerTest {
+
+    @Test
+    void dropOffNeverComesBeforeItsPickup() {
+        // the drop-off (1) is right next to the start, its pickup (0) far away
+        double[] lat = {42.05, 41.9982};
+        double[] lng = {21.50, 21.4255};
+        int[] requires = {-1, 0};
+
+        int[] route = RouteOptimizer.optimize(41.9981, 21.4254, lat, lng, requires);
+
+        assertArrayEquals(new int[]{0, 1}, route);
+    }
+
+    @Test
+    void findsTheOptimumOnSmallBatches() {
+        Random random = new Random(7);
+        for (int run = 0; run < 300; run++) {
+            Batch batch = Batch.random(random, 4);
+            int[] route = RouteOptimizer.optimize(batch.startLat, batch.startLng, batch.lat, batch.lng, batch.requires);
+
+            assertTrue(RouteOptimizer.feasible(route, batch.requires));
+            double found = RouteOptimizer.length(batch.startLat, batch.startLng, batch.lat, batch.lng, route);
+            assertEquals(bruteForce(batch), found, 1e-9);
+        }
+    }
+
+    @Test
+    void largeBatchesGetAFeasibleRoute() {
+        Random random = new Random(3);
+        for (int run = 0; run < 50; run++) {
+            Batch batch = Batch.random(random, 10);
+            int[] route = RouteOptimizer.optimize(batch.startLat, batch.startLng, batch.lat, batch.lng, batch.requires);
+
+            assertEquals(20, Arrays.stream(route).distinct().count());
+            assertTrue(RouteOptimizer.feasible(route, batch.requires));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void solvesEightStopBatchesWithinAFewMilliseconds() {
+        Random random = new Random(11);
+        Batch[] batches = new Batch[2_000];
+        for (int i = 0; i < batches.length; i++) {
+            batches[i] = Batch.random(random, 4);
+        }
+        for (Batch batch : batches) { // warm-up
+            RouteOptimizer.optimize(batch.startLat, batch.startLng, batch.lat, batch.lng, batch.requires);
+        }
+
+        long[] nanos = new long[batches.length];
+        for (int i = 0; i < batches.length; i++) {
+            Batch batch = batches[i];
+            long began = System.nanoTime();
+            RouteOptimizer.optimize(batch.startLat, batch.startLng, batch.lat, batch.lng, batch.requires);
+            nanos[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[nanos.length / 2] / 1e6;
+        double p99 = nanos[nanos.length * 99 / 100] / 1e6;
+        assertTrue(p99 < 2.0, "p50 " + p50 + " ms, p99 " + p99 + " ms");
+    }
+
+    private static double bruteForce(Batch batch) {
+        int[] route = new int[batch.lat.length];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = i;
+        }
+        double best = Double.MAX_VALUE;
+        do {
+            if (RouteOptimizer.feasible(route, batch.requires)) {
+                best = Math.min(best, RouteOptimizer.length(batch.startLat, batch.startLng, batch.lat, batch.lng, route));
+            }
+        } while (nextPermutation(route));
+        return best;
+    }
+
+    private static boolean nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = a.length - 1;
+        while (a[j] <= a[i]) {
+            j--;
+        }
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            t = a[l];
+            a[l] = a[r];
+            a[r] = t;
+        }
+        return true;
+    }
+
+    // orders stops as pickup 0..k-1 then the matching drop-offs k..2k-1, spread over a ~10 km city
+    private record Batch(double startLat, double startLng, double[] lat, double[] lng, int[] requires) {
+        static Batch random(Random random, int orders) {
+            double[] lat = new double[orders * 2];
+            double[] lng = new double[orders * 2];
+            int[] requires = new int[orders * 2];
+            for (int i = 0; i < orders * 2; i++) {
+                lat[i] = 41.95 + random.nextDouble() * 0.09;
+                lng[i] = 21.38 + random.nextDouble() * 0.12;
+                requires[i] = i < orders ? -1 : i - orders;
+            }
+            return new Batch(41.95 + random.nextDouble() * 0.09, 21.38 + random.nextDouble() * 0.12, lat, lng, requires);
+        }
+    }
+}
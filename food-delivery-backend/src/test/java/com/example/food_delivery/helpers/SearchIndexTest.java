@@ -0,0 +1,127 @@
+package com.example.food_delivery.helpers;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+    private static final float[] WEIGHTS = {3f, 2f, 1f};
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Garden Salad", new String[]{"Garden Salad", "Salads", "Fresh greens, no pizza here"}, WEIGHTS);
+        index.put(2, "Pizza Margherita", new String[]{"Pizza Margherita", "Pizza", "Tomato, mozzarella, basil"}, WEIGHTS);
+        index.put(3, "Lasagne", new String[]{"Lasagne", "Pasta", "Baked layers"}, WEIGHTS);
+
+        List<SearchIndex.Hit> hits = index.search("Pizza", 10);
+
+        assertEquals(List.of(2L, 1L), hits.stream().map(SearchIndex.Hit::key).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        // diacritics and case do not matter
+        assertEquals(3L, index.search("LASÁGNE", 10).get(0).key());
+    }
+
+    @Test
+    void completesTheLastWordAsAPrefix() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Chicken Burger", new String[]{"Chicken Burger", "Burgers", ""}, WEIGHTS);
+        index.put(2, "Chicken Burrito", new String[]{"Chicken Burrito", "Mexican", ""}, WEIGHTS);
+        index.put(3, "Beef Burger", new String[]{"Beef Burger", "Burgers", ""}, WEIGHTS);
+
+        List<Long> keys = index.complete("chicken bur", 10, 16).stream().map(SearchIndex.Hit::key).toList();
+
+        assertEquals(2, keys.size());
+        assertTrue(keys.containsAll(List.of(1L, 2L)));
+        assertEquals(List.of(3L), index.complete("beef bu", 10, 16).stream().map(SearchIndex.Hit::key).toList());
+        assertTrue(index.complete("sushi", 10, 16).isEmpty());
+    }
+
+    @Test
+    void replacingAndRemovingADocumentUpdatesItsTerms() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Pad Thai", new String[]{"Pad Thai", "Thai", ""}, WEIGHTS);
+        index.put(1, "Pho", new String[]{"Pho", "Vietnamese", ""}, WEIGHTS);
+
+        assertTrue(index.search("thai", 10).isEmpty());
+        assertEquals("Pho", index.search("pho", 10).get(0).label());
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(1));
+        assertFalse(index.contains(1));
+        assertTrue(index.search("pho", 10).isEmpty());
+        assertTrue(index.completeTerm("ph", 10).isEmpty());
+    }
+
+    @Test
+    void editsReuseSlotsInsteadOfGrowingTheIndex() {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.put(id, "Dish " + id, new String[]{"Dish " + id, "Mains", ""}, WEIGHTS);
+        }
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 100; id++) {
+                index.put(id, "Dish " + id + " v" + round, new String[]{"Dish " + id, "Mains", "round" + round}, WEIGHTS);
+            }
+            // a product deleted and another one created
+            index.remove(round + 1);
+            index.put(1_000 + round, "Special " + round, new String[]{"Special " + round, "Mains", ""}, WEIGHTS);
+            index.put(round + 1, "Dish " + (round + 1), new String[]{"Dish " + (round + 1), "Mains", ""}, WEIGHTS);
+        }
+
+        assertEquals(150, index.size());
+        assertEquals(150, index.slots());
+        assertEquals(List.of(7L), index.complete("dish 7 ", 10, 16).stream().map(SearchIndex.Hit::key).toList());
+        assertEquals(List.of(1_049L), index.complete("special 49", 10, 16).stream().map(SearchIndex.Hit::key).toList());
+        assertEquals(150, index.search("mains", 200).size());
+        assertTrue(index.search("round48", 10).isEmpty());
+        assertEquals(99, index.search("round49", 200).size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void autocompletesOverHalfAMillionProductsWithinAFewMilliseconds() {
+        String[] dishes = {"pizza", "burger", "burrito", "salad", "pasta", "soup", "sushi", "kebab", "taco", "curry",
+                "noodles", "sandwich", "wrap", "steak", "risotto", "pancakes", "waffles", "dumplings", "ramen", "gyros"};
+        String[] styles = {"chicken", "beef", "vegan", "spicy", "classic", "grilled", "crispy", "cheese", "smoked", "garlic",
+                "mushroom", "bbq", "teriyaki", "pesto", "truffle", "lemon", "honey", "chili", "tuna", "shrimp"};
+        String[] categories = {"Italian", "American", "Mexican", "Asian", "Greek", "Healthy", "Breakfast", "Street food"};
+        Random random = new Random(5);
+        SearchIndex index = new SearchIndex();
+        for (int id = 1; id <= 500_000; id++) {
+            String name = styles[random.nextInt(styles.length)] + " " + dishes[random.nextInt(dishes.length)]
+                    + " " + Integer.toString(random.nextInt(40_000), 36);
+            index.put(id, name, new String[]{name, categories[random.nextInt(categories.length)],
+                    "Made with " + styles[random.nextInt(styles.length)]}, WEIGHTS);
+        }
+
+        String[] inputs = new String[2_000];
+        for (int i = 0; i < inputs.length; i++) {
+            String word = dishes[random.nextInt(dishes.length)];
+            String typed = word.substring(0, 1 + random.nextInt(word.length()));
+            inputs[i] = random.nextBoolean() ? styles[random.nextInt(styles.length)] + " " + typed : typed;
+        }
+        for (String input : inputs) { // warm-up
+            index.complete(input, 10, 16);
+        }
+
+        long[] nanos = new long[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            long began = System.nanoTime();
+            index.complete(inputs[i], 10, 16);
+            nanos[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[nanos.length / 2] / 1e6;
+        double p99 = nanos[nanos.length * 99 / 100] / 1e6;
+        assertTrue(p99 < 10.0, "p50 " + p50 + " ms, p99 " + p99 + " ms");
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.food_delivery.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void oldBucketsLeaveTheWindow() {
+        // 10 buckets of 1 s
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 1_000);
+        long start = 1_700_000_000_000L;
+        counter.add(start, 3);
+        counter.add(start + 4_500, 2);
+        counter.add(start + 9_999, 1);
+
+        assertEquals(6, counter.sum(start + 9_999));
+        assertEquals(3, counter.sum(start + 10_000));
+        // the slot of the first bucket is reused, not added to
+        counter.add(start + 10_000, 5);
+        assertEquals(8, counter.sum(start + 10_000));
+        assertEquals(0, counter.sum(start + 60_000));
+    }
+
+    @Test
+    void concurrentAddsAreNeverLost() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(8, 1);
+        long start = 1_700_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counter.add(start + i % 4, 1);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(800_000, counter.sum(start + 3));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.food_delivery.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialGridTest {
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        Random random = new Random(42);
+        int n = 5_000;
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        SpatialGrid grid = new SpatialGrid(1.0);
+        for (int i = 0; i < n; i++) {
+            // roughly a 40 x 30 km city
+            lat[i] = 41.85 + random.nextDouble() * 0.3;
+            lng[i] = 21.25 + random.nextDouble() * 0.4;
+            grid.put(i, lat[i], lng[i]);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double qLat = 41.85 + random.nextDouble() * 0.3;
+            double qLng = 21.25 + random.nextDouble() * 0.4;
+            List<Long> expected = LongStream.range(0, n).boxed()
+                    .filter(i -> GeoHelper.distanceKm(qLat, qLng, lat[i.intValue()], lng[i.intValue()]) <= 4.0)
+                    .sorted(Comparator.comparingDouble(i -> GeoHelper.distanceKm(qLat, qLng, lat[i.intValue()], lng[i.intValue()])))
+                    .limit(10)
+                    .toList();
+
+            assertEquals(expected, grid.nearest(qLat, qLng, 10, 4.0));
+        }
+    }
+
+    @Test
+    void movingAPointUpdatesItsCell() {
+        SpatialGrid grid = new SpatialGrid(1.0);
+        grid.put(1, 41.99, 21.42);
+        grid.put(1, 42.10, 21.60);
+
+        assertTrue(grid.within(41.99, 21.42, 2.0).isEmpty());
+        assertEquals(List.of(1L), grid.within(42.10, 21.60, 0.5));
+
+        grid.remove(1);
+        assertFalse(grid.contains(1));
+        assertTrue(grid.within(42.10, 21.60, 0.5).isEmpty());
+    }
+}
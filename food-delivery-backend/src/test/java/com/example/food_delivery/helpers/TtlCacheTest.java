@@ -0,0 +1,64 @@
+package com.example.food_delivery.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TtlCacheTest {
+
+    @Test
+    void entriesExpireAndTheLeastRecentlyUsedIsEvicted() {
+        AtomicLong now = new AtomicLong(1_000);
+        AtomicInteger loads = new AtomicInteger();
+        TtlCache<Integer, String> cache = new TtlCache<>(2, 100, now::get);
+
+        cache.get(1, key -> "one#" + loads.incrementAndGet());
+        cache.get(2, key -> "two#" + loads.incrementAndGet());
+        assertEquals("one#1", cache.get(1, key -> "one#" + loads.incrementAndGet()));
+        cache.get(3, key -> "three#" + loads.incrementAndGet());
+        // 2 was the least recently used; the probe is not counted
+        assertNull(cache.getIfPresent(2));
+
+        now.addAndGet(100);
+        assertEquals("one#4", cache.get(1, key -> "one#" + loads.incrementAndGet()));
+
+        TtlCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(1.0 / 5, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void aLoadOverlappingAnInvalidationIsNotCached() {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+
+        String loaded = cache.get(1, key -> {
+            // a writer saves and evicts while this reader still holds the old row
+            cache.invalidate(key);
+            return "old";
+        });
+
+        assertEquals("old", loaded);
+        assertEquals("new", cache.get(1, key -> "new"));
+        assertEquals("new", cache.getIfPresent(1));
+    }
+
+    @Test
+    void invalidateIfDropsMatchingEntriesOnly() {
+        TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+        cache.put(1, "pizzeria");
+        cache.put(2, "grill");
+        cache.put(3, "pizzeria");
+
+        cache.invalidateIf((key, value) -> value.equals("pizzeria"));
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals("grill", cache.getIfPresent(2));
+        assertNull(cache.getIfPresent(3));
+    }
+}
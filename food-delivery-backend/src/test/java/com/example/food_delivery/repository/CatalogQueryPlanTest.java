@@ -0,0 +1,176 @@
+package com.example.food_delivery.repository;
+
+import com.example.food_delivery.model.domain.PageAnchor;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.ProductFilter;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantFilter;
+import com.example.food_delivery.model.enums.ProductSort;
+import com.example.food_delivery.model.enums.RestaurantListingSort;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.food_delivery.repository.CatalogQueryPlanTest$LastStatement"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogQueryPlanTest {
+
+    private static final Pattern SEEK = Pattern.compile("/\\* PUBLIC\\.(\\w+): ([^/]*)");
+    private static final String[] CATEGORIES = {"Pizza", "Burgers", "Sushi", "Salads", "Desserts", "Drinks", "Mexican", "Thai"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Restaurant> restaurants = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        productRepository.deleteAll();
+        restaurantRepository.deleteAll();
+        Random random = new Random(9);
+        for (int r = 0; r < 200; r++) {
+            Restaurant restaurant = new Restaurant("Restaurant " + r, "");
+            restaurant.setCategory(CATEGORIES[r % CATEGORIES.length]);
+            restaurant.setAverageRating(r % 10 == 0 ? null : 1 + random.nextInt(40) / 10.0);
+            restaurant.setDeliveryTimeEstimate(15 + random.nextInt(40));
+            restaurant.setIsOpen(r % 3 != 0);
+            restaurants.add(restaurant);
+        }
+        restaurantRepository.saveAll(restaurants);
+        List<Product> products = new ArrayList<>();
+        for (int p = 0; p < 4_000; p++) {
+            Restaurant restaurant = restaurants.get(p % restaurants.size());
+            // a few unpriced products and plenty of equal prices to exercise the keyset tie-break
+            Double price = p % 50 == 0 ? null : 2.0 + random.nextInt(30);
+            Product product = new Product("Product " + p, "", price, 10, restaurant,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], "");
+            product.setIsAvailable(p % 7 != 0);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void everyFilterIsServedByAnIndex() {
+        Long restaurantId = restaurants.get(0).getId();
+
+        // H2 indexes every foreign key on its own and may seek on that one; Postgres needs ours
+        assertSeeks(products(new ProductFilter(null, restaurantId, true, null, null), ProductSort.PRICE_ASC),
+                null, "RESTAURANT_ID = ?1");
+        assertSeeks(products(new ProductFilter("Sushi", null, null, 5.0, 12.0), ProductSort.ID),
+                "idx_product_category_price", "CATEGORY = ?1");
+        assertSeeks(products(new ProductFilter(null, null, null, 30.0, null), ProductSort.PRICE_DESC),
+                "idx_product_price", "PRICE >= ?1");
+        assertSeeks(restaurants(new RestaurantFilter("Thai", true, 3.5), RestaurantListingSort.RATING),
+                "idx_restaurant_category_rating", "CATEGORY = ?1");
+        assertSeeks(restaurants(new RestaurantFilter(null, null, 3.9), RestaurantListingSort.ID),
+                "idx_restaurant_rating", "AVERAGE_RATING >= ?1");
+    }
+
+    @Test
+    void keysetPagesWalkTheWholeSortedListing() {
+        ProductFilter filter = new ProductFilter(null, null, true, null, null);
+        List<Product> expected = productRepository.findAll().stream()
+                .filter(p -> !Boolean.FALSE.equals(p.getIsAvailable()))
+                .sorted(Comparator.comparing(Product::getPrice, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(Product::getId))
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        PageAnchor anchor = null;
+        List<Product> page;
+        do {
+            page = productRepository.findBy(
+                    CatalogSpecifications.products(filter)
+                            .and(CatalogSpecifications.after(anchor, "price", true))
+                            .and(CatalogSpecifications.ordered("price", true)),
+                    query -> query.limit(97).all());
+            page.forEach(p -> walked.add(p.getId()));
+            if (!page.isEmpty()) {
+                Product last = page.get(page.size() - 1);
+                anchor = new PageAnchor(last.getPrice(), last.getId());
+            }
+        } while (page.size() == 97);
+
+        assertEquals(expected.stream().map(Product::getId).toList(), walked);
+    }
+
+    private String products(ProductFilter filter, ProductSort sort) {
+        Specification<Product> matching = CatalogSpecifications.products(filter)
+                .and(CatalogSpecifications.after(new PageAnchor(10.0, 1L), sort.attribute(), sort.descending()))
+                .and(CatalogSpecifications.ordered(sort.attribute(), sort.descending()));
+        LastStatement.reset();
+        productRepository.findBy(matching, query -> query.project("restaurant").limit(20).all());
+        return LastStatement.first;
+    }
+
+    private String restaurants(RestaurantFilter filter, RestaurantListingSort sort) {
+        Specification<Restaurant> matching = CatalogSpecifications.restaurants(filter)
+                .and(CatalogSpecifications.ordered(sort.attribute(), sort.descending()));
+        LastStatement.reset();
+        restaurantRepository.findBy(matching, query -> query.limit(20).all());
+        return LastStatement.first;
+    }
+
+    // H2 names the index it picked and the conditions it seeks on in a comment under FROM
+    private void assertSeeks(String sql, String index, String condition) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertFalse(plan.contains("tableScan"), plan);
+        Matcher seek = SEEK.matcher(plan);
+        assertTrue(seek.find(), plan);
+        if (index != null) {
+            assertEquals(index, seek.group(1).toLowerCase(), plan);
+        }
+        assertTrue(seek.group(2).contains(condition), "expected a seek on " + condition + " in\n" + plan);
+    }
+
+    // remembers the listing query itself, not the selects that follow it
+    public static class LastStatement implements StatementInspector {
+        static volatile String first;
+
+        static void reset() {
+            first = null;
+        }
+
+        @Override
+        public String inspect(String statement) {
+            if (first == null) {
+                first = statement;
+            }
+            return statement;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.food_delivery.repository;
+
+import com.example.food_delivery.model.domain.*;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.model.mapper.BasicMappers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderListingFetchPlanTest {
+
+    private static final int CUSTOMERS = 20;
+    private static final int COURIERS = 5;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> customers = new ArrayList<>();
+    private final List<Courier> couriers = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    @Test
+    void listingQueriesDoNotGrowWithOrderCount() {
+        seedCatalog();
+
+        seedOrders(0, 10);
+        long[] small = countListingStatements();
+
+        seedOrders(10, 10_000);
+        long[] large = countListingStatements();
+
+        for (int i = 0; i < small.length; i++) {
+            assertEquals(1, small[i]);
+            assertEquals(small[i], large[i]);
+        }
+    }
+
+    private long[] countListingStatements() {
+        return new long[]{
+                count(() -> orderRepository.findConfirmed()),
+                count(() -> orderRepository.findByUsernameAndConfirmed(customers.get(0).getUsername())),
+                count(() -> orderRepository.findByCourierUsername(couriers.get(0).getUser().getUsername()))
+        };
+    }
+
+    // Same shape as a request: load the listing and map every order to its DTO
+    private long count(Supplier<List<Order>> listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            listing.get().forEach(BasicMappers::toDto);
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private void seedCatalog() {
+        for (int r = 0; r < 4; r++) {
+            Restaurant restaurant = restaurantRepository.save(new Restaurant("Restaurant " + r, ""));
+            for (int p = 0; p < 5; p++) {
+                products.add(productRepository.save(new Product("Product " + r + "-" + p, "", 5.0 + p, 100, restaurant)));
+            }
+        }
+        for (int c = 0; c < CUSTOMERS; c++) {
+            customers.add(userRepository.save(new User("customer" + c, "x", "C", "" + c, "c" + c + "@mail.com", Role.ROLE_CUSTOMER)));
+        }
+        for (int c = 0; c < COURIERS; c++) {
+            User user = userRepository.save(new User("courier" + c, "x", "K", "" + c, "k" + c + "@mail.com", Role.ROLE_COURIER));
+            couriers.add(courierRepository.save(new Courier(user, true)));
+        }
+    }
+
+    private void seedOrders(int from, int to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Order> orders = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Order order = new Order(customers.get(i % CUSTOMERS));
+                order.setStatus(i % 3 == 0 ? OrderStatus.PICKED_UP : OrderStatus.CONFIRMED);
+                order.setPlacedAt(Instant.now());
+                if (i % 2 == 0) {
+                    order.setCourier(couriers.get(i % COURIERS));
+                }
+                for (int line = 0; line < 2; line++) {
+                    Product product = products.get((i + line * 7) % products.size());
+                    OrderItem item = new OrderItem();
+                    item.setOrder(order);
+                    item.setProduct(product);
+                    item.setQuantity(1 + line);
+                    item.setUnitPriceSnapshot(product.getPrice());
+                    order.getItems().add(item);
+                }
+                order.setRestaurant(order.getItems().get(0).getProduct().getRestaurant());
+                order.recalcTotals();
+                orders.add(order);
+            }
+            orderRepository.saveAll(orders);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.food_delivery.service.application.impl;
+
+import com.example.food_delivery.dto.domain.LocationPingDto;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.CourierService;
+import com.example.food_delivery.service.domain.CourierStatsService;
+import com.example.food_delivery.service.domain.RoutePlanningService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourierApplicationServiceImplTest {
+
+    private static final List<LocationPingDto> PING = List.of(new LocationPingDto(41.99, 21.43, null));
+
+    private final CourierService courierService = mock(CourierService.class);
+    private final CourierLocationService courierLocationService = mock(CourierLocationService.class);
+    private CourierApplicationServiceImpl courierApplicationService;
+
+    @BeforeEach
+    void setUp() {
+        courierApplicationService = new CourierApplicationServiceImpl(courierService, courierLocationService,
+                mock(RoutePlanningService.class), mock(CourierStatsService.class));
+        ReflectionTestUtils.setField(courierApplicationService, "idCacheMaxEntries", 100);
+        ReflectionTestUtils.setField(courierApplicationService, "idCacheTtlMinutes", 60L);
+        courierApplicationService.createCaches();
+    }
+
+    @Test
+    void theUsernameIsResolvedOnceUntilTheCourierIsDeleted() {
+        when(courierService.findByUsername("kim")).thenReturn(Optional.of(courier(3L)));
+        courierApplicationService.recordLocation("kim", PING);
+        courierApplicationService.recordLocation("kim", PING);
+        verify(courierService, times(1)).findByUsername("kim");
+        verify(courierLocationService, times(2)).record(eq(3L), anyList());
+
+        // the same user signs up as a courier again and gets a new row
+        when(courierService.deleteById(3L)).thenReturn(Optional.empty());
+        courierApplicationService.deleteById(3L);
+        when(courierService.findByUsername("kim")).thenReturn(Optional.of(courier(4L)));
+        courierApplicationService.recordLocation("kim", PING);
+
+        verify(courierLocationService).record(eq(4L), anyList());
+    }
+
+    private static Courier courier(Long id) {
+        Courier courier = new Courier(new User(), true);
+        courier.setId(id);
+        return courier;
+    }
+}
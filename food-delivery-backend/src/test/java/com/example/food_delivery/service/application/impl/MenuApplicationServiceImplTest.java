@@ -0,0 +1,145 @@
+package com.example.food_delivery.service.application.impl;
+
+import com.example.food_delivery.dto.domain.MenuSnapshotDto;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.events.ProductChangedEvent;
+import com.example.food_delivery.service.domain.ProductService;
+import com.example.food_delivery.service.domain.RestaurantService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MenuApplicationServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, List<Product>> menus = new HashMap<>();
+    private final ProductService productService = mock(ProductService.class);
+    private final RestaurantService restaurantService = mock(RestaurantService.class);
+    private final Restaurant pizzeria = restaurant(1L);
+    private final Restaurant grill = restaurant(2L);
+    private MenuApplicationServiceImpl menuService;
+
+    @BeforeEach
+    void setUp() {
+        when(restaurantService.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(
+                Map.of(1L, pizzeria, 2L, grill).get(call.<Long>getArgument(0))));
+        when(productService.findByRestaurantId(anyLong())).thenAnswer(call ->
+                List.copyOf(menus.getOrDefault(call.<Long>getArgument(0), List.of())));
+        menuService = new MenuApplicationServiceImpl(productService, restaurantService, objectMapper);
+        ReflectionTestUtils.setField(menuService, "maxEntries", 100);
+
+        add(product(10L, "Margherita", "Pizza", pizzeria));
+        add(product(11L, "Tiramisu", "Desserts", pizzeria));
+        add(product(12L, "Capricciosa", "Pizza", pizzeria));
+        add(product(20L, "Burger", "Grill", grill));
+    }
+
+    @Test
+    void servesProductsGroupedByCategoryFromOneSnapshot() throws Exception {
+        MenuSnapshotDto first = menuService.findMenu(1L).orElseThrow();
+        MenuSnapshotDto second = menuService.findMenu(1L).orElseThrow();
+
+        assertSame(first, second);
+        verify(productService, times(1)).findByRestaurantId(1L);
+        JsonNode sections = objectMapper.readTree(first.json()).get("sections");
+        assertEquals("Desserts", sections.get(0).get("category").asText());
+        assertEquals("Pizza", sections.get(1).get("category").asText());
+        assertEquals("Capricciosa", sections.get(1).get("items").get(0).get("name").asText());
+        assertTrue(menuService.findMenu(3L).isEmpty());
+    }
+
+    @Test
+    void onlyAChangeToTheRestaurantsProductsReplacesItsSnapshot() {
+        MenuSnapshotDto pizzeriaMenu = menuService.findMenu(1L).orElseThrow();
+        MenuSnapshotDto grillMenu = menuService.findMenu(2L).orElseThrow();
+
+        menuService.onProductChanged(new ProductChangedEvent(20L, 2L));
+        assertSame(pizzeriaMenu, menuService.findMenu(1L).orElseThrow());
+        MenuSnapshotDto rebuilt = menuService.findMenu(2L).orElseThrow();
+        // same products, so a client holding the old ETag still gets a 304
+        assertTrue(rebuilt.version() > grillMenu.version());
+        assertEquals(grillMenu.etag(), rebuilt.etag());
+
+        menus.get(1L).get(0).setPrice(9.5);
+        menuService.onProductChanged(new ProductChangedEvent(10L, 1L));
+        assertNotEquals(pizzeriaMenu.etag(), menuService.findMenu(1L).orElseThrow().etag());
+    }
+
+    @Test
+    void aProductMovedToAnotherRestaurantLeavesBothMenus() {
+        menuService.findMenu(1L);
+        menuService.findMenu(2L);
+
+        Product tiramisu = menus.get(1L).remove(1);
+        tiramisu.setRestaurant(grill);
+        add(tiramisu);
+        menuService.onProductChanged(new ProductChangedEvent(11L, 2L));
+
+        assertEquals(List.of(10L, 12L), ids(menuService.findMenu(1L).orElseThrow()));
+        assertEquals(List.of(11L, 20L), ids(menuService.findMenu(2L).orElseThrow()));
+    }
+
+    @Test
+    void theLeastRecentlyServedMenusAreDroppedOnceTheCacheIsFull() throws Exception {
+        ReflectionTestUtils.setField(menuService, "maxEntries", 2);
+        Restaurant bakery = restaurant(3L);
+        when(restaurantService.findById(3L)).thenReturn(Optional.of(bakery));
+        add(product(30L, "Burek", "Pastry", bakery));
+
+        menuService.findMenu(1L);
+        menuService.findMenu(2L);
+        Thread.sleep(1);
+        menuService.findMenu(1L);
+        menuService.findMenu(3L);
+
+        menuService.findMenu(1L);
+        menuService.findMenu(3L);
+        verify(productService, times(1)).findByRestaurantId(1L);
+        verify(productService, times(1)).findByRestaurantId(3L);
+        menuService.findMenu(2L);
+        verify(productService, times(2)).findByRestaurantId(2L);
+    }
+
+    private static List<Long> ids(MenuSnapshotDto snapshot) {
+        List<Long> ids = new ArrayList<>();
+        for (long id : snapshot.productIds()) {
+            ids.add(id);
+        }
+        return ids.stream().sorted().toList();
+    }
+
+    private void add(Product product) {
+        menus.computeIfAbsent(product.getRestaurant().getId(), id -> new ArrayList<>()).add(product);
+    }
+
+    private static Restaurant restaurant(Long id) {
+        Restaurant restaurant = new Restaurant("Restaurant " + id, "");
+        restaurant.setId(id);
+        return restaurant;
+    }
+
+    private static Product product(Long id, String name, String category, Restaurant restaurant) {
+        Product product = new Product(name, "", 8.0, 10, restaurant, category, "");
+        product.setId(id);
+        return product;
+    }
+}
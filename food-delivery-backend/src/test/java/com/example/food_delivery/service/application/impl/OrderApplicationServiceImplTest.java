@@ -0,0 +1,81 @@
+package com.example.food_delivery.service.application.impl;
+
+import com.example.food_delivery.dto.domain.CursorPageDto;
+import com.example.food_delivery.dto.domain.OrderDto;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.service.domain.CartStoreService;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.EtaService;
+import com.example.food_delivery.service.domain.OrderService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.ProductService;
+import com.example.food_delivery.web.controllers.OrderController;
+import com.example.food_delivery.web.exception.RequestExceptionHandler;
+import com.example.food_delivery.web.streaming.NdjsonWriter;
+import com.example.food_delivery.web.streaming.OrderTrackingHub;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderApplicationServiceImplTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderApplicationServiceImpl orderApplicationService = new OrderApplicationServiceImpl(orderService,
+            mock(ProductService.class), mock(OrderTotalsService.class), mock(ProductRepository.class),
+            mock(CartStoreService.class), mock(CourierLocationService.class), mock(EtaService.class));
+
+    @Test
+    void theNextCursorIsReadBackAsTheLastOrderOnThePage() {
+        Instant placedAt = Instant.parse("2026-03-01T12:00:00.123456Z");
+        when(orderService.findConfirmedPage(null, null, 2)).thenReturn(List.of(order(7L, placedAt), order(8L, placedAt)));
+        CursorPageDto<OrderDto> first = orderApplicationService.findConfirmedPage(null, 2);
+        assertEquals("2026-03-01T12:00:00.123456Z_8", first.nextCursor());
+
+        when(orderService.findConfirmedPage(placedAt, 8L, 2)).thenReturn(List.of(order(9L, placedAt), order(3L, null)));
+        CursorPageDto<OrderDto> second = orderApplicationService.findConfirmedPage(first.nextCursor(), 2);
+        // a page that ends in the orders without a placedAt carries just the id
+        assertEquals("_3", second.nextCursor());
+
+        when(orderService.findConfirmedPage(null, 3L, 2)).thenReturn(List.of(order(4L, null)));
+        assertNull(orderApplicationService.findConfirmedPage(second.nextCursor(), 2).nextCursor());
+    }
+
+    @Test
+    void aMalformedCursorIsABadRequest() throws Exception {
+        MockMvc mvc = MockMvcBuilders
+                .standaloneSetup(new OrderController(orderApplicationService, mock(NdjsonWriter.class), mock(OrderTrackingHub.class)))
+                .setControllerAdvice(new RequestExceptionHandler())
+                .build();
+
+        for (String cursor : List.of("yesterday_8", "2026-03-01T12:00:00Z_x", "8")) {
+            mvc.perform(get("/api/orders/confirmed").param("limit", "2").param("after", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(orderService, never()).findConfirmedPage(any(), any(), anyInt());
+    }
+
+    private static Order order(Long id, Instant placedAt) {
+        Order order = new Order(new User());
+        order.setId(id);
+        order.setRestaurant(new Restaurant("Corner grill", ""));
+        order.setPlacedAt(placedAt);
+        return order;
+    }
+}
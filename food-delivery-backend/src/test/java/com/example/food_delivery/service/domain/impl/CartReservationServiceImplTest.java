@@ -0,0 +1,149 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-sweep;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartReservationServiceImpl.class, StockReservationServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartReservationServiceImplTest {
+
+    @Autowired
+    private CartReservationService cartReservationService;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User customer;
+    private Product pizza;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customer = userRepository.save(new User("sweep-customer", "x", "S", "C", "sc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Sweep diner", ""));
+        // ten on the shelf, three of them held by the cart below
+        pizza = productRepository.save(new Product("Pizza", "", 8.0, 7, restaurant));
+    }
+
+    @Test
+    void anExpiredCartIsExpiredAndItsStockReleasedOnce() {
+        Long cartId = cart(Instant.now().minus(5, ChronoUnit.MINUTES));
+
+        assertEquals(1, cartReservationService.expireStaleCarts());
+        assertEquals(0, cartReservationService.expireStaleCarts());
+
+        assertEquals(OrderStatus.EXPIRED, orderRepository.findById(cartId).orElseThrow().getStatus());
+        assertEquals(10, productRepository.findById(pizza.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void anExtendedCartIsLeftAlone() {
+        Long cartId = cart(Instant.now().plus(30, ChronoUnit.MINUTES));
+
+        assertEquals(0, cartReservationService.expireStaleCarts());
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(cartId).orElseThrow().getStatus());
+        assertEquals(7, productRepository.findById(pizza.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void aCartExtendedAfterTheScanIsNotExpired() {
+        Long cartId = cart(Instant.now().minus(5, ChronoUnit.MINUTES));
+        // the customer touches the cart between the id scan and the lock
+        doAnswer(call -> {
+            Order order = orderRepository.findById(cartId).orElseThrow();
+            order.setExpiresAt(Instant.now().plus(30, ChronoUnit.MINUTES));
+            orderRepository.save(order);
+            return lockExpiredPending(call.getArgument(0), call.getArgument(1));
+        }).when(orderRepository).lockExpiredPending(anyCollection(), any(Instant.class));
+
+        assertEquals(0, cartReservationService.expireStaleCarts());
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(cartId).orElseThrow().getStatus());
+        assertEquals(7, productRepository.findById(pizza.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void aCartBeingCheckedOutIsSkipped() {
+        Long lockedId = cart(Instant.now().minus(5, ChronoUnit.MINUTES));
+        Long idleId = cart(Instant.now().minus(5, ChronoUnit.MINUTES));
+        // H2 has no SKIP LOCKED, so the row a checkout holds is left out the way Postgres would
+        doAnswer(call -> lockExpiredPending(call.getArgument(0), call.getArgument(1)).stream()
+                .filter(order -> !order.getId().equals(lockedId))
+                .toList()).when(orderRepository).lockExpiredPending(anyCollection(), any(Instant.class));
+
+        assertEquals(1, cartReservationService.expireStaleCarts());
+
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(lockedId).orElseThrow().getStatus());
+        assertEquals(OrderStatus.EXPIRED, orderRepository.findById(idleId).orElseThrow().getStatus());
+        assertEquals(7 + 3, productRepository.findById(pizza.getId()).orElseThrow().getQuantity());
+    }
+
+    // the spy cannot call through to a query method, so the real one runs on a plain repository
+    private List<Order> lockExpiredPending(Collection<Long> ids, Instant now) {
+        return new JpaRepositoryFactory(entityManager).getRepository(OrderRepository.class).lockExpiredPending(ids, now);
+    }
+
+    private Long cart(Instant expiresAt) {
+        Order order = new Order(customer);
+        order.setPlacedAt(null);
+        order.setExpiresAt(expiresAt);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(pizza);
+        item.setQuantity(3);
+        item.setUnitPriceSnapshot(8.0);
+        order.getItems().add(item);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.OrderItem;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.exceptions.ProductOutOfStockException;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.service.domain.OrderService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartStoreServiceImplTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final StockReservationService stockReservationService = mock(StockReservationService.class);
+    private final OrderTotalsService orderTotalsService = mock(OrderTotalsService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final Product pizza = product(10L);
+    private CartStoreServiceImpl cartStore;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(call ->
+                call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(orderService.findOrCreatePending("ana")).thenAnswer(call -> order(OrderStatus.PENDING, 3));
+        cartStore = new CartStoreServiceImpl(orderService, orderRepository, stockReservationService,
+                orderTotalsService, transactionTemplate);
+        ReflectionTestUtils.setField(cartStore, "maxCarts", 100);
+        ReflectionTestUtils.setField(cartStore, "idleMinutes", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void anOrderThatCannotGetReturnedUnitsBackKeepsOnlyWhatTheCartHeld() {
+        cartStore.update("ana", cart -> {
+            cart.getItems().get(0).setQuantity(1);
+            return cart;
+        });
+        // paid for while the cart still had three on the row; the two given back were sold since
+        Order row = order(OrderStatus.CONFIRMED, 3);
+        when(orderRepository.lockById(5L)).thenReturn(Optional.of(row));
+        when(stockReservationService.reserve(10L, 2)).thenReturn(Optional.empty());
+
+        assertThrows(ProductOutOfStockException.class, () -> cartStore.evict(5L));
+
+        assertEquals(1, row.getItems().get(0).getQuantity());
+        verify(orderTotalsService).setFeesAndRecalculate(row, row.getRestaurant());
+        verify(orderRepository).save(row);
+        // the cart and its order id are gone, so a second eviction has nothing to do
+        cartStore.evict(5L);
+        verify(orderRepository).lockById(5L);
+    }
+
+    @Test
+    void aCanceledOrderIsNotShrunk() {
+        cartStore.update("ana", cart -> {
+            cart.getItems().get(0).setQuantity(1);
+            return cart;
+        });
+        Order row = order(OrderStatus.CANCELED, 3);
+        when(orderRepository.lockById(5L)).thenReturn(Optional.of(row));
+        when(stockReservationService.reserve(10L, 2)).thenReturn(Optional.empty());
+
+        assertThrows(ProductOutOfStockException.class, () -> cartStore.evict(5L));
+
+        assertEquals(3, row.getItems().get(0).getQuantity());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void oneCartThatCannotBeWrittenDoesNotHoldUpTheOthers() {
+        when(orderService.findOrCreatePending("ben")).thenAnswer(call -> order(6L, OrderStatus.PENDING, 1));
+        cartStore.update("ana", cart -> cart);
+        cartStore.update("ben", cart -> cart);
+        when(orderRepository.lockById(5L)).thenThrow(new IllegalStateException("lock timeout"));
+        Order benRow = order(6L, OrderStatus.PENDING, 1);
+        when(orderRepository.lockById(6L)).thenReturn(Optional.of(benRow));
+
+        assertEquals(1, cartStore.flush());
+        verify(orderRepository).save(benRow);
+
+        // still dirty, so the next round tries again
+        doReturn(Optional.of(order(OrderStatus.PENDING, 3))).when(orderRepository).lockById(5L);
+        assertEquals(1, cartStore.flush());
+    }
+
+    @Test
+    void checkoutKeepsTheUsersCartClosedUntilTheCallersTransactionEnds() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals("confirmed", cartStore.checkout("ana", () -> "confirmed"));
+
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() ->
+                cartStore.read("ana", cart -> cart.getItems().get(0).getQuantity()));
+        assertThrows(TimeoutException.class, () -> read.get(200, TimeUnit.MILLISECONDS));
+        // someone else's cart is not held up
+        when(orderService.findOrCreatePending("ben")).thenAnswer(call -> order(6L, OrderStatus.PENDING, 1));
+        assertEquals(1, CompletableFuture.supplyAsync(() ->
+                cartStore.read("ben", cart -> cart.getItems().get(0).getQuantity())).get(1, TimeUnit.SECONDS));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(3, read.get(1, TimeUnit.SECONDS));
+    }
+
+    private Order order(OrderStatus status, int quantity) {
+        return order(5L, status, quantity);
+    }
+
+    private Order order(Long id, OrderStatus status, int quantity) {
+        Order order = new Order(new User());
+        order.setId(id);
+        order.setStatus(status);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(pizza);
+        item.setQuantity(quantity);
+        item.setUnitPriceSnapshot(10.0);
+        order.getItems().add(item);
+        return order;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product("Pizza", "", 10.0, null, null);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import com.example.food_delivery.service.domain.GeocodingService;
+import com.example.food_delivery.service.domain.OrderService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:confirmed-paging;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OrderServiceImpl.class)
+class ConfirmedOrderPagingTest {
+
+    @MockitoBean
+    private OrderTotalsService orderTotalsService;
+
+    @MockitoBean
+    private StockReservationService stockReservationService;
+
+    @MockitoBean
+    private CartReservationService cartReservationService;
+
+    @MockitoBean
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    // the whole board in the order pages must return it
+    private final List<Long> board = new ArrayList<>();
+    private final List<Long> withoutPlacedAt = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        User customer = userRepository.save(new User("paging-customer", "x", "P", "C", "pc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Paging place", ""));
+        Instant rush = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        // a lunch rush: several orders placed in the same instant, then a couple after it
+        for (int i = 0; i < 4; i++) {
+            board.add(confirmed(customer, restaurant, rush));
+        }
+        board.add(confirmed(customer, restaurant, rush.plusSeconds(1)));
+        board.add(confirmed(customer, restaurant, rush.plusSeconds(1)));
+        // legacy rows come last, by id
+        for (int i = 0; i < 3; i++) {
+            Long id = confirmed(customer, restaurant, null);
+            board.add(id);
+            withoutPlacedAt.add(id);
+        }
+        orderRepository.save(order(customer, restaurant, OrderStatus.PENDING, rush));
+    }
+
+    @Test
+    void pagesWalkTheWholeBoardOnceAcrossEqualPlacedAtAndIntoTheLegacyTail() {
+        List<Long> seen = new ArrayList<>();
+        Instant afterPlacedAt = null;
+        Long afterId = null;
+        List<List<Long>> pages = new ArrayList<>();
+        while (true) {
+            List<Order> page = orderService.findConfirmedPage(afterPlacedAt, afterId, 4);
+            pages.add(page.stream().map(Order::getId).toList());
+            page.forEach(order -> seen.add(order.getId()));
+            if (page.size() < 4) {
+                break;
+            }
+            Order last = page.get(page.size() - 1);
+            afterPlacedAt = last.getPlacedAt();
+            afterId = last.getId();
+        }
+
+        assertEquals(board, seen);
+        // the first page ends inside the rush; the second tops up from the legacy rows
+        assertEquals(board.subList(0, 4), pages.get(0));
+        assertEquals(List.of(board.get(4), board.get(5), withoutPlacedAt.get(0), withoutPlacedAt.get(1)), pages.get(1));
+        assertEquals(List.of(withoutPlacedAt.get(2)), pages.get(2));
+    }
+
+    @Test
+    void aCursorWithoutPlacedAtContinuesInTheLegacyTail() {
+        List<Order> page = orderService.findConfirmedPage(null, withoutPlacedAt.get(0), 10);
+
+        assertEquals(withoutPlacedAt.subList(1, 3), page.stream().map(Order::getId).toList());
+        page.forEach(order -> assertNull(order.getPlacedAt()));
+    }
+
+    @Test
+    void streamingVisitsEveryConfirmedOrderInBoardOrder() {
+        List<Long> seen = new ArrayList<>();
+        orderService.forEachConfirmed(order -> seen.add(order.getId()));
+
+        assertEquals(board, seen);
+    }
+
+    private Long confirmed(User customer, Restaurant restaurant, Instant placedAt) {
+        return orderRepository.save(order(customer, restaurant, OrderStatus.CONFIRMED, placedAt)).getId();
+    }
+
+    private static Order order(User customer, Restaurant restaurant, OrderStatus status, Instant placedAt) {
+        Order order = new Order(customer);
+        order.setRestaurant(restaurant);
+        order.setStatus(status);
+        order.setPlacedAt(placedAt);
+        return order;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CourierService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:couriers;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourierServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourierAssignmentContentionTest {
+
+    private static final int COURIERS = 50;
+    private static final int ORDERS = 1_000;
+
+    @Autowired
+    private CourierService courierService;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void everyOrderEndsUpWithExactlyOneCourier() throws Exception {
+        User customer = userRepository.save(new User("customer", "x", "C", "C", "c@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Busy kitchen", ""));
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(customer);
+            order.setRestaurant(restaurant);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setPlacedAt(Instant.now());
+            orders.add(order);
+        }
+        List<Long> orderIds = orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+        List<String> couriers = new ArrayList<>();
+        for (int c = 0; c < COURIERS; c++) {
+            User user = userRepository.save(new User("courier" + c, "x", "K", "" + c, "k" + c + "@mail.com", Role.ROLE_COURIER));
+            courierRepository.save(new Courier(user, true));
+            couriers.add(user.getUsername());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(COURIERS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, AtomicInteger> winsPerOrder = new ConcurrentHashMap<>();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (String courier : couriers) {
+            List<Long> candidates = new ArrayList<>(orderIds);
+            Collections.shuffle(candidates);
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (Long orderId : candidates) {
+                    // like a board refresh: orders already handed out are no longer offered
+                    if (winsPerOrder.containsKey(orderId)) {
+                        continue;
+                    }
+                    attempts.incrementAndGet();
+                    try {
+                        courierService.assignToOrder(courier, orderId);
+                    } catch (RuntimeException lost) {
+                        conflicts.incrementAndGet();
+                        continue;
+                    }
+                    winsPerOrder.computeIfAbsent(orderId, id -> new AtomicInteger()).incrementAndGet();
+                    courierService.completeDelivery(courier, orderId);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(5, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(ORDERS, winsPerOrder.size());
+        winsPerOrder.values().forEach(wins -> assertEquals(1, wins.get()));
+        assertEquals(attempts.get() - ORDERS, conflicts.get());
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            assertEquals(OrderStatus.DELIVERED, order.getStatus());
+            assertNotNull(order.getCourier());
+        }
+        courierRepository.findAll().forEach(c -> assertEquals(true, c.getActive()));
+    }
+}
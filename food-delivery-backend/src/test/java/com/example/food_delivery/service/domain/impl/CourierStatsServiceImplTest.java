@@ -0,0 +1,120 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.CourierStats;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CourierService;
+import com.example.food_delivery.service.domain.CourierStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import({CourierServiceImpl.class, CourierStatsServiceImpl.class})
+class CourierStatsServiceImplTest extends GeoJpaTest {
+
+    @Autowired
+    private CourierService courierService;
+
+    @Autowired
+    private CourierStatsService courierStatsService;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void everyCompletedDeliveryIsAddedToTheCourierTotals() {
+        User customer = userRepository.save(new User("stats-customer", "x", "C", "C", "sc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = new Restaurant("Corner grill", "");
+        restaurant.setCoordinates(new Coordinates(LAT, LNG));
+        restaurant = restaurantRepository.save(restaurant);
+        User courierUser = userRepository.save(new User("stats-courier", "x", "K", "K", "sk@mail.com", Role.ROLE_COURIER));
+        Courier courier = courierRepository.save(new Courier(courierUser, true));
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // ~2.5 km east of the restaurant
+            Order order = order(customer, restaurant, OrderStatus.CONFIRMED, 2.5);
+            orderIds.add(orderRepository.save(order).getId());
+        }
+        for (Long orderId : orderIds) {
+            courierService.assignToOrder("stats-courier", orderId);
+            courierService.completeDelivery("stats-courier", orderId);
+        }
+
+        CourierStats stats = courierStatsService.findByCourierId(courier.getId());
+        assertEquals(3, stats.getTotalDeliveries());
+        assertEquals(7.5, stats.getTotalEarnings(), 1e-9);
+        assertEquals(7.5, stats.getTotalDistanceKm(), 0.2);
+        assertEquals(LocalDate.now(), stats.getDayBucket());
+        assertEquals(3, stats.getDayDeliveries());
+        assertEquals(3, stats.getWeekDeliveries());
+
+        List<Order> first = courierStatsService.findHistoryPage(courier.getId(), null, 2);
+        List<Order> rest = courierStatsService.findHistoryPage(courier.getId(), first.get(1).getId(), 2);
+        assertEquals(List.of(orderIds.get(2), orderIds.get(1)), first.stream().map(Order::getId).toList());
+        assertEquals(List.of(orderIds.get(0)), rest.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void backfillsCouriersThatDeliveredBeforeStatsWereKept() {
+        User customer = userRepository.save(new User("legacy-customer", "x", "C", "C", "lc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Old diner", ""));
+        User courierUser = userRepository.save(new User("legacy-courier", "x", "K", "K", "lk@mail.com", Role.ROLE_COURIER));
+        Courier courier = courierRepository.save(new Courier(courierUser, true));
+        for (int i = 0; i < 4; i++) {
+            Order order = order(customer, restaurant, OrderStatus.DELIVERED, 0);
+            order.setCourier(courier);
+            order.setDeliveredAt(LocalDateTime.now().minusDays(i * 10L));
+            orderRepository.save(order);
+        }
+
+        assertEquals(1, courierStatsService.backfill());
+        assertEquals(0, courierStatsService.backfill());
+
+        CourierStats stats = courierStatsService.findByCourierId(courier.getId());
+        assertEquals(4, stats.getTotalDeliveries());
+        assertEquals(10.0, stats.getTotalEarnings(), 1e-9);
+        // summed oldest first, so the day counter ends on the latest delivery, not the highest order id
+        assertEquals(LocalDate.now(), stats.getDayBucket());
+        assertEquals(1, stats.getDayDeliveries());
+    }
+
+    private Order order(User customer, Restaurant restaurant, OrderStatus status, double kmEast) {
+        Order order = new Order(customer);
+        order.setRestaurant(restaurant);
+        order.setStatus(status);
+        order.setPlacedAt(Instant.now());
+        order.setDeliveryFee(2.5);
+        Address address = new Address("Street 1", null, "Skopje", "1000", "MK");
+        address.setCoordinates(kmEast(kmEast));
+        order.setDeliveryAddress(address);
+        return order;
+    }
+}
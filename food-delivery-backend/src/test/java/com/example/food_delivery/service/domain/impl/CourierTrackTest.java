@@ -0,0 +1,53 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.LocationPing;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CourierTrackTest {
+
+    @Test
+    void keepsOnlyTheLastFixesInOrder() {
+        CourierTrack track = new CourierTrack(3);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(track.add(i, i, i * 1000L));
+        }
+
+        List<LocationPing> trail = track.snapshot();
+        assertEquals(3, trail.size());
+        assertEquals(3.0, trail.get(0).lat());
+        assertEquals(5.0, track.latest().lat());
+    }
+
+    @Test
+    void dropsLateAndDuplicateFixes() {
+        CourierTrack track = new CourierTrack(4);
+        track.add(1, 1, 2000);
+
+        assertFalse(track.add(2, 2, 2000));
+        assertFalse(track.add(3, 3, 1000));
+        assertEquals(1, track.snapshot().size());
+    }
+
+    @Test
+    void drainThinsTheTrailAndNeverRepeatsAFix() {
+        CourierTrack track = new CourierTrack(16);
+        for (int s = 0; s <= 10; s++) {
+            track.add(s, s, s * 3000L); // every 3 s
+        }
+
+        List<LocationPing> first = track.drainSampled(10_000);
+        // 0 s, 12 s, 24 s and the newest fix at 30 s
+        assertEquals(List.of(0L, 12_000L, 24_000L, 30_000L),
+                first.stream().map(p -> p.recordedAt().toEpochMilli()).toList());
+        assertTrue(track.drainSampled(10_000).isEmpty());
+
+        track.add(11, 11, 33_000);
+        assertEquals(1, track.drainSampled(10_000).size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.DeliveryZone;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.ZoneArea;
+import com.example.food_delivery.repository.DeliveryZoneRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(DeliveryZoneServiceImpl.class)
+class DeliveryZoneServiceImplTest extends GeoJpaTest {
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    @Autowired
+    private DeliveryZoneRepository deliveryZoneRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void picksTheCheapestZoneThatContainsTheDropOffAndFollowsZoneChanges() {
+        Restaurant restaurant = new Restaurant("Two zones", "");
+        restaurant.getDeliveryZones().add(zone(restaurant, "wide", 5, 3.0));
+        restaurant.getDeliveryZones().add(zone(restaurant, "near", 1, 1.0));
+        restaurant = restaurantRepository.save(restaurant);
+        Long restaurantId = restaurant.getId();
+        deliveryZoneService.rebuild();
+
+        assertEquals(List.of("near", "wide"), names(deliveryZoneService.zonesContaining(restaurantId, LAT, east(0.5))));
+        assertEquals(List.of("wide"), names(deliveryZoneService.zonesContaining(restaurantId, LAT, east(3))));
+        assertTrue(deliveryZoneService.zonesContaining(restaurantId, LAT, east(8)).isEmpty());
+        // outside every zone the restaurant's first zone still prices the order
+        assertEquals("wide", deliveryZoneService.resolve(restaurantId, kmEast(8)).orElseThrow().name());
+        assertEquals("wide", deliveryZoneService.resolve(restaurantId, null).orElseThrow().name());
+
+        // saved and removed zones reach the index without a rebuild
+        DeliveryZone cheaper = deliveryZoneRepository.save(zone(restaurant, "promo", 4, 0.5));
+        assertEquals(List.of("promo", "wide"), names(deliveryZoneService.zonesContaining(restaurantId, LAT, east(3))));
+        cheaper.setDeliveryFee(9.0);
+        deliveryZoneRepository.save(cheaper);
+        assertEquals(List.of("wide", "promo"), names(deliveryZoneService.zonesContaining(restaurantId, LAT, east(3))));
+        deliveryZoneRepository.delete(cheaper);
+        assertEquals(List.of("wide"), names(deliveryZoneService.zonesContaining(restaurantId, LAT, east(3))));
+    }
+
+    @Test
+    void polygonZonesFollowTheirOutline() {
+        // an L-shaped zone: 4 km square around the center with its north-east quarter cut out
+        Restaurant restaurant = new Restaurant("Polygon", "");
+        DeliveryZone shaped = zone(restaurant, "L", 0, 1.0);
+        shaped.setRadiusKm(null);
+        shaped.setCenter(null);
+        double dLat = 2 / KM_PER_DEGREE_LAT;
+        double dLng = 2 / KM_PER_DEGREE_LNG;
+        double[][] outline = {
+                {LAT - dLat, LNG - dLng}, {LAT - dLat, LNG + dLng}, {LAT, LNG + dLng},
+                {LAT, LNG}, {LAT + dLat, LNG}, {LAT + dLat, LNG - dLng}};
+        for (double[] vertex : outline) {
+            shaped.getBoundary().add(new Coordinates(vertex[0], vertex[1]));
+        }
+        restaurant.getDeliveryZones().add(shaped);
+        // a circle covering the cut-out corner at a higher fee
+        DeliveryZone ring = zone(restaurant, "ring", 5, 4.0);
+        restaurant.getDeliveryZones().add(ring);
+        Long restaurantId = restaurantRepository.save(restaurant).getId();
+        deliveryZoneService.rebuild();
+
+        assertEquals(List.of("L", "ring"), names(deliveryZoneService.zonesContaining(restaurantId, LAT - dLat / 2, LNG + dLng / 2)));
+        assertEquals(List.of("L", "ring"), names(deliveryZoneService.zonesContaining(restaurantId, LAT + dLat / 2, LNG - dLng / 2)));
+        assertEquals(List.of("ring"), names(deliveryZoneService.zonesContaining(restaurantId, LAT + dLat / 2, LNG + dLng / 2)));
+        assertEquals("ring", deliveryZoneService.resolve(restaurantId, new Coordinates(LAT + dLat / 2, LNG + dLng / 2)).orElseThrow().name());
+
+        // agrees with the exact test on a dense sample, edges included
+        ZoneArea area = deliveryZoneService.zonesOf(restaurantId).stream().filter(z -> z.name().equals("L")).findFirst().orElseThrow();
+        Random random = new Random(17);
+        for (int i = 0; i < 20_000; i++) {
+            double lat = LAT - 1.5 * dLat + random.nextDouble() * 3 * dLat;
+            double lng = LNG - 1.5 * dLng + random.nextDouble() * 3 * dLng;
+            assertEquals(area.contains(lat, lng), names(deliveryZoneService.zonesContaining(restaurantId, lat, lng)).contains("L"));
+        }
+    }
+
+    @Test
+    void overlappingRebuildsKeepEveryZoneChange() throws Exception {
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Busy edits", ""));
+        Long restaurantId = restaurant.getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> rebuilds = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            rebuilds.add(pool.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    deliveryZoneService.rebuild();
+                }
+                return null;
+            }));
+        }
+        for (int z = 0; z < 20; z++) {
+            deliveryZoneRepository.save(zone(restaurant, "z" + z, 1, 1.0 + z));
+        }
+        for (Future<?> rebuild : rebuilds) {
+            rebuild.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(20, deliveryZoneService.zonesOf(restaurantId).size());
+        assertEquals("z0", deliveryZoneService.resolve(restaurantId, new Coordinates(LAT, LNG)).orElseThrow().name());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void answersLookupsInMicroseconds() {
+        Random random = new Random(5);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int r = 0; r < 1_000; r++) {
+            Restaurant restaurant = new Restaurant("Kitchen " + r, "");
+            double lat = LAT - 0.1 + random.nextDouble() * 0.2;
+            double lng = LNG - 0.15 + random.nextDouble() * 0.3;
+            for (int z = 0; z < 3; z++) {
+                DeliveryZone zone = zone(restaurant, "z" + z, 2 + z * 2, 1.0 + z);
+                zone.setCenter(new Coordinates(lat, lng));
+                restaurant.getDeliveryZones().add(zone);
+            }
+            restaurants.add(restaurant);
+        }
+        restaurantRepository.saveAll(restaurants);
+        deliveryZoneService.rebuild();
+
+        int lookups = 100_000;
+        double[] lat = new double[lookups];
+        double[] lng = new double[lookups];
+        long[] restaurantIds = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            lat[i] = LAT - 0.1 + random.nextDouble() * 0.2;
+            lng[i] = LNG - 0.15 + random.nextDouble() * 0.3;
+            restaurantIds[i] = restaurants.get(random.nextInt(restaurants.size())).getId();
+        }
+        for (int i = 0; i < lookups; i++) { // warm-up
+            deliveryZoneService.zonesContaining(restaurantIds[i], lat[i], lng[i]);
+        }
+        long[] nanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long began = System.nanoTime();
+            deliveryZoneService.zonesContaining(restaurantIds[i], lat[i], lng[i]);
+            nanos[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[lookups / 2] / 1e3;
+        double p99 = nanos[lookups * 99 / 100] / 1e3;
+        assertTrue(p99 < 200, "p50 " + p50 + " us, p99 " + p99 + " us");
+
+        // the checkout path allocates nothing but the Optional around its answer
+        Coordinates[] dropOffs = new Coordinates[lookups];
+        Long[] boxedIds = new Long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            dropOffs[i] = new Coordinates(lat[i], lng[i]);
+            boxedIds[i] = restaurantIds[i];
+        }
+        for (int i = 0; i < lookups; i++) { // warm-up
+            deliveryZoneService.resolve(boxedIds[i], dropOffs[i]);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < lookups; i++) {
+            deliveryZoneService.resolve(boxedIds[i], dropOffs[i]);
+        }
+        double bytesPerLookup = (double) (threads.getCurrentThreadAllocatedBytes() - before) / lookups;
+        assertTrue(bytesPerLookup <= 17, bytesPerLookup + " bytes per lookup");
+    }
+
+    private static DeliveryZone zone(Restaurant restaurant, String name, double radiusKm, double fee) {
+        DeliveryZone zone = new DeliveryZone();
+        zone.setRestaurant(restaurant);
+        zone.setName(name);
+        zone.setRadiusKm(radiusKm);
+        zone.setCenter(new Coordinates(LAT, LNG));
+        zone.setDeliveryFee(fee);
+        return zone;
+    }
+
+    private static List<String> names(List<ZoneArea> zones) {
+        return zones.stream().map(ZoneArea::name).toList();
+    }
+}
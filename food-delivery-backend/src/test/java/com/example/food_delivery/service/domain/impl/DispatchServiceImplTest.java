@@ -0,0 +1,177 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.LocationPing;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.CourierAvailableEvent;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.model.events.RestaurantChangedEvent;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.CourierLocationService;
+import com.example.food_delivery.service.domain.CourierService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DispatchServiceImplTest {
+
+    private static final double NaN = Double.NaN;
+
+    @Test
+    void eachOrderGetsTheNearestFreeCourier() {
+        // two restaurants ~5 km apart, one courier next to each
+        double[] pickupLat = {41.9981, 41.9981};
+        double[] pickupLng = {21.4254, 21.4854};
+        double[] courierLat = {41.9982, 41.9980};
+        double[] courierLng = {21.4850, 21.4250};
+
+        int[] match = DispatchServiceImpl.match(pickupLat, pickupLng, new double[]{0, 0},
+                courierLat, courierLng, reach(courierLat.length, 15), 20, 0.5, 3);
+
+        assertArrayEquals(new int[]{1, 0}, match);
+    }
+
+    @Test
+    void longWaitingOrderWinsACloseContest() {
+        // one courier between two restaurants, slightly closer to the second
+        double[] pickupLat = {41.9981, 41.9981};
+        double[] pickupLng = {21.4200, 21.4300};
+        double[] courierLat = {41.9981};
+        double[] courierLng = {21.4260};
+
+        int[] fresh = DispatchServiceImpl.match(pickupLat, pickupLng, new double[]{0, 0},
+                courierLat, courierLng, reach(courierLat.length, 15), 20, 0.5, 3);
+        int[] waiting = DispatchServiceImpl.match(pickupLat, pickupLng, new double[]{20, 0},
+                courierLat, courierLng, reach(courierLat.length, 15), 20, 0.5, 3);
+
+        assertArrayEquals(new int[]{-1, 0}, fresh);
+        assertArrayEquals(new int[]{0, -1}, waiting);
+    }
+
+    @Test
+    void couriersBeyondTheMaximumPickupDistanceAreNotUsed() {
+        double[] pickupLat = {41.9981};
+        double[] pickupLng = {21.4254};
+        // ~200 km away, and one with no known position
+        double[] courierLat = {40.2, NaN};
+        double[] courierLng = {21.4, NaN};
+
+        int[] match = DispatchServiceImpl.match(pickupLat, pickupLng, new double[]{0},
+                courierLat, courierLng, reach(courierLat.length, 15), 20, 0.5, 3);
+
+        assertArrayEquals(new int[]{1}, match);
+    }
+
+    @Test
+    void batchingCourierOnlyTakesOrdersNearTheirPickup() {
+        // the courier is anchored at the second restaurant; the long-waiting first order is ~2.5 km away
+        double[] pickupLat = {41.9981, 41.9981};
+        double[] pickupLng = {21.4554, 21.4254};
+        double[] courierLat = {41.9981};
+        double[] courierLng = {21.4254};
+
+        int[] match = DispatchServiceImpl.match(pickupLat, pickupLng, new double[]{30, 0},
+                courierLat, courierLng, new double[]{1.0}, 20, 0.5, 3);
+
+        assertArrayEquals(new int[]{-1, 0}, match);
+    }
+
+    @Test
+    void aFailedClaimPutsBackWhicheverSideIsStillValid() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        CourierRepository courierRepository = mock(CourierRepository.class);
+        CourierService courierService = mock(CourierService.class);
+        CourierLocationService courierLocationService = mock(CourierLocationService.class);
+        when(courierLocationService.latest(anyLong())).thenReturn(Optional.empty());
+        when(courierService.assignToOrder(anyString(), anyLong())).thenThrow(new IllegalStateException("connection reset"));
+        Order order = new Order(new User());
+        order.setStatus(OrderStatus.CONFIRMED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        Courier offShift = new Courier(new User(), false);
+        when(courierRepository.findById(7L)).thenReturn(Optional.of(offShift));
+        when(courierRepository.findById(8L)).thenReturn(Optional.of(new Courier(new User(), true)));
+
+        DispatchServiceImpl dispatch = dispatch(orderRepository, courierRepository,
+                mock(RestaurantRepository.class), courierService, courierLocationService);
+        dispatch.enqueue(new OrderConfirmedEvent(1L, "customer", Instant.now(), null, null, List.of()));
+        dispatch.courierAvailable(new CourierAvailableEvent(7L, "off-shift"));
+
+        assertEquals(0, dispatch.dispatchRound());
+        // the order is still waiting for a courier, the courier has gone off shift
+        assertEquals(List.of(), dispatch.idleCourierIds());
+
+        dispatch.courierAvailable(new CourierAvailableEvent(8L, "on-shift"));
+        assertEquals(0, dispatch.dispatchRound());
+        verify(courierService, times(1)).assignToOrder("on-shift", 1L);
+        assertEquals(List.of(8L), dispatch.idleCourierIds());
+    }
+
+    @Test
+    void aRestaurantThatMovedIsLocatedAgain() {
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        CourierService courierService = mock(CourierService.class);
+        CourierLocationService courierLocationService = mock(CourierLocationService.class);
+        when(courierLocationService.latest(8L)).thenReturn(Optional.of(new LocationPing(42.0, 21.4, Instant.now())));
+        // about 55 km from the courier, out of reach
+        Restaurant restaurant = new Restaurant("Corner grill", "");
+        restaurant.setCoordinates(new Coordinates(42.5, 21.4));
+        when(restaurantRepository.findById(2L)).thenReturn(Optional.of(restaurant));
+        DispatchServiceImpl dispatch = dispatch(mock(OrderRepository.class), mock(CourierRepository.class),
+                restaurantRepository, courierService, courierLocationService);
+        dispatch.enqueue(new OrderConfirmedEvent(1L, "customer", Instant.now(), null, null,
+                List.of(new OrderConfirmedEvent.Line(10L, 2L, 1, 8.0))));
+        dispatch.courierAvailable(new CourierAvailableEvent(8L, "kim"));
+        assertEquals(0, dispatch.dispatchRound());
+
+        // the pin is fixed to a spot next to the courier
+        restaurant.setCoordinates(new Coordinates(42.01, 21.4));
+        dispatch.dispatchRound();
+        verify(courierService, never()).assignToOrder(anyString(), anyLong());
+
+        dispatch.onRestaurantChanged(new RestaurantChangedEvent(2L));
+        dispatch.dispatchRound();
+        verify(courierService).assignToOrder("kim", 1L);
+        verify(restaurantRepository, times(2)).findById(2L);
+    }
+
+    private static DispatchServiceImpl dispatch(OrderRepository orderRepository, CourierRepository courierRepository,
+                                                RestaurantRepository restaurantRepository, CourierService courierService,
+                                                CourierLocationService courierLocationService) {
+        DispatchServiceImpl dispatch = new DispatchServiceImpl(orderRepository, courierRepository,
+                restaurantRepository, courierService, courierLocationService);
+        ReflectionTestUtils.setField(dispatch, "enabled", true);
+        ReflectionTestUtils.setField(dispatch, "resyncIntervalMs", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(dispatch, "lastResync", System.currentTimeMillis());
+        ReflectionTestUtils.setField(dispatch, "maxOrdersPerRound", 10);
+        ReflectionTestUtils.setField(dispatch, "courierSpeedKmh", 20.0);
+        ReflectionTestUtils.setField(dispatch, "maxPickupKm", 15.0);
+        ReflectionTestUtils.setField(dispatch, "unknownPositionKm", 3.0);
+        return dispatch;
+    }
+
+    private static double[] reach(int couriers, double km) {
+        double[] reach = new double[couriers];
+        Arrays.fill(reach, km);
+        return reach;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.model.events.OrderDeliveredEvent;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.EtaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eta;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EtaServiceImpl.class, DeliveryZoneServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EtaServiceImplTest {
+
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void learnsFromPastDeliveriesAndKeepsLearningOnEachNewOne() {
+        User customer = userRepository.save(new User("eta-customer", "x", "C", "C", "eta@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant kitchen = restaurantWithEstimate("Steady kitchen", 50);
+        Restaurant newcomer = restaurantWithEstimate("Newcomer", 45);
+
+        // 12 minutes in the kitchen and 18 on the road, every time
+        Instant now = Instant.now();
+        List<Order> delivered = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Instant placedAt = now.minus(Duration.ofHours(i + 1));
+            Order order = new Order(customer);
+            order.setRestaurant(kitchen);
+            order.setStatus(OrderStatus.DELIVERED);
+            order.setPlacedAt(placedAt);
+            order.setPickedUpAt(placedAt.plus(Duration.ofMinutes(12)));
+            order.setDeliveredAt(LocalDateTime.ofInstant(placedAt.plus(Duration.ofMinutes(30)), ZoneId.systemDefault()));
+            delivered.add(order);
+        }
+        orderRepository.saveAll(delivered);
+
+        assertEquals(20, etaService.reload());
+        assertEquals(30, etaService.estimateMinutes(kitchen));
+        // no history of its own yet, so its configured estimate still stands
+        assertEquals(45, etaService.estimateMinutes(newcomer));
+
+        for (int i = 0; i < 5; i++) {
+            Instant placedAt = now.minus(Duration.ofMinutes(40 + i));
+            etaService.recordDelivery(new OrderDeliveredEvent((long) -i, newcomer.getId(), null, null, null, 0, 0,
+                    placedAt, placedAt.plus(Duration.ofMinutes(12)), placedAt.plus(Duration.ofMinutes(30))));
+        }
+        assertEquals(30, etaService.estimateMinutes(newcomer));
+    }
+
+    @Test
+    void pickedUpOrdersAreExpectedOneRideAfterPickup() {
+        Restaurant kitchen = restaurantWithEstimate("Quick kitchen", 40);
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            Instant placedAt = now.minus(Duration.ofMinutes(60 + i));
+            etaService.recordDelivery(new OrderDeliveredEvent((long) i, kitchen.getId(), null, null, null, 0, 0,
+                    placedAt, placedAt.plus(Duration.ofMinutes(10)), placedAt.plus(Duration.ofMinutes(25))));
+        }
+
+        Order order = new Order();
+        order.setRestaurant(kitchen);
+        order.setStatus(OrderStatus.PICKED_UP);
+        order.setPlacedAt(now.minus(Duration.ofMinutes(20)));
+        order.setPickedUpAt(now.minus(Duration.ofMinutes(5)));
+
+        Instant eta = etaService.estimateDeliveryAt(order).orElseThrow();
+        long minutesLeft = Duration.between(now, eta).toMinutes();
+        assertTrue(minutesLeft >= 9 && minutesLeft <= 10, "minutes left " + minutesLeft);
+
+        order.setStatus(OrderStatus.CANCELED);
+        assertTrue(etaService.estimateDeliveryAt(order).isEmpty());
+    }
+
+    private Restaurant restaurantWithEstimate(String name, int minutes) {
+        Restaurant restaurant = new Restaurant(name, "");
+        restaurant.setDeliveryTimeEstimate(minutes);
+        return restaurantRepository.save(restaurant);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Coordinates;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JPA test scaffold for the geo services: an H2 database of its own per test context, committed writes
+ * (the services read through their own transactions), and points placed by kilometers around one spot.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:geo-${random.uuid};DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class GeoJpaTest {
+
+    static final double LAT = 41.9981;
+    static final double LNG = 21.4254;
+    // one degree of longitude is ~82.7 km at this latitude, one of latitude ~111.32 km anywhere
+    static final double KM_PER_DEGREE_LNG = 82.7;
+    static final double KM_PER_DEGREE_LAT = 111.32;
+
+    static double east(double km) {
+        return LNG + km / KM_PER_DEGREE_LNG;
+    }
+
+    static Coordinates kmEast(double km) {
+        return new Coordinates(LAT, east(km));
+    }
+}
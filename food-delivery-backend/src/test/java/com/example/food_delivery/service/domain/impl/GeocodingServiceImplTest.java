@@ -0,0 +1,91 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.service.domain.Geocoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeocodingServiceImplTest {
+
+    @Test
+    void gazetteerResolvesTheMostPreciseRowItKnows() {
+        GazetteerGeocoder geocoder = new GazetteerGeocoder();
+        ReflectionTestUtils.setField(geocoder, "gazetteer", new ClassPathResource("geocoding/gazetteer.csv"));
+        geocoder.load();
+
+        // street in postal code, written the way customers type it
+        Coordinates street = geocoder.geocode(new Address("Ul. Makedonija br. 12", "stan 4", "Skopje", "1000", "North Macedonia")).orElseThrow();
+        assertEquals(41.9934, street.getLat(), 1e-9);
+        assertEquals(street.getLat(), geocoder.geocode(new Address("makedonija 3", null, "SKOPJE", null, "MK")).orElseThrow().getLat());
+        // unknown street falls back to the postal code, then to the city
+        assertEquals(41.9965, geocoder.geocode(new Address("Nepoznata 7", null, "Skopje", "1000", "MK")).orElseThrow().getLat(), 1e-9);
+        assertEquals(41.1172, geocoder.geocode(new Address("Nepoznata 7", null, "Ohrid", null, null)).orElseThrow().getLat(), 1e-9);
+        assertFalse(geocoder.geocode(new Address("Main St 1", null, "Springfield", "12345", "US")).isPresent());
+    }
+
+    @Test
+    void repeatAddressesAreAnsweredFromTheCache() {
+        AtomicInteger calls = new AtomicInteger();
+        Geocoder geocoder = address -> {
+            calls.incrementAndGet();
+            return address.getLine1().startsWith("Unknown") ? Optional.empty() : Optional.of(new Coordinates(42.0, 21.4));
+        };
+        GeocodingServiceImpl service = new GeocodingServiceImpl(geocoder);
+        ReflectionTestUtils.setField(service, "maxEntries", 2);
+
+        service.locate(new Address("Partizanska 1", null, "Skopje", "1000", "MK"));
+        service.locate(new Address("partizanska, 1", "floor 2", "skopje", "1000", "Macedonia"));
+        service.locate(new Address("Unknown 1", null, "Skopje", "1000", "MK"));
+        assertFalse(service.locate(new Address("Unknown 1", null, "Skopje", "1000", "MK")).isPresent());
+        assertEquals(2, calls.get());
+
+        // least recently used goes first
+        service.locate(new Address("Ilindenska 5", null, "Skopje", "1000", "MK"));
+        service.locate(new Address("Unknown 1", null, "Skopje", "1000", "MK"));
+        service.locate(new Address("Partizanska 1", null, "Skopje", "1000", "MK"));
+        assertEquals(4, calls.get());
+
+        Address typed = new Address("Anywhere 1", null, "Skopje", "1000", "MK");
+        typed.setCoordinates(new Coordinates(41.5, 21.5));
+        assertTrue(service.locateIfMissing(typed));
+        assertEquals(41.5, typed.getCoordinates().getLat());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void repeatCustomersHitTheCacheAlmostAlways() {
+        GazetteerGeocoder gazetteer = new GazetteerGeocoder();
+        ReflectionTestUtils.setField(gazetteer, "gazetteer", new ClassPathResource("geocoding/gazetteer.csv"));
+        gazetteer.load();
+        GeocodingServiceImpl service = new GeocodingServiceImpl(gazetteer);
+        ReflectionTestUtils.setField(service, "maxEntries", 10_000);
+
+        // 2000 customers with one to three addresses each, 100k checkouts
+        Random random = new Random(13);
+        String[] streets = {"Makedonija", "Ilindenska", "Partizanski odredi", "Dame Gruev", "Nepoznata"};
+        Address[][] customers = new Address[2_000][];
+        for (int c = 0; c < customers.length; c++) {
+            customers[c] = new Address[1 + random.nextInt(3)];
+            for (int a = 0; a < customers[c].length; a++) {
+                customers[c][a] = new Address(streets[random.nextInt(streets.length)] + " " + (1 + random.nextInt(200)),
+                        null, "Skopje", "1000", "MK");
+            }
+        }
+        for (int i = 0; i < 100_000; i++) {
+            Address[] addresses = customers[random.nextInt(customers.length)];
+            service.locate(addresses[random.nextInt(addresses.length)]);
+        }
+
+        assertTrue(service.hitRate() > 0.95, "hit rate " + service.hitRate());
+    }
+}
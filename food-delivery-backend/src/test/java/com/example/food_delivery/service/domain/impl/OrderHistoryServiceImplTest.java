@@ -0,0 +1,108 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.domain.UserOrderHistory;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.model.events.OrderConfirmedEvent;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserOrderHistoryRepository;
+import com.example.food_delivery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-history;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "order-history.queue-capacity=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OrderHistoryServiceImpl.class)
+class OrderHistoryServiceImplTest {
+
+    @Autowired
+    private OrderHistoryServiceImpl orderHistoryService;
+
+    @Autowired
+    private UserOrderHistoryRepository historyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private User customer;
+    private Restaurant restaurant;
+    private Product pizza;
+    private Product salad;
+
+    @BeforeEach
+    void setUp() {
+        orderHistoryService.flush();
+        historyRepository.deleteAll();
+        customer = userRepository.save(new User("history-customer", "x", "H", "C", "hc@mail.com", Role.ROLE_CUSTOMER));
+        restaurant = restaurantRepository.save(new Restaurant("History bistro", ""));
+        pizza = productRepository.save(new Product("Pizza", "", 8.5, 10, restaurant));
+        salad = productRepository.save(new Product("Salad", "", 4.0, 10, restaurant));
+    }
+
+    @Test
+    void everyLineOfAConfirmedOrderBecomesAHistoryRow() {
+        orderHistoryService.record(event(
+                new OrderConfirmedEvent.Line(pizza.getId(), restaurant.getId(), 2, 8.5),
+                new OrderConfirmedEvent.Line(salad.getId(), restaurant.getId(), 1, 4.0)));
+
+        assertEquals(2, orderHistoryService.flush());
+
+        List<UserOrderHistory> rows = historyRepository.findByUser(customer).stream()
+                .sorted(Comparator.comparing(UserOrderHistory::getPrice))
+                .toList();
+        assertEquals(2, rows.size());
+        assertEquals(salad.getId(), rows.get(0).getProduct().getId());
+        assertEquals(1, rows.get(0).getQuantity());
+        assertEquals(pizza.getId(), rows.get(1).getProduct().getId());
+        assertEquals(2, rows.get(1).getQuantity());
+        assertEquals(17.0, rows.get(1).getOrderValue());
+        assertEquals(0, orderHistoryService.flush());
+    }
+
+    @Test
+    void rowsBeyondTheQueueAndFailedBatchesAreCountedAsDropped() {
+        long droppedBefore = orderHistoryService.droppedRows();
+        OrderConfirmedEvent.Line line = new OrderConfirmedEvent.Line(pizza.getId(), restaurant.getId(), 1, 8.5);
+        orderHistoryService.record(event(line, line, line, line));
+        assertEquals(droppedBefore + 1, orderHistoryService.droppedRows());
+        assertEquals(3, orderHistoryService.flush());
+
+        // a product that is not there fails the foreign key; the run carries on without it
+        orderHistoryService.record(event(new OrderConfirmedEvent.Line(-1L, restaurant.getId(), 1, 8.5)));
+        assertEquals(0, orderHistoryService.flush());
+        assertEquals(droppedBefore + 2, orderHistoryService.droppedRows());
+        assertEquals(3, historyRepository.findByUser(customer).size());
+    }
+
+    private OrderConfirmedEvent event(OrderConfirmedEvent.Line... lines) {
+        return new OrderConfirmedEvent(1L, customer.getUsername(), Instant.now(), null, null, List.of(lines));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import com.example.food_delivery.service.domain.GeocodingService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderServiceImplTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderTotalsService orderTotalsService = mock(OrderTotalsService.class);
+    private final OrderServiceImpl orderService = new OrderServiceImpl(orderRepository, mock(UserRepository.class),
+            orderTotalsService, mock(StockReservationService.class), mock(CartReservationService.class),
+            mock(GeocodingService.class), mock(ApplicationEventPublisher.class), mock(EntityManager.class));
+
+    @Test
+    void aNewAddressIsPricedForItsOwnZone() {
+        Restaurant restaurant = new Restaurant("Corner grill", "");
+        Order order = new Order(new User());
+        order.setId(5L);
+        order.setRestaurant(restaurant);
+        when(orderRepository.findById(5L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(call -> call.getArgument(0));
+        // stands in for a zone lookup: the fee follows the address the order has when fees are set
+        doAnswer(call -> {
+            Order priced = call.getArgument(0);
+            priced.setDeliveryFee(priced.getDeliveryAddress().getCoordinates().getLat() > 42 ? 4.0 : 2.0);
+            priced.recalcTotals();
+            return null;
+        }).when(orderTotalsService).setFeesAndRecalculate(any(Order.class), any());
+
+        Address address = new Address("Outer ring 1", null, "Skopje", "1000", "MK");
+        address.setCoordinates(new Coordinates(42.05, 21.43));
+        Order updated = orderService.updateAddress(5L, address).orElseThrow();
+
+        assertEquals(4.0, updated.getDeliveryFee());
+        assertEquals(4.0, updated.getTotal());
+    }
+}
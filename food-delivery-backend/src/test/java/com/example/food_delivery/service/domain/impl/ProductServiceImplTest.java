@@ -0,0 +1,240 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.helpers.TtlCache;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.StockReservation;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.events.RestaurantChangedEvent;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.service.domain.CartReservationService;
+import com.example.food_delivery.service.domain.OrderTotalsService;
+import com.example.food_delivery.service.domain.SearchService;
+import com.example.food_delivery.service.domain.StockReservationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockReservationService stockReservationService = mock(StockReservationService.class);
+    private final Map<Long, Product> rows = new HashMap<>();
+    private final Map<Long, Integer> quantities = new HashMap<>();
+    private final Restaurant pizzeria = restaurant(1L);
+    private final Restaurant grill = restaurant(2L);
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(rows.get(call.<Long>getArgument(0))));
+        when(productRepository.findAll()).thenAnswer(call -> new ArrayList<>(rows.values()));
+        when(productRepository.findQuantityById(anyLong())).thenAnswer(call -> Optional.ofNullable(quantities.get(call.<Long>getArgument(0))));
+        when(productRepository.findAllQuantities()).thenAnswer(call -> quantities.entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue()}).toList());
+        when(productRepository.save(any(Product.class))).thenAnswer(call -> call.getArgument(0));
+        productService = new ProductServiceImpl(productRepository, mock(OrderTotalsService.class),
+                stockReservationService, mock(CartReservationService.class), mock(SearchService.class),
+                mock(EntityManager.class));
+        ReflectionTestUtils.setField(productService, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(productService, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(productService, "stockTtlMs", 1_000L);
+        productService.createCaches();
+
+        add(product(10L, "Margherita", pizzeria), 5);
+        add(product(11L, "Capricciosa", pizzeria), 7);
+        add(product(20L, "Burger", grill), 3);
+    }
+
+    @Test
+    void everyWriteEvictsTheProductAndTheFullCatalog() {
+        productService.findById(10L);
+        productService.findById(10L);
+        productService.findAll();
+        productService.findAll();
+        verify(productRepository, times(1)).findAll();
+        assertEquals(1, productService.cacheStats().get("products").hits());
+
+        Product renamed = product(10L, "Margherita DOP", pizzeria);
+        productService.save(renamed);
+        rows.put(10L, renamed);
+        assertEquals("Margherita DOP", productService.findById(10L).orElseThrow().getName());
+        assertEquals("Margherita DOP", productService.findAll().stream()
+                .filter(p -> p.getId() == 10L).findFirst().orElseThrow().getName());
+        verify(productRepository, times(2)).findAll();
+
+        productService.update(10L, product(10L, "Margherita", pizzeria));
+        assertEquals("Margherita", productService.findById(10L).orElseThrow().getName());
+
+        productService.deleteById(10L);
+        rows.remove(10L);
+        assertTrue(productService.findById(10L).isEmpty());
+        assertEquals(2, productService.findAll().size());
+        verify(productRepository, times(3)).findAll();
+    }
+
+    @Test
+    void aRestaurantChangeDropsOnlyItsOwnProducts() {
+        productService.findById(10L);
+        productService.findById(20L);
+        long misses = productService.cacheStats().get("products").misses();
+
+        productService.onRestaurantChanged(new RestaurantChangedEvent(1L));
+        productService.findById(10L);
+        productService.findById(20L);
+
+        TtlCache.Stats stats = productService.cacheStats().get("products");
+        assertEquals(misses + 1, stats.misses());
+        assertEquals(1, stats.hits());
+        verify(productRepository, times(2)).findById(10L);
+        verify(productRepository, times(1)).findById(20L);
+    }
+
+    @Test
+    void stockIsReadAgainOnceItsShortLifetimeIsOver() {
+        AtomicLong now = new AtomicLong(1_000);
+        ReflectionTestUtils.setField(productService, "stock", new TtlCache<Long, Optional<Integer>>(100, 1_000, now::get));
+
+        assertEquals(5, productService.findById(10L).orElseThrow().getQuantity());
+        // carts move stock with bulk updates that do not go through the service
+        quantities.put(10L, 4);
+        assertEquals(5, productService.findById(10L).orElseThrow().getQuantity());
+
+        now.addAndGet(1_000);
+        assertEquals(4, productService.findById(10L).orElseThrow().getQuantity());
+        // only the quantity was read again, the product itself stays cached
+        verify(productRepository, times(1)).findById(10L);
+        verify(productRepository, times(2)).findQuantityById(10L);
+        // the full catalog reads every quantity on each call
+        assertEquals(4, productService.findAll().stream()
+                .filter(p -> p.getId() == 10L).findFirst().orElseThrow().getQuantity());
+        TtlCache.Stats stock = productService.cacheStats().get("stock");
+        assertEquals(1, stock.hits());
+        assertEquals(2, stock.misses());
+    }
+
+    @Test
+    void legacyDualWriteRemovesTheOrdersOwnInstanceOfACachedProduct() {
+        ReflectionTestUtils.setField(productService, "legacyProductsDualWrite", true);
+        when(stockReservationService.reserve(anyLong(), anyInt())).thenAnswer(call ->
+                Optional.of(new StockReservation(call.getArgument(0), call.getArgument(1))));
+        Product loaded = rows.get(10L);
+        loaded.setQuantity(5);
+        Order order = new Order(new User());
+        productService.updateOrderItems(order, Map.of(loaded, 2));
+        assertEquals(2, order.getProducts().size());
+
+        // what the controllers pass in: the cached product with its current quantity, a different instance
+        Product cached = productService.findById(10L).orElseThrow();
+        productService.removeFromOrder(cached, order);
+
+        assertEquals(1, order.getProducts().size());
+        assertEquals(1, order.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void repeatedAddsBumpTheQuantityOfTheExistingLine() {
+        reserveEverything();
+        Order order = new Order(new User());
+        Product margherita = inStock(10L);
+
+        productService.addToOrder(margherita, order);
+        productService.addToOrder(margherita, order);
+        productService.updateOrderItems(order, Map.of(margherita, 2));
+
+        assertEquals(1, order.getItems().size());
+        assertEquals(4, order.getItems().get(0).getQuantity());
+        verify(stockReservationService, times(2)).reserve(10L, 1);
+        verify(stockReservationService).reserve(10L, 2);
+    }
+
+    @Test
+    void aLineIsRemovedAtZeroAndOnlyItsRemainingUnitsAreReleased() {
+        reserveEverything();
+        Order order = new Order(new User());
+        Product margherita = inStock(10L);
+        productService.updateOrderItems(order, Map.of(margherita, 3));
+
+        productService.removeFromOrder(margherita, order);
+        assertEquals(2, order.getItems().get(0).getQuantity());
+        // asking for more than the line holds only gives back what it held
+        productService.updateOrderItems(order, Map.of(margherita, -5));
+
+        assertTrue(order.getItems().isEmpty());
+        verify(stockReservationService).release(new StockReservation(10L, 1));
+        verify(stockReservationService).release(new StockReservation(10L, 2));
+        // nothing left to remove, nothing released
+        productService.removeFromOrder(margherita, order);
+        verify(stockReservationService, times(2)).release(any(StockReservation.class));
+    }
+
+    @Test
+    void aBatchAppliesMixedDeltasInProductIdOrder() {
+        reserveEverything();
+        Order order = new Order(new User());
+        productService.updateOrderItems(order, Map.of(inStock(11L), 3));
+        Map<Product, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(inStock(20L), 1);
+        deltas.put(inStock(11L), -2);
+        deltas.put(inStock(10L), 2);
+
+        productService.updateOrderItems(order, deltas);
+
+        InOrder inOrder = inOrder(stockReservationService);
+        inOrder.verify(stockReservationService).reserve(10L, 2);
+        inOrder.verify(stockReservationService).release(new StockReservation(11L, 2));
+        inOrder.verify(stockReservationService).reserve(20L, 1);
+        Map<Long, Integer> lines = new HashMap<>();
+        order.getItems().forEach(item -> lines.put(item.getProduct().getId(), item.getQuantity()));
+        assertEquals(Map.of(10L, 2, 11L, 1, 20L, 1), lines);
+    }
+
+    private void reserveEverything() {
+        when(stockReservationService.reserve(anyLong(), anyInt())).thenAnswer(call ->
+                Optional.of(new StockReservation(call.getArgument(0), call.getArgument(1))));
+    }
+
+    private Product inStock(Long id) {
+        Product product = rows.get(id);
+        product.setQuantity(quantities.get(id));
+        return product;
+    }
+
+    private void add(Product product, int quantity) {
+        rows.put(product.getId(), product);
+        quantities.put(product.getId(), quantity);
+    }
+
+    private static Product product(Long id, String name, Restaurant restaurant) {
+        Product product = new Product(name, "", 10.0, null, restaurant);
+        product.setId(id);
+        return product;
+    }
+
+    private static Restaurant restaurant(Long id) {
+        Restaurant restaurant = new Restaurant("Restaurant " + id, "");
+        restaurant.setId(id);
+        return restaurant;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Coordinates;
+import com.example.food_delivery.model.domain.DeliveryZone;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RestaurantMatch;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.DeliveryZoneService;
+import com.example.food_delivery.service.domain.RestaurantLocatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({RestaurantLocatorServiceImpl.class, DeliveryZoneServiceImpl.class})
+class RestaurantLocatorServiceImplTest extends GeoJpaTest {
+
+    @Autowired
+    private RestaurantLocatorService restaurantLocatorService;
+
+    @Autowired
+    private DeliveryZoneService deliveryZoneService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @BeforeEach
+    void clear() {
+        restaurantRepository.deleteAll();
+    }
+
+    @Test
+    void listsRestaurantsWhoseZonesCoverThePointNearestFirst() {
+        Restaurant far = restaurantRepository.save(restaurant("far", east(4), 5, 2.0));
+        Restaurant near = restaurantRepository.save(restaurant("near", east(1), 2, 1.0));
+        // close by, but its small zone stops short of the point
+        Restaurant small = restaurantRepository.save(restaurant("small", east(-1.5), 1, 0.5));
+        Restaurant none = new Restaurant("no zones", "");
+        none.setCoordinates(new Coordinates(LAT, LNG));
+        restaurantRepository.save(none);
+        deliveryZoneService.rebuild();
+        restaurantLocatorService.rebuild();
+
+        List<RestaurantMatch> matches = restaurantLocatorService.deliveringTo(LAT, LNG, 10);
+
+        assertEquals(List.of(near.getId(), far.getId()), matches.stream().map(RestaurantMatch::restaurantId).toList());
+        assertEquals(1.0, matches.get(0).distanceKm(), 0.05);
+        assertEquals(2.0, matches.get(1).zone().fee());
+        assertEquals(List.of(near.getId()),
+                restaurantLocatorService.deliveringTo(LAT, LNG, 1).stream().map(RestaurantMatch::restaurantId).toList());
+        assertTrue(restaurantLocatorService.deliveringTo(LAT, east(-30), 10).stream()
+                .noneMatch(match -> match.restaurantId().equals(small.getId())));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void scansTenThousandRestaurantsWithinAFewMilliseconds() {
+        Random random = new Random(9);
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int r = 0; r < 10_000; r++) {
+            Restaurant restaurant = restaurant("Kitchen " + r, LNG - 0.6 + random.nextDouble() * 1.2, 1 + random.nextInt(6), 1.0);
+            restaurant.getCoordinates().setLat(LAT - 0.4 + random.nextDouble() * 0.8);
+            restaurant.getDeliveryZones().get(0).setCenter(restaurant.getCoordinates());
+            restaurants.add(restaurant);
+        }
+        restaurantRepository.saveAll(restaurants);
+        deliveryZoneService.rebuild();
+        restaurantLocatorService.rebuild();
+
+        int lookups = 5_000;
+        double[] lat = new double[lookups];
+        double[] lng = new double[lookups];
+        for (int i = 0; i < lookups; i++) {
+            lat[i] = LAT - 0.4 + random.nextDouble() * 0.8;
+            lng[i] = LNG - 0.6 + random.nextDouble() * 1.2;
+        }
+        for (int i = 0; i < lookups; i++) { // warm-up
+            restaurantLocatorService.deliveringTo(lat[i], lng[i], 200);
+        }
+        long[] nanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long began = System.nanoTime();
+            restaurantLocatorService.deliveringTo(lat[i], lng[i], 200);
+            nanos[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[lookups / 2] / 1e6;
+        double p99 = nanos[lookups * 99 / 100] / 1e6;
+        assertTrue(p99 < 10.0, "p50 " + p50 + " ms, p99 " + p99 + " ms");
+    }
+
+    private static Restaurant restaurant(String name, double lng, double radiusKm, double fee) {
+        Restaurant restaurant = new Restaurant(name, "");
+        restaurant.setCoordinates(new Coordinates(LAT, lng));
+        DeliveryZone zone = new DeliveryZone();
+        zone.setRestaurant(restaurant);
+        zone.setName(name);
+        zone.setRadiusKm(radiusKm);
+        zone.setCenter(new Coordinates(LAT, lng));
+        zone.setDeliveryFee(fee);
+        restaurant.getDeliveryZones().add(zone);
+        return restaurant;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Address;
+import com.example.food_delivery.model.domain.Courier;
+import com.example.food_delivery.model.domain.Order;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.model.domain.RouteStop;
+import com.example.food_delivery.model.domain.User;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.enums.Role;
+import com.example.food_delivery.model.exceptions.OrderStatusConflictException;
+import com.example.food_delivery.repository.CourierRepository;
+import com.example.food_delivery.repository.OrderRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.repository.UserRepository;
+import com.example.food_delivery.service.domain.CourierService;
+import com.example.food_delivery.service.domain.RoutePlanningService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Import({RoutePlanningServiceImpl.class, CourierServiceImpl.class, CourierLocationServiceImpl.class})
+class RoutePlanningServiceImplTest extends GeoJpaTest {
+
+    @Autowired
+    private RoutePlanningService routePlanningService;
+
+    @Autowired
+    private CourierService courierService;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void collectedOrdersNoLongerSendTheCourierToTheRestaurant() {
+        User customer = userRepository.save(new User("route-customer", "x", "C", "C", "rc@mail.com", Role.ROLE_CUSTOMER));
+        Restaurant restaurant = new Restaurant("Corner grill", "");
+        restaurant.setCoordinates(kmEast(0));
+        restaurant = restaurantRepository.save(restaurant);
+        User courierUser = userRepository.save(new User("route-courier", "x", "K", "K", "rk@mail.com", Role.ROLE_COURIER));
+        courierRepository.save(new Courier(courierUser, true));
+        Long first = orderRepository.save(order(customer, restaurant, 2)).getId();
+        Long second = orderRepository.save(order(customer, restaurant, 4)).getId();
+        courierService.assignToOrder("route-courier", first);
+        courierService.assignToOrder("route-courier", second);
+
+        List<RouteStop> route = routePlanningService.planRoute("route-courier");
+        assertEquals(RouteStop.Type.PICKUP, route.get(0).type());
+        assertEquals(List.of(first, second), route.get(0).orderIds());
+        assertEquals(3, route.size());
+
+        assertEquals(OrderStatus.EN_ROUTE, courierService.collectOrder("route-courier", first).getStatus());
+        route = routePlanningService.planRoute("route-courier");
+        assertEquals(List.of(second), route.stream()
+                .filter(stop -> stop.type() == RouteStop.Type.PICKUP)
+                .flatMap(stop -> stop.orderIds().stream()).toList());
+
+        courierService.collectOrder("route-courier", second);
+        route = routePlanningService.planRoute("route-courier");
+        assertEquals(2, route.size());
+        route.forEach(stop -> assertEquals(RouteStop.Type.DROPOFF, stop.type()));
+        assertThrows(OrderStatusConflictException.class, () -> courierService.collectOrder("route-courier", second));
+    }
+
+    private Order order(User customer, Restaurant restaurant, double kmEast) {
+        Order order = new Order(customer);
+        order.setRestaurant(restaurant);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPlacedAt(Instant.now());
+        Address address = new Address("Street " + (int) kmEast, null, "Skopje", "1000", "MK");
+        address.setCoordinates(kmEast(kmEast));
+        order.setDeliveryAddress(address);
+        return order;
+    }
+}
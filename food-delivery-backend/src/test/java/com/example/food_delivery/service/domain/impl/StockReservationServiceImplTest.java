@@ -0,0 +1,89 @@
+package com.example.food_delivery.service.domain.impl;
+
+import com.example.food_delivery.model.domain.Product;
+import com.example.food_delivery.model.domain.Restaurant;
+import com.example.food_delivery.repository.ProductRepository;
+import com.example.food_delivery.repository.RestaurantRepository;
+import com.example.food_delivery.service.domain.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockReservationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceImplTest {
+
+    private static final int THREADS = 200;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+    private static final int STOCK = 500;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Hot spot", "Dinner peak"));
+        Product product = productRepository.save(new Product("Burger", "", 250.0, STOCK, restaurant));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    stockReservationService.reserve(product.getId(), 1).ifPresent(r -> reserved.incrementAndGet());
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(STOCK, reserved.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void releaseReturnsReservedUnits() {
+        Restaurant restaurant = restaurantRepository.save(new Restaurant("Corner", "Lunch"));
+        Product product = productRepository.save(new Product("Salad", "", 180.0, 3, restaurant));
+
+        stockReservationService.reserve(product.getId(), 2)
+                .ifPresent(stockReservationService::release);
+
+        assertEquals(3, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+        assertEquals(true, stockReservationService.reserve(product.getId(), 4).isEmpty());
+    }
+}
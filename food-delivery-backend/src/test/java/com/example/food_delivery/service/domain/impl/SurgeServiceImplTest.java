@@ -0,0 +1,35 @@
+package com.example.food_delivery.service.domain.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SurgeServiceImplTest {
+
+    private SurgeServiceImpl surge;
+
+    @BeforeEach
+    void setUp() {
+        surge = new SurgeServiceImpl(null, null, null);
+        ReflectionTestUtils.setField(surge, "ordersPerCourier", 2.0);
+        ReflectionTestUtils.setField(surge, "minOrders", 3);
+        ReflectionTestUtils.setField(surge, "sensitivity", 0.25);
+        ReflectionTestUtils.setField(surge, "maxMultiplier", 2.0);
+        ReflectionTestUtils.setField(surge, "step", 0.1);
+    }
+
+    @Test
+    void multiplierGrowsWithOrdersPerIdleCourierAndStaysBounded() {
+        // idle couriers absorb the demand
+        assertEquals(1.0, surge.multiplier(8, 4), 1e-9);
+        // too few orders to judge
+        assertEquals(1.0, surge.multiplier(2, 0), 1e-9);
+        // 12 orders on 2 couriers: pressure 3
+        assertEquals(1.5, surge.multiplier(12, 2), 1e-9);
+        // no couriers at all counts as half of one
+        assertEquals(2.0, surge.multiplier(40, 0), 1e-9);
+        assertEquals(1.1, surge.multiplier(6, 2), 1e-9);
+    }
+}
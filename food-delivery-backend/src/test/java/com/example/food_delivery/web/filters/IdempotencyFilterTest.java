@@ -0,0 +1,132 @@
+package com.example.food_delivery.web.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private IdempotentResponseStore store;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final FilterChain chain = (request, response) -> {
+        int n = executions.incrementAndGet();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(200);
+        http.setContentType("application/json");
+        http.getOutputStream().write(("{\"attempt\":" + n + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotentResponseStore();
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        ReflectionTestUtils.setField(store, "ttlMinutes", 60L);
+        filter = new IdempotencyFilter(store, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "paths", List.of("/api/orders/pending/confirm", "/api/payments/*/intent"));
+        authenticate("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retryIsAnsweredFromTheStore() throws Exception {
+        MockHttpServletResponse first = send("PUT", "/api/orders/pending/confirm", "k1");
+        MockHttpServletResponse retry = send("PUT", "/api/orders/pending/confirm", "k1");
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keysAreScopedToTheCaller() throws Exception {
+        send("PUT", "/api/orders/pending/confirm", "k1");
+        authenticate("bob");
+        send("PUT", "/api/orders/pending/confirm", "k1");
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void reusingAKeyForAnotherRequestIsRejected() throws Exception {
+        send("POST", "/api/payments/1/intent", "k1");
+        MockHttpServletResponse other = send("POST", "/api/payments/2/intent", "k1");
+
+        assertEquals(1, executions.get());
+        assertEquals(422, other.getStatus());
+    }
+
+    @Test
+    void requestsWithoutKeyOrOutsideTheConfiguredPathsPassThrough() throws Exception {
+        send("PUT", "/api/orders/pending/confirm", null);
+        send("PUT", "/api/orders/pending/confirm", null);
+        send("PUT", "/api/orders/pending/cancel", "k1");
+        send("PUT", "/api/orders/pending/cancel", "k1");
+
+        assertEquals(4, executions.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void serverErrorsAreNotRecorded() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        filter.doFilter(request("PUT", "/api/orders/pending/confirm", "k1"), new MockHttpServletResponse(), failing);
+        send("PUT", "/api/orders/pending/confirm", "k1");
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void storeIsBoundedByEntryCount() throws Exception {
+        send("PUT", "/api/orders/pending/confirm", "k1");
+        send("PUT", "/api/orders/pending/confirm", "k2");
+        send("PUT", "/api/orders/pending/confirm", "k3");
+        send("PUT", "/api/orders/pending/confirm", "k1");
+
+        assertEquals(2, store.size());
+        assertEquals(4, executions.get());
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String key) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri, key), response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String uri, String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.food_delivery.web.streaming;
+
+import com.example.food_delivery.dto.domain.OrderTrackingDeltaDto;
+import com.example.food_delivery.model.enums.OrderStatus;
+import com.example.food_delivery.model.events.CourierMovedEvent;
+import com.example.food_delivery.model.events.OrderStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderTrackingHubTest {
+
+    private static final Object COMPLETED = new Object();
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private OrderTrackingHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new OrderTrackingHub() {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+        ReflectionTestUtils.setField(hub, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(hub, "senderThreads", 2);
+        ReflectionTestUtils.setField(hub, "maxPendingEvents", 4);
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        hub.shutdown();
+    }
+
+    @Test
+    void statusAndLocationChangesReachEverySubscriberOfTheOrder() throws Exception {
+        RecordingEmitter first = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.EN_ROUTE, 7L));
+        RecordingEmitter second = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.EN_ROUTE, 7L));
+        RecordingEmitter other = (RecordingEmitter) hub.subscribeOrder(snapshot(2L, OrderStatus.CONFIRMED, null));
+        assertEquals(3, hub.connections());
+
+        hub.onCourierMoved(new CourierMovedEvent(7L, 42.0, 21.4, Instant.now()));
+        for (RecordingEmitter emitter : new RecordingEmitter[]{first, second}) {
+            assertEquals(OrderStatus.EN_ROUTE, emitter.next().status());
+            OrderTrackingDeltaDto location = emitter.next();
+            assertEquals(1L, location.orderId());
+            assertEquals(42.0, location.lat());
+        }
+        assertEquals(OrderStatus.CONFIRMED, other.next().status());
+        assertNull(other.poll(100));
+    }
+
+    @Test
+    void theLastStatusIsSentBeforeTheStreamCloses() throws Exception {
+        RecordingEmitter emitter = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.EN_ROUTE, 7L));
+        emitter.next();
+
+        hub.onStatusChanged(changed(1L, OrderStatus.DELIVERED));
+
+        assertEquals(OrderStatus.DELIVERED, emitter.next().status());
+        assertEquals(COMPLETED, emitter.poll(1_000));
+        assertEquals(0, hub.connections());
+    }
+
+    @Test
+    void subscribingToAFinishedOrderSendsTheSnapshotAndCloses() throws Exception {
+        for (OrderStatus status : new OrderStatus[]{OrderStatus.DELIVERED, OrderStatus.CANCELED, OrderStatus.EXPIRED}) {
+            RecordingEmitter emitter = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, status, null));
+            assertEquals(status, emitter.next().status());
+            assertEquals(COMPLETED, emitter.poll(1_000));
+        }
+        assertEquals(0, hub.connections());
+    }
+
+    @Test
+    void aClientThatWentAwayIsUnsubscribed() throws Exception {
+        RecordingEmitter gone = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        RecordingEmitter staying = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        gone.next();
+        staying.next();
+        gone.failing = true;
+
+        hub.heartbeat();
+        hub.onStatusChanged(changed(1L, OrderStatus.IN_PREPARATION));
+
+        assertEquals(OrderStatus.IN_PREPARATION, staying.next().status());
+        assertInstanceOf(IOException.class, gone.poll(1_000));
+        assertEquals(1, hub.connections());
+    }
+
+    @Test
+    void aSlowClientDoesNotHoldUpOthersAndIsDroppedOnceItFallsBehind() throws Exception {
+        RecordingEmitter slow = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        RecordingEmitter fast = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        slow.next();
+        fast.next();
+        slow.writable = unblock;
+
+        // the slow client gets stuck writing the first of these, and the rest overflow its queue
+        for (int i = 0; i < 6; i++) {
+            OrderStatus status = i % 2 == 0 ? OrderStatus.IN_PREPARATION : OrderStatus.READY_FOR_PICKUP;
+            hub.onStatusChanged(changed(1L, status));
+            assertEquals(status, fast.next().status());
+        }
+        assertEquals(1, hub.connections());
+        assertEquals(COMPLETED, slow.poll(1_000));
+    }
+
+    @Test
+    void everySubscriberIsSentAnEventOfItsOwn() throws Exception {
+        RecordingEmitter first = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        RecordingEmitter second = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        first.next();
+        second.next();
+        first.builders.clear();
+        second.builders.clear();
+
+        hub.heartbeat();
+        hub.heartbeat();
+
+        SseEmitter.SseEventBuilder[] sent = {
+                first.builders.poll(1, TimeUnit.SECONDS), first.builders.poll(1, TimeUnit.SECONDS),
+                second.builders.poll(1, TimeUnit.SECONDS), second.builders.poll(1, TimeUnit.SECONDS)};
+        // a builder keeps appending to what it built before, so sharing one would grow the heartbeat
+        assertEquals(4, Set.of(sent).size());
+        for (SseEmitter.SseEventBuilder builder : sent) {
+            assertEquals(":\n\n", builder.build().iterator().next().getData());
+        }
+    }
+
+    @Test
+    void aStreamThatFailsToWriteAnEventIsDroppedInsteadOfStuck() throws Exception {
+        RecordingEmitter broken = (RecordingEmitter) hub.subscribeOrder(snapshot(1L, OrderStatus.CONFIRMED, null));
+        broken.next();
+        broken.failWith = new IllegalArgumentException("No converter for the payload");
+
+        hub.onStatusChanged(changed(1L, OrderStatus.IN_PREPARATION));
+
+        assertInstanceOf(IllegalArgumentException.class, broken.poll(1_000));
+        assertEquals(0, hub.connections());
+    }
+
+    private static OrderTrackingDeltaDto snapshot(Long orderId, OrderStatus status, Long courierId) {
+        return OrderTrackingDeltaDto.status(orderId, status, courierId, null, Instant.now());
+    }
+
+    private static OrderStatusChangedEvent changed(Long orderId, OrderStatus status) {
+        return new OrderStatusChangedEvent(orderId, "customer", null, null, null, status, Instant.now());
+    }
+
+    /**
+     * Records what would be written to the client: the data of each event, then COMPLETED or the
+     * error the stream was closed with.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch writable = new CountDownLatch(0);
+        private final BlockingQueue<SseEventBuilder> builders = new LinkedBlockingQueue<>();
+        private volatile boolean failing;
+        private volatile RuntimeException failWith;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            builders.add(builder);
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (failWith != null) {
+                throw failWith;
+            }
+            try {
+                writable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String))
+                    .forEach(received::add);
+        }
+
+        @Override
+        public void complete() {
+            received.add(COMPLETED);
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            received.add(ex);
+        }
+
+        OrderTrackingDeltaDto next() throws InterruptedException {
+            Object event = poll(1_000);
+            return assertInstanceOf(OrderTrackingDeltaDto.class, event);
+        }
+
+        Object poll(long millis) throws InterruptedException {
+            return received.poll(millis, TimeUnit.MILLISECONDS);
+        }
+    }
+}